@@ -0,0 +1,87 @@
+package org.example.benchmarks;
+
+import org.example.AVL;
+import org.example.RedBlack;
+import org.example.Tree;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.BitSet;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Batch operations (sorted, with shared descents) against loops of single
+// operations on the same keys. The batch is clustered: ascending runs of
+// consecutive keys that start at random points. The loop walks from the
+// root for every key; the batch sorts the runs and then shares the descents
+// of neighbouring keys. The tree holds the even keys, so about half of the
+// batch is present.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BatchOperationBenchmark {
+    private static final int RUN = 64;
+
+    @Param({"1000000"})
+    public int size;
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int batchSize;
+
+    @Param({"AVL", "RED_BLACK"})
+    public TreeType treeType;
+
+    private Integer[] treeKeys;
+    private Integer[] batch;
+    private Tree<Integer> tree;
+
+    @Setup(Level.Trial)
+    public void setUpKeys() {
+        treeKeys = new Integer[size];
+        for (int i = 0; i < size; i++) treeKeys[i] = 2 * i;
+
+        Random random = new Random(TreeWorkload.SEED);
+        batch = new Integer[batchSize];
+        for (int i = 0; i < batchSize; i += RUN) {
+            int start = random.nextInt(2 * size);
+            for (int j = i; j < Math.min(i + RUN, batchSize); j++) batch[j] = start + (j - i);
+        }
+    }
+
+    // Inserts change the tree, so it is rebuilt (linearly) before each call;
+    // searches leave it alone but share the same setup
+    @Setup(Level.Invocation)
+    public void setUpTree() {
+        tree = treeType == TreeType.AVL ? AVL.fromSorted(treeKeys) : RedBlack.fromSorted(treeKeys);
+    }
+
+    @Benchmark
+    public BitSet searchAll() {
+        return tree.searchAll(batch);
+    }
+
+    @Benchmark
+    public BitSet searchLoop() {
+        BitSet found = new BitSet(batch.length);
+        for (int i = 0; i < batch.length; i++) {
+            if (tree.search(batch[i])) found.set(i);
+        }
+        return found;
+    }
+
+    @Benchmark
+    public int insertAll() {
+        return tree.insertAll(batch);
+    }
+
+    @Benchmark
+    public int insertLoop() {
+        int inserted = 0;
+        for (Integer key : batch) {
+            if (tree.insert(key)) inserted++;
+        }
+        return inserted;
+    }
+}
@@ -0,0 +1,63 @@
+package org.example.benchmarks;
+
+import org.example.CachedTree;
+import org.example.Tree;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Zipf(0.99) lookups through a CachedTree of the given capacity (0 looks up
+// the bare tree). Lookups are drawn from twice the key space, so half of the
+// hot keys are misses that the cache answers negatively.
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CachedSearchBenchmark {
+    private static final int LOOKUPS = 1 << 20;
+
+    @Param({"1000000"})
+    public int size;
+
+    @Param({"0", "4096", "65536"})
+    public int cacheCapacity;
+
+    @Param({"INTEGER", "STRING"})
+    public KeyType keyType;
+
+    @Param({"AVL", "RED_BLACK"})
+    public TreeType treeType;
+
+    @SuppressWarnings("rawtypes")
+    private Tree tree;
+    @SuppressWarnings("rawtypes")
+    private Comparable[] lookups;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    public void setUp() {
+        Tree filled = treeType.create();
+        for (Comparable key : keyType.keys(KeyDistribution.RANDOM.generate(size, TreeWorkload.SEED))) filled.insert(key);
+        tree = cacheCapacity == 0 ? filled : new CachedTree(filled, Object::hashCode, cacheCapacity);
+
+        // Popularity rank i belongs to an unrelated key, hit or miss
+        int[] space = KeyDistribution.RANDOM.generate(2 * size, TreeWorkload.SEED + 1);
+        ZipfianGenerator zipf = new ZipfianGenerator(space.length);
+        Random random = new Random(TreeWorkload.SEED);
+        int[] values = new int[LOOKUPS];
+        for (int i = 0; i < LOOKUPS; i++) values[i] = space[zipf.next(random)] / 2;
+        lookups = keyType.keys(values);
+    }
+
+    @Benchmark
+    @SuppressWarnings("unchecked")
+    public boolean search() {
+        int i = cursor;
+        cursor = i + 1 == lookups.length ? 0 : i + 1;
+        return tree.search(lookups[i]);
+    }
+}
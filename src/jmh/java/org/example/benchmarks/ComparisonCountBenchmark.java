@@ -0,0 +1,87 @@
+package org.example.benchmarks;
+
+import org.example.Tree;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+// Reports how many compareTo calls inserts and deletes cost, next to their
+// time. The "comparisons" and "operations" counters are totals over the
+// iteration; their ratio is the number of comparisons per operation.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 3, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ComparisonCountBenchmark {
+    @Param({"100000"})
+    public int size;
+
+    @Param({"RANDOM", "SORTED"})
+    public KeyDistribution distribution;
+
+    @Param({"AVL", "RED_BLACK", "B_PLUS", "WAVL", "TREAP", "SPLAY"})
+    public TreeType treeType;
+
+    private CountingKey[] keys;
+    private Tree<CountingKey> tree;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Counters {
+        public long comparisons;
+        public long operations;
+    }
+
+    @Setup(Level.Trial)
+    public void setUpKeys() {
+        int[] values = distribution.generate(size, TreeWorkload.SEED);
+        keys = new CountingKey[values.length];
+        for (int i = 0; i < values.length; i++) keys[i] = new CountingKey(values[i]);
+    }
+
+    @Setup(Level.Invocation)
+    public void setUpTree() {
+        tree = treeType.create();
+    }
+
+    // Inserts every key, then inserts every key again as a duplicate
+    @Benchmark
+    public Tree<CountingKey> insert(Counters counters) {
+        long before = CountingKey.comparisons;
+        for (CountingKey key : keys) tree.insert(key);
+        for (CountingKey key : keys) tree.insert(key);
+        counters.comparisons += CountingKey.comparisons - before;
+        counters.operations += 2L * keys.length;
+        return tree;
+    }
+
+    // Refills the tree, then deletes every key twice (present, then absent).
+    // Only the deletes are counted; the time includes the refill.
+    @Benchmark
+    public Tree<CountingKey> delete(Counters counters) {
+        for (CountingKey key : keys) tree.insert(key);
+        long before = CountingKey.comparisons;
+        for (CountingKey key : keys) tree.delete(key);
+        for (CountingKey key : keys) tree.delete(key);
+        counters.comparisons += CountingKey.comparisons - before;
+        counters.operations += 2L * keys.length;
+        return tree;
+    }
+
+    public static final class CountingKey implements Comparable<CountingKey> {
+        static long comparisons;
+        private final int value;
+
+        CountingKey(int value) {
+            this.value = value;
+        }
+
+        @Override
+        public int compareTo(CountingKey o) {
+            comparisons++;
+            return Integer.compare(value, o.value);
+        }
+    }
+}
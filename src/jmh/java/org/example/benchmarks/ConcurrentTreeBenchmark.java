@@ -0,0 +1,111 @@
+package org.example.benchmarks;
+
+import org.example.AVL;
+import org.example.AVLNode;
+import org.example.ConcurrentAVL;
+import org.example.Tree;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.ThreadParams;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+// Mixed lookups and updates from several threads against one shared tree:
+// the optimistic ConcurrentAVL against the same AVL behind a global
+// synchronized lock. Scale the thread count with -t, e.g.
+//   java -jar target/benchmarks.jar ConcurrentTreeBenchmark -t 1
+//   java -jar target/benchmarks.jar ConcurrentTreeBenchmark -t 8
+// Updates insert and delete odd keys, so the tree stays near `size` keys.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ConcurrentTreeBenchmark {
+    @Param({"100000", "1000000"})
+    public int size;
+
+    @Param({"0", "10", "50"})
+    public int writePercent;
+
+    @Param({"STAMPED", "SYNCHRONIZED"})
+    public String locking;
+
+    private Tree<Integer> tree;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        tree = locking.equals("STAMPED") ? new ConcurrentAVL<>() : new SynchronizedTree<>();
+        for (int key : KeyDistribution.RANDOM.generate(size, TreeWorkload.SEED)) tree.insert(key);
+    }
+
+    @State(Scope.Thread)
+    public static class ThreadState {
+        private SplittableRandom random;
+
+        @Setup(Level.Trial)
+        public void setUp(ThreadParams params) {
+            random = new SplittableRandom(TreeWorkload.SEED + params.getThreadIndex());
+        }
+    }
+
+    @Benchmark
+    public boolean mixed(ThreadState state) {
+        SplittableRandom random = state.random;
+        int key = random.nextInt(2 * size);
+        if (random.nextInt(100) >= writePercent) return tree.search(key);
+        int odd = key | 1;
+        return random.nextBoolean() ? tree.insert(odd) : tree.delete(odd);
+    }
+
+    // Baseline: one monitor around every operation, reads included
+    private static class SynchronizedTree<T extends Comparable<T>> implements Tree<T> {
+        private final AVL<T> tree = new AVL<>();
+
+        @Override
+        public synchronized boolean insert(T data) {
+            return tree.insert(data);
+        }
+
+        @Override
+        public synchronized boolean delete(T data) {
+            return tree.delete(data);
+        }
+
+        @Override
+        public synchronized boolean search(T data) {
+            return tree.search(data);
+        }
+
+        @Override
+        public synchronized T get(T data) {
+            return tree.get(data);
+        }
+
+        @Override
+        public synchronized int getSize() {
+            return tree.getSize();
+        }
+
+        @Override
+        public synchronized int getHeight() {
+            return tree.getHeight();
+        }
+
+        @Override
+        public synchronized int rank(T data) {
+            return tree.rank(data);
+        }
+
+        @Override
+        public synchronized T select(int index) {
+            return tree.select(index);
+        }
+
+        @Override
+        public synchronized AVLNode<T> getRoot() {
+            return tree.getRoot();
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package org.example.benchmarks;
+
+import org.example.Tree;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+// One invocation deletes every key from a freshly filled tree (score is per
+// batch of `size` deletes). Filling happens in the untimed invocation setup.
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DeleteBenchmark extends TreeWorkload {
+    @SuppressWarnings("rawtypes")
+    private Tree tree;
+
+    @Setup(Level.Trial)
+    public void setUpKeys() {
+        generateKeys();
+    }
+
+    @Setup(Level.Invocation)
+    public void setUpTree() {
+        tree = newFilledTree();
+    }
+
+    @Benchmark
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    public Tree delete() {
+        for (Comparable key : keys) tree.delete(key);
+        return tree;
+    }
+}
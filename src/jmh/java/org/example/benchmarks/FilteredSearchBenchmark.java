@@ -0,0 +1,67 @@
+package org.example.benchmarks;
+
+import org.example.FilteredTree;
+import org.example.Tree;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Uniform lookups of which a missRatio share are for absent (odd) keys,
+// through a FilteredTree at the given false positive rate (0 looks up the
+// bare tree). Both key types' compareTo agrees with equals, so hashCode is a
+// valid filter hash.
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FilteredSearchBenchmark {
+    private static final int LOOKUPS = 1 << 20;
+
+    @Param({"1000000"})
+    public int size;
+
+    @Param({"0.5", "0.9"})
+    public double missRatio;
+
+    @Param({"0", "0.01", "0.001"})
+    public double falsePositiveRate;
+
+    @Param({"INTEGER", "STRING"})
+    public KeyType keyType;
+
+    @Param({"AVL", "RED_BLACK"})
+    public TreeType treeType;
+
+    @SuppressWarnings("rawtypes")
+    private Tree tree;
+    @SuppressWarnings("rawtypes")
+    private Comparable[] lookups;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    public void setUp() {
+        Tree filled = treeType.create();
+        for (Comparable key : keyType.keys(KeyDistribution.RANDOM.generate(size, TreeWorkload.SEED))) filled.insert(key);
+        tree = falsePositiveRate == 0 ? filled : new FilteredTree(filled, Object::hashCode, falsePositiveRate);
+
+        Random random = new Random(TreeWorkload.SEED);
+        int[] values = new int[LOOKUPS];
+        for (int i = 0; i < LOOKUPS; i++) {
+            int key = 2 * random.nextInt(size);
+            values[i] = random.nextDouble() < missRatio ? key + 1 : key;
+        }
+        lookups = keyType.keys(values);
+    }
+
+    @Benchmark
+    @SuppressWarnings("unchecked")
+    public boolean search() {
+        int i = cursor;
+        cursor = i + 1 == lookups.length ? 0 : i + 1;
+        return tree.search(lookups[i]);
+    }
+}
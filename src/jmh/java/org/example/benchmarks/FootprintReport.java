@@ -0,0 +1,72 @@
+package org.example.benchmarks;
+
+import org.example.AVL;
+import org.example.AVLNode;
+import org.example.IntAVL;
+import org.example.LongRedBlack;
+import org.example.RBNode;
+import org.example.RedBlack;
+import org.openjdk.jol.info.ClassLayout;
+import org.openjdk.jol.info.GraphLayout;
+import org.openjdk.jol.vm.VM;
+
+// Heap footprint of the trees, measured with JOL:
+//   java -cp target/benchmarks.jar org.example.benchmarks.FootprintReport [size]
+public class FootprintReport {
+
+    // Field layout of the node class both trees shared before AVLNode/RBNode,
+    // kept here as the "before" baseline
+    @SuppressWarnings("unused")
+    private static final class SharedNode {
+        Object data;
+        SharedNode left;
+        SharedNode right;
+        int height;
+        boolean color;
+        SharedNode parent;
+    }
+
+    public static void main(String[] args) {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        System.out.println(VM.current().details());
+
+        System.out.println(ClassLayout.parseClass(SharedNode.class).toPrintable());
+        System.out.println(ClassLayout.parseClass(AVLNode.class).toPrintable());
+        System.out.println(ClassLayout.parseClass(RBNode.class).toPrintable());
+
+        Integer[] keys = new Integer[size];
+        AVL<Integer> avl = new AVL<>();
+        RedBlack<Integer> rb = new RedBlack<>();
+        IntAVL intAvl = new IntAVL();
+        LongRedBlack longRb = new LongRedBlack();
+        for (int i = 0; i < size; i++) {
+            keys[i] = i;
+            avl.insert(keys[i]);
+            rb.insert(keys[i]);
+            intAvl.insert(i);
+            longRb.insert(i);
+        }
+        GraphLayout keyLayout = GraphLayout.parseInstance((Object[]) keys);
+        double keyBytes = (double) keyLayout.totalSize() / size;
+        long sharedNodeBytes = ClassLayout.parseClass(SharedNode.class).instanceSize();
+
+        System.out.printf("%-12s | %-16s | %-16s%n", "Layout", "Node bytes/entry", "With key bytes/entry");
+        System.out.printf("%-12s | %-16d | %-16.1f%n", "Shared Node", sharedNodeBytes, sharedNodeBytes + keyBytes);
+        printTree("AVLNode", GraphLayout.parseInstance(avl), keyLayout, size);
+        printTree("RBNode", GraphLayout.parseInstance(rb), keyLayout, size);
+        // Keys are stored inline; the figures include unused array capacity
+        printPrimitive("IntAVL", GraphLayout.parseInstance(intAvl), size);
+        printPrimitive("LongRedBlack", GraphLayout.parseInstance(longRb), size);
+    }
+
+    private static void printPrimitive(String name, GraphLayout tree, int size) {
+        double total = (double) tree.totalSize() / size;
+        System.out.printf("%-12s | %-16.1f | %-16.1f%n", name, total, total);
+    }
+
+    private static void printTree(String name, GraphLayout tree, GraphLayout keys, int size) {
+        double total = (double) tree.totalSize() / size;
+        double nodes = (double) tree.subtract(keys).totalSize() / size;
+        System.out.printf("%-12s | %-16.1f | %-16.1f%n", name, nodes, total);
+    }
+}
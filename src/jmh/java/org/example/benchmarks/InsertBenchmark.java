@@ -0,0 +1,36 @@
+package org.example.benchmarks;
+
+import org.example.Tree;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+// One invocation inserts the whole key sequence into an empty tree, so the
+// score is per batch of `size` inserts. The batch is large enough that the
+// per-invocation setup does not distort the timing.
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class InsertBenchmark extends TreeWorkload {
+    @SuppressWarnings("rawtypes")
+    private Tree tree;
+
+    @Setup(Level.Trial)
+    public void setUpKeys() {
+        generateKeys();
+    }
+
+    @Setup(Level.Invocation)
+    public void setUpTree() {
+        tree = treeType.create();
+    }
+
+    @Benchmark
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    public Tree insert() {
+        for (Comparable key : keys) tree.insert(key);
+        return tree;
+    }
+}
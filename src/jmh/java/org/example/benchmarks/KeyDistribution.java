@@ -0,0 +1,56 @@
+package org.example.benchmarks;
+
+import java.util.Random;
+
+// Order in which keys are fed to the tree. Keys are the even numbers
+// 0, 2, ..., 2 * (size - 1), which leaves the odd numbers free for misses.
+public enum KeyDistribution {
+    RANDOM {
+        @Override
+        public int[] generate(int size, long seed) {
+            int[] keys = SORTED.generate(size, seed);
+            shuffle(keys, new Random(seed));
+            return keys;
+        }
+    },
+    SORTED {
+        @Override
+        public int[] generate(int size, long seed) {
+            int[] keys = new int[size];
+            for (int i = 0; i < size; i++) keys[i] = 2 * i;
+            return keys;
+        }
+    },
+    REVERSE {
+        @Override
+        public int[] generate(int size, long seed) {
+            int[] keys = new int[size];
+            for (int i = 0; i < size; i++) keys[i] = 2 * (size - 1 - i);
+            return keys;
+        }
+    },
+    // Zipf(0.99) draws over a shuffled key space, so hot keys are spread over
+    // the whole tree and the sequence contains duplicates.
+    ZIPFIAN {
+        @Override
+        public int[] generate(int size, long seed) {
+            Random random = new Random(seed);
+            int[] keySpace = RANDOM.generate(size, seed);
+            ZipfianGenerator zipf = new ZipfianGenerator(size);
+            int[] keys = new int[size];
+            for (int i = 0; i < size; i++) keys[i] = keySpace[zipf.next(random)];
+            return keys;
+        }
+    };
+
+    public abstract int[] generate(int size, long seed);
+
+    static void shuffle(int[] a, Random random) {
+        for (int i = a.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int tmp = a[i];
+            a[i] = a[j];
+            a[j] = tmp;
+        }
+    }
+}
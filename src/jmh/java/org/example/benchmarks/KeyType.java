@@ -0,0 +1,27 @@
+package org.example.benchmarks;
+
+// Boxes the generated int keys once, outside of the measured code.
+public enum KeyType {
+    INTEGER {
+        @Override
+        public Comparable<?> key(int k) {
+            return k;
+        }
+    },
+    // Fixed-width keys with a shared prefix, so string order matches numeric
+    // order and every compareTo has to scan past the prefix.
+    STRING {
+        @Override
+        public Comparable<?> key(int k) {
+            return String.format("user:%012d", k);
+        }
+    };
+
+    public abstract Comparable<?> key(int k);
+
+    public Comparable<?>[] keys(int[] values) {
+        Comparable<?>[] keys = new Comparable<?>[values.length];
+        for (int i = 0; i < values.length; i++) keys[i] = key(values[i]);
+        return keys;
+    }
+}
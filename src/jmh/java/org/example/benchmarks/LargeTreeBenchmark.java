@@ -0,0 +1,50 @@
+package org.example.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+
+import org.example.Tree;
+
+import java.util.concurrent.TimeUnit;
+
+// Random lookups in trees far larger than the CPU caches, where nearly every
+// node visited is a cache miss. Run it with a hardware profiler to count the
+// misses per lookup, e.g.
+//   java -jar target/benchmarks.jar LargeTreeBenchmark -prof perfnorm
+// The binary trees take about log2(n) dependent loads per lookup, the B+-tree
+// about log_64(n) node loads plus the keys its binary searches compare.
+// The 100M case needs a large heap; see jvmArgsAppend.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms24g", "-Xmx24g"})
+@State(Scope.Benchmark)
+public class LargeTreeBenchmark {
+    @Param({"1000000", "10000000", "100000000"})
+    public int size;
+
+    @Param({"AVL", "RED_BLACK", "B_PLUS"})
+    public TreeType treeType;
+
+    private Tree<Integer> tree;
+    private Integer[] probes;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // Shuffled inserts, so every tree ends up in its usual random-order shape
+        int[] values = KeyDistribution.RANDOM.generate(size, TreeWorkload.SEED);
+        tree = treeType.create();
+        for (int value : values) tree.insert(value);
+        int[] lookups = KeyDistribution.RANDOM.generate(1 << 20, TreeWorkload.SEED + 1);
+        probes = new Integer[lookups.length];
+        for (int i = 0; i < lookups.length; i++) probes[i] = values[Math.floorMod(lookups[i], values.length)];
+    }
+
+    @Benchmark
+    public boolean search() {
+        int i = cursor;
+        cursor = i + 1 == probes.length ? 0 : i + 1;
+        return tree.search(probes[i]);
+    }
+}
@@ -0,0 +1,134 @@
+package org.example.benchmarks;
+
+import org.example.AVL;
+import org.example.IntAVL;
+import org.example.LongRedBlack;
+import org.example.OffHeapRedBlack;
+import org.example.RedBlack;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+// The array-backed IntAVL and LongRedBlack side by side with AVL<Integer>
+// and RedBlack<Long> on the same keys: building a tree of all `size` keys,
+// and hit lookups in a filled one. The generic keys are boxed once in setUp,
+// as they would be in a collection that already holds them. OffHeapRedBlack
+// needs the preview flag in the forked JVM (java.lang.foreign, Java 21); the
+// GC profiler shows its allocation rate next to the heap trees.
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--enable-preview")
+@State(Scope.Benchmark)
+public class PrimitiveTreeBenchmark {
+    @Param({"1000", "100000", "1000000"})
+    public int size;
+
+    @Param({"RANDOM", "SORTED"})
+    public KeyDistribution distribution;
+
+    private int[] keys;
+    private Integer[] boxedInts;
+    private Long[] boxedLongs;
+    private int cursor;
+
+    private AVL<Integer> avl;
+    private IntAVL intAvl;
+    private RedBlack<Long> rb;
+    private LongRedBlack longRb;
+    private OffHeapRedBlack offHeapRb;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        keys = distribution.generate(size, TreeWorkload.SEED);
+        boxedInts = new Integer[size];
+        boxedLongs = new Long[size];
+        avl = new AVL<>();
+        intAvl = new IntAVL();
+        rb = new RedBlack<>();
+        longRb = new LongRedBlack();
+        offHeapRb = new OffHeapRedBlack();
+        for (int i = 0; i < size; i++) {
+            boxedInts[i] = keys[i];
+            boxedLongs[i] = (long) keys[i];
+            avl.insert(boxedInts[i]);
+            intAvl.insert(keys[i]);
+            rb.insert(boxedLongs[i]);
+            longRb.insert(keys[i]);
+            offHeapRb.insert(keys[i]);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        offHeapRb.close();
+    }
+
+    private int nextIndex() {
+        int i = cursor;
+        cursor = i + 1 == size ? 0 : i + 1;
+        return i;
+    }
+
+    @Benchmark
+    public int fillAvl() {
+        AVL<Integer> tree = new AVL<>();
+        for (Integer key : boxedInts) tree.insert(key);
+        return tree.getSize();
+    }
+
+    @Benchmark
+    public int fillIntAvl() {
+        IntAVL tree = new IntAVL();
+        for (int key : keys) tree.insert(key);
+        return tree.getSize();
+    }
+
+    @Benchmark
+    public int fillRedBlack() {
+        RedBlack<Long> tree = new RedBlack<>();
+        for (Long key : boxedLongs) tree.insert(key);
+        return tree.getSize();
+    }
+
+    @Benchmark
+    public int fillLongRedBlack() {
+        LongRedBlack tree = new LongRedBlack();
+        for (int key : keys) tree.insert(key);
+        return tree.getSize();
+    }
+
+    @Benchmark
+    public int fillOffHeapRedBlack() {
+        try (OffHeapRedBlack tree = new OffHeapRedBlack()) {
+            for (int key : keys) tree.insert(key);
+            return tree.getSize();
+        }
+    }
+
+    @Benchmark
+    public boolean searchAvl() {
+        return avl.search(boxedInts[nextIndex()]);
+    }
+
+    @Benchmark
+    public boolean searchIntAvl() {
+        return intAvl.search(keys[nextIndex()]);
+    }
+
+    @Benchmark
+    public boolean searchRedBlack() {
+        return rb.search(boxedLongs[nextIndex()]);
+    }
+
+    @Benchmark
+    public boolean searchLongRedBlack() {
+        return longRb.search(keys[nextIndex()]);
+    }
+
+    @Benchmark
+    public boolean searchOffHeapRedBlack() {
+        return offHeapRb.search(keys[nextIndex()]);
+    }
+}
@@ -0,0 +1,75 @@
+package org.example.benchmarks;
+
+import org.example.Tree;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+
+// Range scans of `width` keys starting at random positions, ascending and
+// descending, through the tree iterators.
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RangeScanBenchmark {
+    @Param({"100000", "1000000"})
+    public int size;
+
+    @Param({"100", "10000"})
+    public int width;
+
+    @Param({"INTEGER", "STRING"})
+    public KeyType keyType;
+
+    @Param({"AVL", "RED_BLACK", "B_PLUS", "WAVL", "TREAP", "SPLAY"})
+    public TreeType treeType;
+
+    @SuppressWarnings("rawtypes")
+    private Tree tree;
+    @SuppressWarnings("rawtypes")
+    private Comparable[] starts;
+    @SuppressWarnings("rawtypes")
+    private Comparable[] ends;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        tree = treeType.create();
+        for (Comparable<?> key : keyType.keys(KeyDistribution.RANDOM.generate(size, TreeWorkload.SEED))) {
+            tree.insert(key);
+        }
+        // Keys are 0, 2, 4, ..., so a range of `width` keys spans 2 * width values
+        int[] from = KeyDistribution.RANDOM.generate(Math.max(size - width, 1), TreeWorkload.SEED + 1);
+        int[] to = new int[from.length];
+        for (int i = 0; i < from.length; i++) to[i] = from[i] + 2 * width;
+        starts = keyType.keys(from);
+        ends = keyType.keys(to);
+    }
+
+    @Benchmark
+    @SuppressWarnings("unchecked")
+    public void ascending(Blackhole blackhole) {
+        int i = next();
+        Iterator<?> it = tree.iterator(starts[i], ends[i]);
+        while (it.hasNext()) blackhole.consume(it.next());
+    }
+
+    @Benchmark
+    @SuppressWarnings("unchecked")
+    public void descending(Blackhole blackhole) {
+        int i = next();
+        Iterator<?> it = tree.descendingIterator(starts[i], ends[i]);
+        while (it.hasNext()) blackhole.consume(it.next());
+    }
+
+    private int next() {
+        int i = cursor;
+        cursor = i + 1 == starts.length ? 0 : i + 1;
+        return i;
+    }
+}
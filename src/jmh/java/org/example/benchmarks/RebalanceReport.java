@@ -0,0 +1,51 @@
+package org.example.benchmarks;
+
+import org.example.AVL;
+import org.example.RebalanceCounter;
+import org.example.RedBlack;
+import org.example.Treap;
+import org.example.Tree;
+import org.example.WAVL;
+
+import java.util.Random;
+import java.util.function.Function;
+
+// Write amplification of the balanced trees: rotations and balance-information
+// changes (see RebalanceCounter) per insert and per delete, for each key order.
+// Deletes remove the keys in a random order after all inserts.
+//   java -cp target/benchmarks.jar org.example.benchmarks.RebalanceReport [size]
+public class RebalanceReport {
+
+    public static void main(String[] args) {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+
+        System.out.printf("%d keys; counts per update%n", size);
+        System.out.printf("%-9s | %-12s | %-13s | %-13s | %-13s | %-13s | %-6s%n", "Order", "Tree",
+                "Insert rot.", "Insert recol.", "Delete rot.", "Delete recol.", "Height");
+        for (KeyDistribution distribution : new KeyDistribution[]{KeyDistribution.RANDOM, KeyDistribution.SORTED}) {
+            int[] keys = distribution.generate(size, TreeWorkload.SEED);
+            report(distribution, "AVL", new AVL<>(), AVL::rebalanceCounter, keys);
+            report(distribution, "RedBlack", new RedBlack<>(), RedBlack::rebalanceCounter, keys);
+            report(distribution, "WAVL", new WAVL<>(), WAVL::rebalanceCounter, keys);
+            report(distribution, "Treap", new Treap<>(TreeWorkload.SEED), Treap::rebalanceCounter, keys);
+        }
+    }
+
+    private static <X extends Tree<Integer>> void report(KeyDistribution distribution, String name, X tree,
+                                                         Function<X, RebalanceCounter> counterOf, int[] keys) {
+        RebalanceCounter counter = counterOf.apply(tree);
+        for (int key : keys) tree.insert(key);
+        int height = tree.getHeight();
+        double insertRotations = (double) counter.rotations() / keys.length;
+        double insertRecolours = (double) counter.recolours() / keys.length;
+
+        counter.reset();
+        int[] order = KeyDistribution.RANDOM.generate(keys.length, TreeWorkload.SEED + 1);
+        for (int key : order) tree.delete(key);
+        double deleteRotations = (double) counter.rotations() / keys.length;
+        double deleteRecolours = (double) counter.recolours() / keys.length;
+
+        System.out.printf("%-9s | %-12s | %-13.3f | %-13.3f | %-13.3f | %-13.3f | %-6d%n", distribution, name,
+                insertRotations, insertRecolours, deleteRotations, deleteRecolours, height);
+    }
+}
@@ -0,0 +1,47 @@
+package org.example.benchmarks;
+
+import org.example.Tree;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+// Single lookups against a tree filled once per trial. Lookups follow the key
+// sequence of the distribution; `miss` probes the odd keys that are never
+// inserted.
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SearchBenchmark extends TreeWorkload {
+    @SuppressWarnings("rawtypes")
+    private Tree tree;
+    @SuppressWarnings("rawtypes")
+    private Comparable[] misses;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        generateKeys();
+        tree = newFilledTree();
+        int[] values = distribution.generate(size, SEED + 1);
+        for (int i = 0; i < values.length; i++) values[i] |= 1;
+        misses = keyType.keys(values);
+    }
+
+    @Benchmark
+    @SuppressWarnings("unchecked")
+    public boolean hit() {
+        int i = cursor;
+        cursor = i + 1 == keys.length ? 0 : i + 1;
+        return tree.search(keys[i]);
+    }
+
+    @Benchmark
+    @SuppressWarnings("unchecked")
+    public boolean miss() {
+        int i = cursor;
+        cursor = i + 1 == misses.length ? 0 : i + 1;
+        return tree.search(misses[i]);
+    }
+}
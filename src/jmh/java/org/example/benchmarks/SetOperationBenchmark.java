@@ -0,0 +1,72 @@
+package org.example.benchmarks;
+
+import org.example.AVL;
+import org.example.RedBlack;
+import org.example.Tree;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+// Merging a delta into a base tree: join-based parallel union against the
+// insert loop it replaces. Both trees are rebuilt (linearly, from sorted
+// arrays) before every invocation because union consumes its arguments.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SetOperationBenchmark {
+    @Param({"1000000"})
+    public int size;
+
+    @Param({"1000", "100000", "1000000"})
+    public int deltaSize;
+
+    @Param({"AVL", "RED_BLACK"})
+    public TreeType treeType;
+
+    private Integer[] baseKeys;
+    private Integer[] deltaKeys;
+    private Tree<Integer> base;
+    private Tree<Integer> delta;
+
+    @Setup(Level.Trial)
+    public void setUpKeys() {
+        baseKeys = sortedKeys(KeyDistribution.RANDOM.generate(size, TreeWorkload.SEED));
+        // Odd and even keys, so about half of the delta is new
+        int[] values = KeyDistribution.RANDOM.generate(deltaSize, TreeWorkload.SEED + 1);
+        for (int i = 0; i < values.length; i += 2) values[i] |= 1;
+        deltaKeys = sortedKeys(values);
+    }
+
+    @Setup(Level.Invocation)
+    public void setUpTrees() {
+        if (treeType == TreeType.AVL) {
+            base = AVL.fromSorted(baseKeys);
+            delta = AVL.fromSorted(deltaKeys);
+        } else {
+            base = RedBlack.fromSorted(baseKeys);
+            delta = RedBlack.fromSorted(deltaKeys);
+        }
+    }
+
+    @Benchmark
+    public Tree<Integer> union() {
+        if (treeType == TreeType.AVL) {
+            return AVL.union((AVL<Integer>) base, (AVL<Integer>) delta);
+        }
+        return RedBlack.union((RedBlack<Integer>) base, (RedBlack<Integer>) delta);
+    }
+
+    @Benchmark
+    public Tree<Integer> insertLoop() {
+        for (Integer key : deltaKeys) base.insert(key);
+        return base;
+    }
+
+    private static Integer[] sortedKeys(int[] values) {
+        return Arrays.stream(values).sorted().distinct().boxed().toArray(Integer[]::new);
+    }
+}
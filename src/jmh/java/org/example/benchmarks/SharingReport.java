@@ -0,0 +1,47 @@
+package org.example.benchmarks;
+
+import org.example.PersistentAVL;
+import org.example.PersistentRedBlack;
+import org.example.PersistentTree;
+import org.openjdk.jol.info.GraphLayout;
+
+import java.util.Random;
+
+// Structural sharing of the persistent trees, measured with JOL: the heap
+// taken by many retained versions against what the same number of full
+// copies would take.
+//   java -cp target/benchmarks.jar org.example.benchmarks.SharingReport [size] [versions] [changesPerVersion]
+public class SharingReport {
+
+    public static void main(String[] args) {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int versions = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+        int changes = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+
+        System.out.printf("%d keys, %d versions, %d random inserts/deletes between versions%n", size, versions, changes);
+        System.out.printf("%-20s | %-14s | %-14s | %-14s | %-10s%n",
+                "Tree", "One version MB", "All versions MB", "Full copies MB", "Sharing");
+        report("PersistentAVL", new PersistentAVL<>(), size, versions, changes);
+        report("PersistentRedBlack", new PersistentRedBlack<>(), size, versions, changes);
+    }
+
+    private static void report(String name, PersistentTree<Integer> tree, int size, int versions, int changes) {
+        for (int i = 0; i < size; i++) tree.insert(2 * i);
+        Random random = new Random(TreeWorkload.SEED);
+        Object[] retained = new Object[versions];
+        for (int v = 0; v < versions; v++) {
+            for (int c = 0; c < changes; c++) {
+                int key = random.nextInt(2 * size);
+                if (random.nextBoolean()) tree.insert(key);
+                else tree.delete(key);
+            }
+            retained[v] = tree instanceof PersistentAVL<Integer> avl ? avl.snapshot() : ((PersistentRedBlack<Integer>) tree).snapshot();
+        }
+
+        long one = GraphLayout.parseInstance(retained[versions - 1]).totalSize();
+        long all = GraphLayout.parseInstance(retained).totalSize();
+        long copies = one * versions;
+        System.out.printf("%-20s | %-14.1f | %-14.1f | %-14.1f | %-10s%n", name,
+                one / 1e6, all / 1e6, copies / 1e6, String.format("%.1fx", (double) copies / all));
+    }
+}
@@ -0,0 +1,64 @@
+package org.example.benchmarks;
+
+import org.example.Tree;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Lookups with Zipf-distributed popularity against a tree holding all `size`
+// keys, inserted in random order. With theta = 0.99 a few thousand keys take
+// most of the lookups; lower thetas flatten the distribution, which shows
+// where the self-adjusting SplayTree stops paying for its rotations.
+// The hot keys are spread over the whole key space.
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SkewedSearchBenchmark {
+    private static final int LOOKUPS = 1 << 20;
+
+    @Param({"100000", "1000000"})
+    public int size;
+
+    @Param({"0.5", "0.8", "0.99"})
+    public double theta;
+
+    @Param({"INTEGER", "STRING"})
+    public KeyType keyType;
+
+    @Param({"AVL", "RED_BLACK", "SPLAY"})
+    public TreeType treeType;
+
+    @SuppressWarnings("rawtypes")
+    private Tree tree;
+    @SuppressWarnings("rawtypes")
+    private Comparable[] lookups;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    public void setUp() {
+        int[] values = KeyDistribution.RANDOM.generate(size, TreeWorkload.SEED);
+        Comparable[] keys = keyType.keys(values);
+        tree = treeType.create();
+        for (Comparable key : keys) tree.insert(key);
+
+        // Popularity rank i belongs to an unrelated key
+        int[] hot = KeyDistribution.RANDOM.generate(size, TreeWorkload.SEED + 1);
+        ZipfianGenerator zipf = new ZipfianGenerator(size, theta);
+        Random random = new Random(TreeWorkload.SEED);
+        lookups = new Comparable[LOOKUPS];
+        for (int i = 0; i < LOOKUPS; i++) lookups[i] = keys[hot[zipf.next(random)] / 2];
+    }
+
+    @Benchmark
+    @SuppressWarnings("unchecked")
+    public boolean search() {
+        int i = cursor;
+        cursor = i + 1 == lookups.length ? 0 : i + 1;
+        return tree.search(lookups[i]);
+    }
+}
@@ -0,0 +1,93 @@
+package org.example.benchmarks;
+
+import org.example.AVL;
+import org.example.KeyCodec;
+import org.example.RedBlack;
+import org.example.Tree;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Scanner;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+// Restoring a String tree from a binary snapshot (linear-time build) against
+// re-reading the same keys from a text file the way OperationMenu's
+// batch_insert does (Scanner lines, one insert each), plus the cost of
+// writing a snapshot.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SnapshotBenchmark {
+    @Param({"100000", "1000000"})
+    public int size;
+
+    @Param({"AVL", "RED_BLACK"})
+    public TreeType treeType;
+
+    private Path dir;
+    private Path text;
+    private Path snapshot;
+    private Path output;
+    private Tree<String> tree;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("snapshot-benchmark");
+        text = dir.resolve("keys.txt");
+        snapshot = dir.resolve("keys.snap");
+        output = dir.resolve("out.snap");
+        tree = treeType.create();
+        try (BufferedWriter writer = Files.newBufferedWriter(text)) {
+            for (int k : KeyDistribution.RANDOM.generate(size, TreeWorkload.SEED)) {
+                String key = (String) KeyType.STRING.key(k);
+                writer.write(key);
+                writer.newLine();
+                tree.insert(key);
+            }
+        }
+        save(tree, snapshot);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(dir)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) Files.delete(file);
+        }
+    }
+
+    private void save(Tree<String> tree, Path path) throws IOException {
+        if (tree instanceof AVL<String> avl) avl.save(path, KeyCodec.STRING);
+        else ((RedBlack<String>) tree).save(path, KeyCodec.STRING);
+    }
+
+    @Benchmark
+    public Tree<String> loadSnapshot() throws IOException {
+        return treeType == TreeType.AVL
+                ? AVL.load(snapshot, KeyCodec.STRING)
+                : RedBlack.load(snapshot, KeyCodec.STRING);
+    }
+
+    @Benchmark
+    public Tree<String> loadText() throws FileNotFoundException {
+        Tree<String> loaded = treeType.create();
+        try (Scanner scanner = new Scanner(new File(text.toString()))) {
+            while (scanner.hasNextLine()) loaded.insert(scanner.nextLine().trim());
+        }
+        return loaded;
+    }
+
+    @Benchmark
+    public void saveSnapshot() throws IOException {
+        save(tree, output);
+    }
+}
@@ -0,0 +1,50 @@
+package org.example.benchmarks;
+
+import org.example.AVL;
+import org.example.BPlusTree;
+import org.example.RedBlack;
+import org.example.SplayTree;
+import org.example.Treap;
+import org.example.Tree;
+import org.example.WAVL;
+
+public enum TreeType {
+    AVL {
+        @Override
+        public <T extends Comparable<T>> Tree<T> create() {
+            return new AVL<>();
+        }
+    },
+    RED_BLACK {
+        @Override
+        public <T extends Comparable<T>> Tree<T> create() {
+            return new RedBlack<>();
+        }
+    },
+    B_PLUS {
+        @Override
+        public <T extends Comparable<T>> Tree<T> create() {
+            return new BPlusTree<>();
+        }
+    },
+    WAVL {
+        @Override
+        public <T extends Comparable<T>> Tree<T> create() {
+            return new WAVL<>();
+        }
+    },
+    TREAP {
+        @Override
+        public <T extends Comparable<T>> Tree<T> create() {
+            return new Treap<>(TreeWorkload.SEED);
+        }
+    },
+    SPLAY {
+        @Override
+        public <T extends Comparable<T>> Tree<T> create() {
+            return new SplayTree<>();
+        }
+    };
+
+    public abstract <T extends Comparable<T>> Tree<T> create();
+}
@@ -0,0 +1,39 @@
+package org.example.benchmarks;
+
+import org.example.Tree;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+// Shared parameter space of the tree benchmarks. Keys are generated and boxed
+// once per trial so the measured loops only contain tree operations.
+@State(Scope.Benchmark)
+public abstract class TreeWorkload {
+    static final long SEED = 42;
+
+    @Param({"1000", "100000", "1000000"})
+    public int size;
+
+    @Param({"RANDOM", "SORTED", "REVERSE", "ZIPFIAN"})
+    public KeyDistribution distribution;
+
+    @Param({"INTEGER", "STRING"})
+    public KeyType keyType;
+
+    @Param({"AVL", "RED_BLACK", "B_PLUS", "WAVL", "TREAP", "SPLAY"})
+    public TreeType treeType;
+
+    @SuppressWarnings("rawtypes")
+    protected Comparable[] keys;
+
+    protected void generateKeys() {
+        keys = keyType.keys(distribution.generate(size, SEED));
+    }
+
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    protected Tree newFilledTree() {
+        Tree tree = treeType.create();
+        for (Comparable key : keys) tree.insert(key);
+        return tree;
+    }
+}
@@ -0,0 +1,69 @@
+package org.example.benchmarks;
+
+import org.example.AVL;
+import org.example.KeyCodec;
+import org.example.LoggedTree;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+// Mutation throughput of a LoggedTree at several group commit intervals.
+// syncIntervalMillis = 0 fsyncs every mutation; larger intervals trade a
+// longer loss window for fewer fsyncs. The benchmark inserts all `size`
+// keys, then deletes them all, and repeats, so the tree swings between 0 and
+// `size` keys and every operation changes the tree.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class WalBenchmark {
+    @Param({"100000"})
+    public int size;
+
+    @Param({"0", "1", "10", "100"})
+    public long syncIntervalMillis;
+
+    @Param({"1048576"})
+    public int syncBytes;
+
+    private Path dir;
+    private LoggedTree<String> tree;
+    private String[] keys;
+    private int cursor;
+    private boolean deleting;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("wal-benchmark");
+        tree = new LoggedTree<>(dir, KeyCodec.STRING, AVL::fromSorted, syncIntervalMillis, syncBytes);
+        keys = new String[size];
+        int[] values = KeyDistribution.RANDOM.generate(size, TreeWorkload.SEED);
+        for (int i = 0; i < size; i++) keys[i] = (String) KeyType.STRING.key(values[i]);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        tree.close();
+        try (Stream<Path> files = Files.walk(dir)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) Files.delete(file);
+        }
+    }
+
+    @Benchmark
+    public boolean mutate() {
+        int i = cursor;
+        boolean changed = deleting ? tree.delete(keys[i]) : tree.insert(keys[i]);
+        if (++cursor == keys.length) {
+            cursor = 0;
+            deleting = !deleting;
+        }
+        return changed;
+    }
+}
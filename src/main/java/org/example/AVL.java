@@ -1,109 +1,395 @@
 package org.example;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
 
 public class AVL<T extends Comparable<T>> implements Tree<T> {
-    private Node<T> root;
+    private AVLNode<T> root;
     private int size;
+    // Bumped by every structural change; cursors check it before reusing
+    // their finger
+    private int modCount;
+    private final RebalanceCounter rebalances = new RebalanceCounter();
+
+    // Rotations and height changes done while rebalancing after insert and
+    // delete (and by split and join, which rebalance the same way)
+    public RebalanceCounter rebalanceCounter() {
+        return rebalances;
+    }
+
+    // Builds a perfectly balanced tree in O(n). Input that is not strictly
+    // ascending is sorted and deduplicated first (nulls are dropped).
+    public static <T extends Comparable<T>> AVL<T> fromSorted(T[] data) {
+        T[] sorted = BulkLoad.sortedUnique(data);
+        return fromSorted(Arrays.asList(sorted).iterator(), sorted.length);
+    }
+
+    // Builds a perfectly balanced tree in O(n) from the next count elements,
+    // which must be strictly ascending; the input is consumed as a stream.
+    public static <T extends Comparable<T>> AVL<T> fromSorted(Iterator<T> sorted, int count) {
+        if (count < 0) {
+            throw new IllegalArgumentException("Negative count: " + count);
+        }
+        AVL<T> tree = new AVL<>();
+        tree.root = tree.build(new BulkLoad.Source<>(sorted), count);
+        tree.size = count;
+        return tree;
+    }
+
+    // Streams the keys in ascending order into a binary snapshot; see
+    // Snapshot for the format
+    public void save(OutputStream out, KeyCodec<T> codec) throws IOException {
+        Snapshot.save(this, out, codec);
+    }
+
+    // Replaces path atomically once the snapshot is complete
+    public void save(Path path, KeyCodec<T> codec) throws IOException {
+        Snapshot.save(this, path, codec);
+    }
+
+    // Rebuilds a saved tree in O(n) without buffering the keys
+    public static <T extends Comparable<T>> AVL<T> load(InputStream in, KeyCodec<T> codec) throws IOException {
+        return Snapshot.load(in, codec, AVL::fromSorted);
+    }
+
+    public static <T extends Comparable<T>> AVL<T> load(Path path, KeyCodec<T> codec) throws IOException {
+        try (InputStream in = Files.newInputStream(path)) {
+            return load(in, codec);
+        }
+    }
+
+    // Builds the next n elements of source in order; left and right subtree
+    // sizes differ by at most one, so the result is height balanced
+    private AVLNode<T> build(BulkLoad.Source<T> source, int n) {
+        if (n == 0) {
+            return null;
+        }
+        int leftCount = BulkLoad.leftCount(n);
+        AVLNode<T> left = build(source, leftCount);
+        AVLNode<T> node = new AVLNode<>(source.next());
+        node.left = left;
+        node.right = build(source, n - 1 - leftCount);
+        update(node);
+        return node;
+    }
+
+    // Set operations in O(m log(n/m + 1)) work using join and split, with the
+    // recursive halves run on the common ForkJoinPool. Both arguments are
+    // consumed: the result reuses their nodes and they are left empty.
+    public static <T extends Comparable<T>> AVL<T> union(AVL<T> a, AVL<T> b) {
+        return combine(SetOperation.UNION, a, b);
+    }
+
+    public static <T extends Comparable<T>> AVL<T> intersection(AVL<T> a, AVL<T> b) {
+        return combine(SetOperation.INTERSECTION, a, b);
+    }
 
+    public static <T extends Comparable<T>> AVL<T> difference(AVL<T> a, AVL<T> b) {
+        return combine(SetOperation.DIFFERENCE, a, b);
+    }
+
+    private static <T extends Comparable<T>> AVL<T> combine(SetOperation operation, AVL<T> a, AVL<T> b) {
+        AVL<T> result = new AVL<>();
+        if (a == b) {
+            // A tree combined with itself must not have its nodes reused twice
+            if (operation != SetOperation.DIFFERENCE) {
+                result.root = a.root;
+                result.size = a.size;
+            }
+        } else {
+            result.root = ForkJoinPool.commonPool().invoke(result.new SetTask(operation, a.root, b.root));
+            result.size = result.sizeOf(result.root);
+            b.root = null;
+            b.size = 0;
+            b.modCount++;
+        }
+        a.root = null;
+        a.size = 0;
+        a.modCount++;
+        return result;
+    }
+
+    // Batch updates build a tree from the keys and merge it with union or
+    // difference, which shares work between neighbouring keys: O(m log(n/m + 1))
+    // for m keys instead of m separate descents
     @Override
-    public boolean insert(T data) {
-        if (data == null) {
-            return false;
+    public int insertAll(T[] keys) {
+        int before = size;
+        take(union(moveOut(), fromSorted(keys)));
+        return size - before;
+    }
+
+    @Override
+    public int deleteAll(T[] keys) {
+        int before = size;
+        take(difference(moveOut(), fromSorted(keys)));
+        return before - size;
+    }
+
+    // Hands this tree's nodes to a new tree, leaving this one empty
+    private AVL<T> moveOut() {
+        AVL<T> tree = new AVL<>();
+        tree.root = root;
+        tree.size = size;
+        root = null;
+        size = 0;
+        modCount++;
+        return tree;
+    }
+
+    private void take(AVL<T> tree) {
+        root = tree.root;
+        size = tree.size;
+        modCount++;
+    }
+
+    // Moves every key >= key into the returned tree; this tree keeps the
+    // keys below it. O(log n).
+    public AVL<T> split(T key) {
+        AVL<T> greater = new AVL<>();
+        if (key == null || root == null) {
+            return greater;
         }
-        if(search(data)) {
-            return false;
+        Split<T> parts = split(root, key);
+        root = parts.left;
+        greater.root = parts.match == null ? parts.right : join(null, parts.match, parts.right);
+        size = sizeOf(root);
+        greater.size = sizeOf(greater.root);
+        modCount++;
+        return greater;
+    }
+
+    // Appends all keys of greater, which must all be larger than the keys of
+    // this tree, and leaves greater empty. O(log n).
+    public void join(AVL<T> greater) {
+        if (greater == this || greater.root == null) {
+            return;
         }
+        if (root != null && last().compareTo(greater.first()) >= 0) {
+            throw new IllegalArgumentException("Keys of the joined tree must all be greater");
+        }
+        root = join2(root, greater.root);
+        size += greater.size;
+        modCount++;
+        greater.root = null;
+        greater.size = 0;
+        greater.modCount++;
+    }
 
-        if (root == null) {
-            root = new Node<>(data);
-            size++;
-            return true;
+    // Result of splitting a subtree around a key
+    private static final class Split<T> {
+        AVLNode<T> left;
+        AVLNode<T> match;
+        AVLNode<T> right;
+    }
+
+    // Joins left < mid < right into one AVL tree by descending along the
+    // spine of the taller side to a subtree of matching height. Costs
+    // O(|height(left) - height(right)| + 1).
+    private AVLNode<T> join(AVLNode<T> left, AVLNode<T> mid, AVLNode<T> right) {
+        int leftHeight = getHeight(left);
+        int rightHeight = getHeight(right);
+        if (leftHeight > rightHeight + 1) {
+            left.right = join(left.right, mid, right);
+            return rebalance(left);
         }
+        if (rightHeight > leftHeight + 1) {
+            right.left = join(left, mid, right.left);
+            return rebalance(right);
+        }
+        mid.left = left;
+        mid.right = right;
+        update(mid);
+        return mid;
+    }
 
-        root = insertRecursive(root, data);
-        return true;
+    // Joins left < right without a middle key
+    private AVLNode<T> join2(AVLNode<T> left, AVLNode<T> right) {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+        Split<T> parts = splitLast(left);
+        return join(parts.left, parts.match, right);
     }
 
-    private Node<T> insertRecursive(Node<T> node, T data) {
+    // Splits node into the keys below key, the node holding key (if any) and
+    // the keys above it
+    private Split<T> split(AVLNode<T> node, T key) {
         if (node == null) {
-            size++;
-            return new Node<>(data);
+            return new Split<>();
         }
-        if (data.compareTo(node.data) < 0) {
-            node.left = insertRecursive(node.left, data);
-        } else if (data.compareTo(node.data) > 0) {
-            node.right = insertRecursive(node.right, data);
+        int cmp = key.compareTo(node.data);
+        Split<T> parts;
+        if (cmp < 0) {
+            parts = split(node.left, key);
+            parts.right = join(parts.right, node, node.right);
+        } else if (cmp > 0) {
+            parts = split(node.right, key);
+            parts.left = join(node.left, node, parts.left);
         } else {
-            return node;
+            parts = new Split<>();
+            parts.left = node.left;
+            parts.match = node;
+            parts.right = node.right;
         }
+        return parts;
+    }
 
-        node.height = 1 + Math.max(getHeight(node.left), getHeight(node.right));
-
-        int balance = getBalance(node);
+    // Detaches the maximum node (into match) from the rest (into left)
+    private Split<T> splitLast(AVLNode<T> node) {
+        if (node.right == null) {
+            Split<T> parts = new Split<>();
+            parts.left = node.left;
+            parts.match = node;
+            return parts;
+        }
+        Split<T> parts = splitLast(node.right);
+        parts.left = join(node.left, node, parts.left);
+        return parts;
+    }
 
-        // Left Left Case
-        if (balance > 1 && data.compareTo(node.left.data) < 0) {
-            return rotateRight(node);
+    private AVLNode<T> combineSubtrees(SetOperation operation, AVLNode<T> a, AVLNode<T> b) {
+        if (a == null) {
+            return operation.keepsSecondWhenFirstEmpty() ? b : null;
         }
-        // Right Right Case
-        if (balance < -1 && data.compareTo(node.right.data) > 0) {
-            return rotateLeft(node);
+        if (b == null) {
+            return operation.keepsFirstWhenSecondEmpty() ? a : null;
         }
-        // Left Right Case
-        if (balance > 1 && data.compareTo(node.left.data) > 0) {
-            node.left = rotateLeft(node.left);
-            return rotateRight(node);
+        boolean parallel = sizeOf(a) + sizeOf(b) >= SetOperation.PARALLEL_THRESHOLD;
+        AVLNode<T> aLeft = a.left;
+        AVLNode<T> aRight = a.right;
+        Split<T> parts = split(b, a.data);
+
+        AVLNode<T> left;
+        AVLNode<T> right;
+        if (parallel) {
+            SetTask leftTask = new SetTask(operation, aLeft, parts.left);
+            leftTask.fork();
+            right = combineSubtrees(operation, aRight, parts.right);
+            left = leftTask.join();
+        } else {
+            left = combineSubtrees(operation, aLeft, parts.left);
+            right = combineSubtrees(operation, aRight, parts.right);
         }
-        if (balance < -1 && data.compareTo(node.right.data) < 0) {
-            node.right = rotateRight(node.right);
-            return rotateLeft(node);
+        return operation.keepsKey(parts.match != null) ? join(left, a, right) : join2(left, right);
+    }
+
+    private final class SetTask extends RecursiveTask<AVLNode<T>> {
+        private final SetOperation operation;
+        private final AVLNode<T> a;
+        private final AVLNode<T> b;
+
+        SetTask(SetOperation operation, AVLNode<T> a, AVLNode<T> b) {
+            this.operation = operation;
+            this.a = a;
+            this.b = b;
+        }
+
+        @Override
+        protected AVLNode<T> compute() {
+            return combineSubtrees(operation, a, b);
         }
-        return node;
     }
 
     @Override
-    public boolean delete(T data) {
-        if (data == null || root == null) {
+    public boolean insert(T data) {
+        if (data == null) {
             return false;
         }
 
-        if(!search(data)) {
+        // insertRecursive only grows size when the key was absent
+        int oldSize = size;
+        root = insertRecursive(root, data);
+        return size != oldSize;
+    }
+
+    private AVLNode<T> insertRecursive(AVLNode<T> node, T data) {
+        if (node == null) {
+            size++;
+            modCount++;
+            return new AVLNode<>(data);
+        }
+        int cmp = data.compareTo(node.data);
+        if (cmp < 0) {
+            node.left = insertRecursive(node.left, data);
+        } else if (cmp > 0) {
+            node.right = insertRecursive(node.right, data);
+        } else {
+            return node;
+        }
+
+        return rebalance(node);
+    }
+
+    @Override
+    public boolean delete(T data) {
+        if (data == null || root == null) {
             return false;
         }
 
+        // deleteRecursive only shrinks size when the key was present
+        int oldSize = size;
         root = deleteRecursive(root, data);
-        return true;
+        return size != oldSize;
     }
 
-    private Node<T> deleteRecursive(Node<T> node, T data) {
+    private AVLNode<T> deleteRecursive(AVLNode<T> node, T data) {
         if (node == null) {
             return null;
         }
 
-        if (data.compareTo(node.data) < 0) {
+        int cmp = data.compareTo(node.data);
+        if (cmp < 0) {
             node.left = deleteRecursive(node.left, data);
-        } else if (data.compareTo(node.data) > 0) {
+        } else if (cmp > 0) {
             node.right = deleteRecursive(node.right, data);
         } else {
             // Node with only one child or no child
             if (node.left == null) {
                 size--;
+                modCount++;
                 return node.right;
             } else if (node.right == null) {
                 size--;
+                modCount++;
                 return node.left;
             }
 
-            Node<T> successor = findMinNode(node.right);
-            node.data = successor.data;
-            node.right = deleteRecursive(node.right, successor.data);
+            // Move the successor node into this position rather than copying
+            // its key, so keys never change once a node is published
+            AVLNode<T> successor = findMinNode(node.right);
+            successor.right = deleteMin(node.right);
+            successor.left = node.left;
+            node = successor;
         }
 
-        if (node == null) {
-            return null;
+        return rebalance(node);
+    }
+
+    // Unlink the minimum of the subtree without comparing keys again
+    private AVLNode<T> deleteMin(AVLNode<T> node) {
+        if (node.left == null) {
+            size--;
+            modCount++;
+            return node.right;
         }
+        node.left = deleteMin(node.left);
+        return rebalance(node);
+    }
 
-        node.height = 1 + Math.max(getHeight(node.left), getHeight(node.right));
+    // Update the height and size of node and restore the AVL property at it
+    private AVLNode<T> rebalance(AVLNode<T> node) {
+        updateCounted(node);
         int balance = getBalance(node);
 
         // Left Left Case
@@ -132,8 +418,8 @@ public class AVL<T extends Comparable<T>> implements Tree<T> {
     }
 
     // Find the node with the minimum value
-    private Node<T> findMinNode(Node<T> node) {
-        Node<T> current = node;
+    private AVLNode<T> findMinNode(AVLNode<T> node) {
+        AVLNode<T> current = node;
         while (current.left != null) {
             current = current.left;
         }
@@ -142,17 +428,151 @@ public class AVL<T extends Comparable<T>> implements Tree<T> {
 
     @Override
     public boolean search(T data) {
-        return searchRecursive(root, data);
+        return getNode(data) != null;
     }
 
-    private boolean searchRecursive(Node<T> node, T data) {
-        if (node == null) return false;
-        if (node.data.equals(data)) return true;
+    @Override
+    public T get(T data) {
+        AVLNode<T> node = getNode(data);
+        return node == null ? null : node.data;
+    }
 
-        if (data.compareTo(node.data) < 0) {
-            return searchRecursive(node.left, data);
-        } else {
-            return searchRecursive(node.right, data);
+    // Iterative lookup, one comparison per level
+    private AVLNode<T> getNode(T data) {
+        if (data == null) {
+            return null;
+        }
+        AVLNode<T> current = root;
+        while (current != null) {
+            int cmp = data.compareTo(current.data);
+            if (cmp == 0) {
+                return current;
+            }
+            current = cmp < 0 ? current.left : current.right;
+        }
+        return null;
+    }
+
+    public Cursor<T> cursor() {
+        return new AVLCursor();
+    }
+
+    // Without parent links the cursor keeps the root-to-finger path, with the
+    // exclusive key bounds of every subtree on it (null for unbounded). A
+    // lookup backs up to the deepest subtree whose bounds contain the key.
+    private final class AVLCursor implements Cursor<T> {
+        private AVLNode<T>[] path;
+        private Object[] low;
+        private Object[] high;
+        private int depth;
+        private int expectedModCount;
+
+        @SuppressWarnings("unchecked")
+        private void restart() {
+            expectedModCount = modCount;
+            depth = 0;
+            if (root == null) {
+                return;
+            }
+            if (path == null || path.length <= root.height) {
+                path = (AVLNode<T>[]) new AVLNode[root.height + 1];
+                low = new Object[root.height + 1];
+                high = new Object[root.height + 1];
+            }
+            path[0] = root;
+            low[0] = null;
+            high[0] = null;
+            depth = 1;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public T get(T key) {
+            if (key == null) {
+                return null;
+            }
+            if (depth == 0 || expectedModCount != modCount) {
+                restart();
+                if (depth == 0) {
+                    return null;
+                }
+            }
+            // The key is on one side of the finger, so only that side's
+            // bound needs checking on the way up
+            AVLNode<T> node = path[depth - 1];
+            int cmp = key.compareTo(node.data);
+            if (cmp == 0) {
+                return node.data;
+            }
+            Object[] bounds = cmp > 0 ? high : low;
+            int sign = cmp > 0 ? 1 : -1;
+            while (depth > 1 && bounds[depth - 1] != null && sign * key.compareTo((T) bounds[depth - 1]) >= 0) {
+                depth--;
+            }
+            node = path[depth - 1];
+            while (true) {
+                cmp = key.compareTo(node.data);
+                if (cmp == 0) {
+                    return node.data;
+                }
+                AVLNode<T> next = cmp < 0 ? node.left : node.right;
+                if (next == null) {
+                    return null;
+                }
+                path[depth] = next;
+                low[depth] = cmp < 0 ? low[depth - 1] : node.data;
+                high[depth] = cmp < 0 ? node.data : high[depth - 1];
+                depth++;
+                node = next;
+            }
+        }
+
+        @Override
+        public T current() {
+            if (expectedModCount != modCount || depth == 0) {
+                return null;
+            }
+            return path[depth - 1].data;
+        }
+    }
+
+    @Override
+    public int rank(T data) {
+        if (data == null) {
+            return 0;
+        }
+        int rank = 0;
+        AVLNode<T> current = root;
+        while (current != null) {
+            int cmp = data.compareTo(current.data);
+            if (cmp < 0) {
+                current = current.left;
+            } else if (cmp > 0) {
+                rank += sizeOf(current.left) + 1;
+                current = current.right;
+            } else {
+                return rank + sizeOf(current.left);
+            }
+        }
+        return rank;
+    }
+
+    @Override
+    public T select(int index) {
+        if (index < 0 || index >= size) {
+            return null;
+        }
+        AVLNode<T> current = root;
+        while (true) {
+            int leftSize = sizeOf(current.left);
+            if (index < leftSize) {
+                current = current.left;
+            } else if (index > leftSize) {
+                index -= leftSize + 1;
+                current = current.right;
+            } else {
+                return current.data;
+            }
         }
     }
 
@@ -167,52 +587,74 @@ public class AVL<T extends Comparable<T>> implements Tree<T> {
     }
 
     // Helper method to get height of a node
-    private int getHeight(Node<T> node) {
+    private int getHeight(AVLNode<T> node) {
         return node == null ? 0 : node.height;
     }
 
+    private int sizeOf(AVLNode<T> node) {
+        return node == null ? 0 : node.size;
+    }
+
+    // Recompute height and subtree size from the children
+    private void update(AVLNode<T> node) {
+        node.height = (byte) (1 + Math.max(getHeight(node.left), getHeight(node.right)));
+        node.size = 1 + sizeOf(node.left) + sizeOf(node.right);
+    }
+
+    // update() during rebalancing: the height is AVL's balance information,
+    // so a change to it counts as a recolour
+    private void updateCounted(AVLNode<T> node) {
+        int height = node.height;
+        update(node);
+        if (node.height != height) {
+            rebalances.recoloured();
+        }
+    }
+
     // Calculate balance factor
-    private int getBalance(Node<T> node) {
+    private int getBalance(AVLNode<T> node) {
         if (node == null) return 0;
         return getHeight(node.left) - getHeight(node.right);
     }
 
     // Right rotation
-    private Node<T> rotateRight(Node<T> y) {
-        Node<T> x = y.left;
-        Node<T> T2 = x.right;
+    private AVLNode<T> rotateRight(AVLNode<T> y) {
+        AVLNode<T> x = y.left;
+        AVLNode<T> T2 = x.right;
 
         // Perform rotation
         x.right = y;
         y.left = T2;
 
-        // Update heights
-        y.height = 1 + Math.max(getHeight(y.left), getHeight(y.right));
-        x.height = 1 + Math.max(getHeight(x.left), getHeight(x.right));
+        // Update heights and subtree sizes
+        updateCounted(y);
+        updateCounted(x);
+        rebalances.rotated();
 
         // Return new root
         return x;
     }
 
     // Left rotation
-    private Node<T> rotateLeft(Node<T> x) {
-        Node<T> y = x.right;
-        Node<T> T2 = y.left;
+    private AVLNode<T> rotateLeft(AVLNode<T> x) {
+        AVLNode<T> y = x.right;
+        AVLNode<T> T2 = y.left;
 
         // Perform rotation
         y.left = x;
         x.right = T2;
 
-        // Update heights
-        x.height = 1 + Math.max(getHeight(x.left), getHeight(x.right));
-        y.height = 1 + Math.max(getHeight(y.left), getHeight(y.right));
+        // Update heights and subtree sizes
+        updateCounted(x);
+        updateCounted(y);
+        rebalances.rotated();
 
         // Return new root
         return y;
     }
 
     @Override
-    public Node<T> getRoot() {
+    public AVLNode<T> getRoot() {
         return root;
     }
 }
\ No newline at end of file
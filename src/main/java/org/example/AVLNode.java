@@ -0,0 +1,27 @@
+package org.example;
+
+// AVL node: no parent link or colour. The height fits in a byte because an
+// AVL tree of 2^31 keys is less than 45 levels deep; size counts the nodes
+// of the subtree for rank/select.
+public class AVLNode<T> extends Node<T> {
+    AVLNode<T> left;
+    AVLNode<T> right;
+    int size;
+    byte height;
+
+    public AVLNode(T data) {
+        super(data);
+        this.size = 1;
+        this.height = 1;
+    }
+
+    @Override
+    public AVLNode<T> getLeft() {
+        return left;
+    }
+
+    @Override
+    public AVLNode<T> getRight() {
+        return right;
+    }
+}
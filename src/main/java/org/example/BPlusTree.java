@@ -0,0 +1,640 @@
+package org.example;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+// B+-tree: every key lives in a leaf, leaves are linked in key order, and
+// inner nodes only hold separators. A node packs up to `fanout` keys into one
+// array, so a lookup touches about log_fanout(n) nodes instead of the log2(n)
+// of AVL and RedBlack, and a range scan walks whole leaves.
+//
+// Inner nodes keep the size of every child next to the child pointers, which
+// gives rank/select in O(fanout * height).
+//
+// Pages are not binary nodes: getRoot() returns null, and every Tree method
+// whose default would walk nodes (navigation, iterators, searchAll,
+// prettyPrint) is implemented here instead.
+public class BPlusTree<T extends Comparable<T>> implements Tree<T> {
+    public static final int DEFAULT_FANOUT = 64;
+
+    private final int fanout;
+    private final int minKeys;
+    private Page root;
+    private int size;
+    private int height = 1;
+
+    // Side results of the recursive insert and delete
+    private Object splitKey;
+    private boolean changed;
+
+    public BPlusTree() {
+        this(DEFAULT_FANOUT);
+    }
+
+    // fanout is the most keys a node holds (an inner node then has up to
+    // fanout + 1 children)
+    public BPlusTree(int fanout) {
+        if (fanout < 3) {
+            throw new IllegalArgumentException("Fanout must be at least 3: " + fanout);
+        }
+        this.fanout = fanout;
+        this.minKeys = fanout / 2;
+        this.root = new Leaf(fanout);
+    }
+
+    public int getFanout() {
+        return fanout;
+    }
+
+    // Both kinds of node have one spare slot, so an insert can overflow a
+    // node before it is split
+    private abstract static class Page {
+        final Object[] keys;
+        int count;
+
+        Page(int fanout) {
+            keys = new Object[fanout + 1];
+        }
+    }
+
+    private static final class Leaf extends Page {
+        Leaf next;
+        Leaf previous;
+
+        Leaf(int fanout) {
+            super(fanout);
+        }
+    }
+
+    // Child i holds the keys k with keys[i - 1] <= k < keys[i]
+    private static final class Inner extends Page {
+        final Page[] children;
+        final int[] sizes;
+
+        Inner(int fanout) {
+            super(fanout);
+            children = new Page[fanout + 2];
+            sizes = new int[fanout + 2];
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private int compare(T key, Object other) {
+        return key.compareTo((T) other);
+    }
+
+    // Index of key in the page, or -(insertion point) - 1
+    private int find(Page page, T key) {
+        int low = 0;
+        int high = page.count - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int cmp = compare(key, page.keys[mid]);
+            if (cmp > 0) {
+                low = mid + 1;
+            } else if (cmp < 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -(low + 1);
+    }
+
+    // Number of keys in the page that are <= key, which is also the child
+    // of an inner node that covers key
+    private int upperBound(Page page, T key) {
+        int index = find(page, key);
+        return index >= 0 ? index + 1 : -index - 1;
+    }
+
+    // Number of keys in the page that are < key
+    private int lowerBound(Page page, T key) {
+        int index = find(page, key);
+        return index >= 0 ? index : -index - 1;
+    }
+
+    private static int sizeOf(Page page) {
+        if (page instanceof Inner inner) {
+            int total = 0;
+            for (int i = 0; i <= inner.count; i++) {
+                total += inner.sizes[i];
+            }
+            return total;
+        }
+        return page.count;
+    }
+
+    private Leaf findLeaf(T key) {
+        Page page = root;
+        while (page instanceof Inner inner) {
+            page = inner.children[upperBound(inner, key)];
+        }
+        return (Leaf) page;
+    }
+
+    private Leaf firstLeaf() {
+        Page page = root;
+        while (page instanceof Inner inner) {
+            page = inner.children[0];
+        }
+        return (Leaf) page;
+    }
+
+    private Leaf lastLeaf() {
+        Page page = root;
+        while (page instanceof Inner inner) {
+            page = inner.children[inner.count];
+        }
+        return (Leaf) page;
+    }
+
+    @Override
+    public boolean insert(T data) {
+        if (data == null) {
+            return false;
+        }
+        changed = false;
+        Page right = insert(root, data);
+        if (right != null) {
+            // The root split: grow a level
+            Inner newRoot = new Inner(fanout);
+            newRoot.keys[0] = splitKey;
+            newRoot.count = 1;
+            newRoot.children[0] = root;
+            newRoot.children[1] = right;
+            newRoot.sizes[0] = sizeOf(root);
+            newRoot.sizes[1] = sizeOf(right);
+            root = newRoot;
+            height++;
+        }
+        if (changed) {
+            size++;
+        }
+        return changed;
+    }
+
+    // Returns the new right sibling if the page split, with its separator
+    // in splitKey
+    private Page insert(Page page, T key) {
+        if (page instanceof Inner inner) {
+            int i = upperBound(inner, key);
+            Page right = insert(inner.children[i], key);
+            if (!changed) {
+                return null;
+            }
+            if (right == null) {
+                inner.sizes[i]++;
+                return null;
+            }
+            shiftRight(inner.keys, i, inner.count);
+            inner.keys[i] = splitKey;
+            shiftRight(inner.children, i + 1, inner.count + 1);
+            inner.children[i + 1] = right;
+            System.arraycopy(inner.sizes, i + 1, inner.sizes, i + 2, inner.count - i);
+            inner.sizes[i] = sizeOf(inner.children[i]);
+            inner.sizes[i + 1] = sizeOf(right);
+            inner.count++;
+            return inner.count > fanout ? splitInner(inner) : null;
+        }
+
+        Leaf leaf = (Leaf) page;
+        int index = find(leaf, key);
+        if (index >= 0) {
+            return null;
+        }
+        index = -index - 1;
+        shiftRight(leaf.keys, index, leaf.count);
+        leaf.keys[index] = key;
+        leaf.count++;
+        changed = true;
+        return leaf.count > fanout ? splitLeaf(leaf) : null;
+    }
+
+    private static void shiftRight(Object[] array, int from, int count) {
+        System.arraycopy(array, from, array, from + 1, count - from);
+    }
+
+    private Leaf splitLeaf(Leaf leaf) {
+        Leaf right = new Leaf(fanout);
+        int keep = leaf.count / 2;
+        right.count = leaf.count - keep;
+        System.arraycopy(leaf.keys, keep, right.keys, 0, right.count);
+        clear(leaf.keys, keep, leaf.count);
+        leaf.count = keep;
+
+        right.next = leaf.next;
+        right.previous = leaf;
+        if (leaf.next != null) {
+            leaf.next.previous = right;
+        }
+        leaf.next = right;
+        splitKey = right.keys[0];
+        return right;
+    }
+
+    // The middle separator moves up into the parent
+    private Inner splitInner(Inner inner) {
+        Inner right = new Inner(fanout);
+        int middle = inner.count / 2;
+        splitKey = inner.keys[middle];
+        right.count = inner.count - middle - 1;
+        System.arraycopy(inner.keys, middle + 1, right.keys, 0, right.count);
+        System.arraycopy(inner.children, middle + 1, right.children, 0, right.count + 1);
+        System.arraycopy(inner.sizes, middle + 1, right.sizes, 0, right.count + 1);
+        clear(inner.keys, middle, inner.count);
+        clear(inner.children, middle + 1, inner.count + 1);
+        inner.count = middle;
+        return right;
+    }
+
+    private static void clear(Object[] array, int from, int to) {
+        for (int i = from; i < to; i++) {
+            array[i] = null;
+        }
+    }
+
+    @Override
+    public boolean delete(T data) {
+        if (data == null) {
+            return false;
+        }
+        changed = false;
+        delete(root, data);
+        if (!changed) {
+            return false;
+        }
+        size--;
+        if (root instanceof Inner inner && inner.count == 0) {
+            // The root lost its last separator: shrink a level
+            root = inner.children[0];
+            height--;
+        }
+        return true;
+    }
+
+    // Deletes key below page; a child left with too few keys is refilled
+    // from a sibling or merged into one
+    private void delete(Page page, T key) {
+        if (page instanceof Inner inner) {
+            int i = upperBound(inner, key);
+            Page child = inner.children[i];
+            delete(child, key);
+            if (!changed) {
+                return;
+            }
+            inner.sizes[i]--;
+            if (child.count < minKeys) {
+                rebalance(inner, i);
+            }
+            return;
+        }
+
+        int index = find(page, key);
+        if (index < 0) {
+            return;
+        }
+        System.arraycopy(page.keys, index + 1, page.keys, index, page.count - index - 1);
+        page.keys[--page.count] = null;
+        changed = true;
+    }
+
+    private void rebalance(Inner parent, int i) {
+        Page left = i > 0 ? parent.children[i - 1] : null;
+        Page right = i < parent.count ? parent.children[i + 1] : null;
+        if (left != null && left.count > minKeys) {
+            borrowFromLeft(parent, i);
+        } else if (right != null && right.count > minKeys) {
+            borrowFromRight(parent, i);
+        } else if (left != null) {
+            merge(parent, i - 1);
+        } else if (right != null) {
+            merge(parent, i);
+        }
+    }
+
+    private void borrowFromLeft(Inner parent, int i) {
+        Page child = parent.children[i];
+        Page left = parent.children[i - 1];
+        if (child instanceof Leaf) {
+            shiftRight(child.keys, 0, child.count);
+            child.keys[0] = left.keys[left.count - 1];
+            left.keys[--left.count] = null;
+            child.count++;
+            parent.keys[i - 1] = child.keys[0];
+        } else {
+            Inner to = (Inner) child;
+            Inner from = (Inner) left;
+            shiftRight(to.keys, 0, to.count);
+            to.keys[0] = parent.keys[i - 1];
+            shiftRight(to.children, 0, to.count + 1);
+            System.arraycopy(to.sizes, 0, to.sizes, 1, to.count + 1);
+            to.children[0] = from.children[from.count];
+            to.sizes[0] = from.sizes[from.count];
+            to.count++;
+            parent.keys[i - 1] = from.keys[from.count - 1];
+            from.keys[from.count - 1] = null;
+            from.children[from.count] = null;
+            from.count--;
+        }
+        parent.sizes[i - 1] = sizeOf(left);
+        parent.sizes[i] = sizeOf(child);
+    }
+
+    private void borrowFromRight(Inner parent, int i) {
+        Page child = parent.children[i];
+        Page right = parent.children[i + 1];
+        if (child instanceof Leaf) {
+            child.keys[child.count++] = right.keys[0];
+            System.arraycopy(right.keys, 1, right.keys, 0, right.count - 1);
+            right.keys[--right.count] = null;
+            parent.keys[i] = right.keys[0];
+        } else {
+            Inner to = (Inner) child;
+            Inner from = (Inner) right;
+            to.keys[to.count] = parent.keys[i];
+            to.children[to.count + 1] = from.children[0];
+            to.sizes[to.count + 1] = from.sizes[0];
+            to.count++;
+            parent.keys[i] = from.keys[0];
+            System.arraycopy(from.keys, 1, from.keys, 0, from.count - 1);
+            System.arraycopy(from.children, 1, from.children, 0, from.count);
+            System.arraycopy(from.sizes, 1, from.sizes, 0, from.count);
+            from.keys[from.count - 1] = null;
+            from.children[from.count] = null;
+            from.count--;
+        }
+        parent.sizes[i] = sizeOf(child);
+        parent.sizes[i + 1] = sizeOf(right);
+    }
+
+    // Merges child i + 1 into child i and drops their separator
+    private void merge(Inner parent, int i) {
+        Page left = parent.children[i];
+        Page right = parent.children[i + 1];
+        if (left instanceof Leaf leaf) {
+            System.arraycopy(right.keys, 0, left.keys, left.count, right.count);
+            left.count += right.count;
+            Leaf next = ((Leaf) right).next;
+            leaf.next = next;
+            if (next != null) {
+                next.previous = leaf;
+            }
+        } else {
+            Inner to = (Inner) left;
+            Inner from = (Inner) right;
+            to.keys[to.count] = parent.keys[i];
+            System.arraycopy(from.keys, 0, to.keys, to.count + 1, from.count);
+            System.arraycopy(from.children, 0, to.children, to.count + 1, from.count + 1);
+            System.arraycopy(from.sizes, 0, to.sizes, to.count + 1, from.count + 1);
+            to.count += from.count + 1;
+        }
+        System.arraycopy(parent.keys, i + 1, parent.keys, i, parent.count - i - 1);
+        System.arraycopy(parent.children, i + 2, parent.children, i + 1, parent.count - i - 1);
+        System.arraycopy(parent.sizes, i + 2, parent.sizes, i + 1, parent.count - i - 1);
+        parent.keys[parent.count - 1] = null;
+        parent.children[parent.count] = null;
+        parent.count--;
+        parent.sizes[i] = sizeOf(left);
+    }
+
+    @Override
+    public boolean search(T data) {
+        return get(data) != null;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T get(T data) {
+        if (data == null) {
+            return null;
+        }
+        Leaf leaf = findLeaf(data);
+        int index = find(leaf, data);
+        return index >= 0 ? (T) leaf.keys[index] : null;
+    }
+
+    @Override
+    public int getSize() {
+        return size;
+    }
+
+    // Levels of nodes; every leaf is at the same depth
+    @Override
+    public int getHeight() {
+        return size == 0 ? 0 : height;
+    }
+
+    @Override
+    public int rank(T data) {
+        if (data == null) {
+            return 0;
+        }
+        int rank = 0;
+        Page page = root;
+        while (page instanceof Inner inner) {
+            int i = upperBound(inner, data);
+            for (int j = 0; j < i; j++) {
+                rank += inner.sizes[j];
+            }
+            page = inner.children[i];
+        }
+        return rank + lowerBound(page, data);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T select(int index) {
+        if (index < 0 || index >= size) {
+            return null;
+        }
+        Page page = root;
+        while (page instanceof Inner inner) {
+            int i = 0;
+            while (index >= inner.sizes[i]) {
+                index -= inner.sizes[i++];
+            }
+            page = inner.children[i];
+        }
+        return (T) page.keys[index];
+    }
+
+    // Navigation works on the leaf chain: find the leaf, then step to a
+    // neighbouring leaf when the answer is past its edge
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T first() {
+        Leaf leaf = firstLeaf();
+        return leaf.count == 0 ? null : (T) leaf.keys[0];
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T last() {
+        Leaf leaf = lastLeaf();
+        return leaf.count == 0 ? null : (T) leaf.keys[leaf.count - 1];
+    }
+
+    @Override
+    public T floor(T data) {
+        return data == null ? null : before(data, true);
+    }
+
+    @Override
+    public T lower(T data) {
+        return data == null ? null : before(data, false);
+    }
+
+    @Override
+    public T ceiling(T data) {
+        return data == null ? null : after(data, true);
+    }
+
+    @Override
+    public T higher(T data) {
+        return data == null ? null : after(data, false);
+    }
+
+    @SuppressWarnings("unchecked")
+    private T before(T data, boolean inclusive) {
+        Leaf leaf = findLeaf(data);
+        int index = (inclusive ? upperBound(leaf, data) : lowerBound(leaf, data)) - 1;
+        if (index >= 0) {
+            return (T) leaf.keys[index];
+        }
+        Leaf previous = leaf.previous;
+        return previous == null ? null : (T) previous.keys[previous.count - 1];
+    }
+
+    @SuppressWarnings("unchecked")
+    private T after(T data, boolean inclusive) {
+        Leaf leaf = findLeaf(data);
+        int index = inclusive ? lowerBound(leaf, data) : upperBound(leaf, data);
+        if (index < leaf.count) {
+            return (T) leaf.keys[index];
+        }
+        Leaf next = leaf.next;
+        return next == null ? null : (T) next.keys[0];
+    }
+
+    // A sorted batch stays in the current leaf while the keys are within it
+    // and only descends from the root when a key passes the leaf's last key
+    @Override
+    public BitSet searchAll(T[] keys) {
+        BitSet found = new BitSet(keys.length);
+        Leaf leaf = null;
+        for (int i : Batch.sortedOrder(keys)) {
+            T key = keys[i];
+            if (leaf == null || leaf.count == 0 || compare(key, leaf.keys[leaf.count - 1]) > 0) {
+                leaf = findLeaf(key);
+            }
+            if (find(leaf, key) >= 0) found.set(i);
+        }
+        return found;
+    }
+
+    @Override
+    public Iterator<T> iterator(T from, T to) {
+        Leaf leaf = from == null ? firstLeaf() : findLeaf(from);
+        int index = from == null ? 0 : lowerBound(leaf, from);
+        return new LeafIterator(leaf, index, from, to, false);
+    }
+
+    @Override
+    public Iterator<T> descendingIterator(T from, T to) {
+        Leaf leaf = to == null ? lastLeaf() : findLeaf(to);
+        int index = to == null ? leaf.count - 1 : lowerBound(leaf, to) - 1;
+        return new LeafIterator(leaf, index, from, to, true);
+    }
+
+    // Walks the leaf chain over [from, to)
+    private final class LeafIterator implements Iterator<T> {
+        private Leaf leaf;
+        private int index;
+        private final T from;
+        private final T to;
+        private final boolean descending;
+
+        LeafIterator(Leaf leaf, int index, T from, T to, boolean descending) {
+            this.leaf = leaf;
+            this.index = index;
+            this.from = from;
+            this.to = to;
+            this.descending = descending;
+            settle();
+        }
+
+        // Moves past leaf edges, then ends the iteration at the far bound
+        private void settle() {
+            while (leaf != null && (index < 0 || index >= leaf.count)) {
+                if (descending) {
+                    leaf = leaf.previous;
+                    index = leaf == null ? -1 : leaf.count - 1;
+                } else {
+                    leaf = leaf.next;
+                    index = 0;
+                }
+            }
+            if (leaf != null) {
+                Object key = leaf.keys[index];
+                if (descending ? from != null && compare(from, key) > 0 : to != null && compare(to, key) <= 0) {
+                    leaf = null;
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return leaf != null;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public T next() {
+            if (leaf == null) {
+                throw new NoSuchElementException();
+            }
+            T key = (T) leaf.keys[index];
+            index += descending ? -1 : 1;
+            settle();
+            return key;
+        }
+    }
+
+    @Override
+    public Node<T> getRoot() {
+        return null;
+    }
+
+    // Print the tree level by level, one bracketed node after another
+    @Override
+    public void prettyPrint() {
+        if (size == 0) {
+            System.out.println("(empty tree)");
+            return;
+        }
+        List<Page> level = List.of(root);
+        int depth = 0;
+        while (!level.isEmpty()) {
+            StringBuilder line = new StringBuilder("Level " + depth++ + ": ");
+            List<Page> next = new ArrayList<>();
+            for (Page page : level) {
+                line.append('[');
+                for (int i = 0; i < page.count; i++) {
+                    if (i > 0) line.append(' ');
+                    line.append(page.keys[i]);
+                }
+                line.append("] ");
+                if (page instanceof Inner inner) {
+                    for (int i = 0; i <= inner.count; i++) next.add(inner.children[i]);
+                }
+            }
+            System.out.println(line);
+            level = next;
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package org.example;
+
+import java.util.Arrays;
+
+// Helpers for the batch operations of Tree (insertAll, searchAll, deleteAll)
+final class Batch {
+    private Batch() {
+    }
+
+    // The non-null keys, sorted (duplicates kept)
+    static <T extends Comparable<T>> T[] sortedCopy(T[] keys) {
+        T[] copy = Arrays.copyOf(keys, keys.length);
+        int n = 0;
+        for (T key : keys) {
+            if (key != null) copy[n++] = key;
+        }
+        Arrays.parallelSort(copy, 0, n);
+        return n == copy.length ? copy : Arrays.copyOf(copy, n);
+    }
+
+    // Indices of the non-null keys in ascending key order. An ascending
+    // batch needs no sort, and the sort is fastest on batches made of
+    // ascending runs.
+    static <T extends Comparable<T>> int[] sortedOrder(T[] keys) {
+        Integer[] order = new Integer[keys.length];
+        int n = 0;
+        boolean ascending = true;
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != null) {
+                if (n > 0 && keys[order[n - 1]].compareTo(keys[i]) > 0) ascending = false;
+                order[n++] = i;
+            }
+        }
+        if (!ascending) {
+            Arrays.parallelSort(order, 0, n, (a, b) -> keys[a].compareTo(keys[b]));
+        }
+        int[] result = new int[n];
+        for (int i = 0; i < n; i++) {
+            result[i] = order[i];
+        }
+        return result;
+    }
+
+    // Search over ascending keys that resumes from the path of the previous
+    // search instead of the root. Each path entry remembers the exclusive
+    // upper bound of its subtree; since keys only grow, the search backs up
+    // to the deepest entry whose bound is above the key and descends from
+    // there, so neighbouring keys share everything but the end of the path.
+    static final class Finger<T extends Comparable<T>> {
+        private final Node<T>[] path;
+        private final Object[] upper;
+        private int depth;
+
+        @SuppressWarnings("unchecked")
+        Finger(Node<T> root, int height) {
+            path = (Node<T>[]) new Node[height + 1];
+            upper = new Object[height + 1];
+            if (root != null) {
+                path[0] = root;
+                depth = 1;
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        boolean search(T key) {
+            if (depth == 0) {
+                return false;
+            }
+            while (depth > 1 && upper[depth - 1] != null && key.compareTo((T) upper[depth - 1]) >= 0) {
+                depth--;
+            }
+            Node<T> node = path[depth - 1];
+            while (true) {
+                int cmp = key.compareTo(node.data);
+                if (cmp == 0) {
+                    return true;
+                }
+                Node<T> next = cmp < 0 ? node.getLeft() : node.getRight();
+                if (next == null) {
+                    return false;
+                }
+                path[depth] = next;
+                upper[depth] = cmp < 0 ? node.data : upper[depth - 1];
+                depth++;
+                node = next;
+            }
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package org.example;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+// Helpers shared by the linear-time fromSorted builders of AVL and RedBlack
+final class BulkLoad {
+    private BulkLoad() {
+    }
+
+    // Returns data itself when it is already strictly ascending and has no
+    // nulls, otherwise a sorted copy with nulls and duplicates removed. Large
+    // inputs are sorted on the common ForkJoinPool.
+    static <T extends Comparable<T>> T[] sortedUnique(T[] data) {
+        if (isStrictlyAscending(data)) {
+            return data;
+        }
+        T[] copy = Arrays.copyOf(data, data.length);
+        int n = 0;
+        for (T value : copy) {
+            if (value != null) copy[n++] = value;
+        }
+        Arrays.parallelSort(copy, 0, n);
+        return dedup(copy, n);
+    }
+
+    // Drops adjacent duplicates from the sorted prefix a[0, n)
+    static <T extends Comparable<T>> T[] dedup(T[] a, int n) {
+        int unique = 0;
+        for (int i = 0; i < n; i++) {
+            if (unique == 0 || a[unique - 1].compareTo(a[i]) != 0) {
+                a[unique++] = a[i];
+            }
+        }
+        return unique == a.length ? a : Arrays.copyOf(a, unique);
+    }
+
+    static <T extends Comparable<T>> boolean isStrictlyAscending(T[] data) {
+        for (int i = 0; i < data.length; i++) {
+            if (data[i] == null || (i > 0 && data[i - 1].compareTo(data[i]) >= 0)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Number of nodes on the left of a subtree of n nodes. Splitting this way
+    // keeps every level full except possibly the deepest one.
+    static int leftCount(int n) {
+        return (n - 1) / 2;
+    }
+
+    // Depth (root = 0) of the incomplete bottom level of such a tree, or -1
+    // when the tree is perfect
+    static int partialLevel(int n) {
+        if (((n + 1) & n) == 0) {
+            return -1;
+        }
+        return 31 - Integer.numberOfLeadingZeros(n + 1);
+    }
+
+    // Iterator wrapper that rejects input which is not strictly ascending
+    static final class Source<T extends Comparable<T>> {
+        private final Iterator<T> iterator;
+        private T previous;
+
+        Source(Iterator<T> iterator) {
+            this.iterator = iterator;
+        }
+
+        T next() {
+            if (!iterator.hasNext()) {
+                throw new IllegalArgumentException("Sorted input ended early", new NoSuchElementException());
+            }
+            T value = iterator.next();
+            if (value == null) {
+                throw new IllegalArgumentException("Sorted input contains null");
+            }
+            if (previous != null && previous.compareTo(value) >= 0) {
+                throw new IllegalArgumentException("Input is not strictly ascending at " + value);
+            }
+            previous = value;
+            return value;
+        }
+    }
+}
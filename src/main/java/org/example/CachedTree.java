@@ -0,0 +1,324 @@
+package org.example;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.function.ToIntFunction;
+
+// Tree decorator that answers repeated search/get calls from a bounded hash
+// cache instead of a root-to-leaf descent. Both outcomes are cached: a
+// positive entry holds the stored element, a negative one the probe key. A
+// hit costs one hash and one compareTo however deep the key is.
+//
+// Entries are matched with compareTo, like the tree matches keys, so the hash
+// has to agree with compareTo too. hashCode may not (BigDecimal 1.0 and 1.00
+// compare equal), so the caller supplies the hasher; Object::hashCode is fine
+// for keys whose compareTo agrees with equals, such as String or Integer.
+//
+// Eviction is CLOCK: a hit sets the entry's referenced bit, and a full cache
+// sweeps its hand over the entries, clearing set bits and replacing the first
+// entry whose bit is clear. New entries start unreferenced, so a burst of
+// one-off lookups replaces each other rather than the hot set.
+//
+// insert and delete update the entry of their key, so the cache never
+// disagrees with the tree as long as every mutation goes through this
+// decorator. Like the trees, it is not thread-safe.
+public class CachedTree<T extends Comparable<T>> implements Tree<T> {
+    private final Tree<T> tree;
+    private final ToIntFunction<? super T> hasher;
+    private final int capacity;
+
+    // CLOCK entries; keys[i] == null marks a free entry
+    private final Object[] keys;
+    private final int[] hashes;
+    private final boolean[] present;
+    private final boolean[] referenced;
+    private int used;
+    private int hand;
+
+    // Open-addressing index from key hash to entry + 1 (0 is empty), linear
+    // probing, at most half full
+    private final int[] index;
+    private final int shift;
+
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    // hasher must return the same value for any two keys whose compareTo is 0
+    public CachedTree(Tree<T> tree, ToIntFunction<? super T> hasher, int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Cache capacity must be positive: " + capacity);
+        }
+        this.tree = tree;
+        this.hasher = hasher;
+        this.capacity = capacity;
+        this.keys = new Object[capacity];
+        this.hashes = new int[capacity];
+        this.present = new boolean[capacity];
+        this.referenced = new boolean[capacity];
+        int bits = 32 - Integer.numberOfLeadingZeros(2 * capacity - 1);
+        this.index = new int[1 << bits];
+        this.shift = 32 - bits;
+    }
+
+    @Override
+    public boolean search(T data) {
+        return get(data) != null;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T get(T data) {
+        if (data == null) {
+            return null;
+        }
+        int hash = hash(data);
+        int entry = find(data, hash);
+        if (entry >= 0) {
+            hits++;
+            referenced[entry] = true;
+            return present[entry] ? (T) keys[entry] : null;
+        }
+        misses++;
+        T stored = tree.get(data);
+        admit(stored != null ? stored : data, hash, stored != null);
+        return stored;
+    }
+
+    @Override
+    public boolean insert(T data) {
+        if (!tree.insert(data)) {
+            return false;
+        }
+        // A cached miss on data, or on any key equal to it, is now a hit on
+        // the inserted element
+        int entry = find(data, hash(data));
+        if (entry >= 0) {
+            keys[entry] = data;
+            present[entry] = true;
+        }
+        return true;
+    }
+
+    @Override
+    public boolean delete(T data) {
+        if (!tree.delete(data)) {
+            return false;
+        }
+        int entry = find(data, hash(data));
+        if (entry >= 0) {
+            present[entry] = false;
+        }
+        return true;
+    }
+
+    // Batch updates drop the entries of their keys rather than probing the
+    // tree for each one
+    @Override
+    public int insertAll(T[] keys) {
+        int inserted = tree.insertAll(keys);
+        forget(keys);
+        return inserted;
+    }
+
+    @Override
+    public int deleteAll(T[] keys) {
+        int deleted = tree.deleteAll(keys);
+        forget(keys);
+        return deleted;
+    }
+
+    @Override
+    public BitSet searchAll(T[] keys) {
+        return tree.searchAll(keys);
+    }
+
+    private void forget(T[] batch) {
+        for (T key : batch) {
+            if (key == null) continue;
+            int entry = find(key, hash(key));
+            if (entry >= 0) {
+                unindex(entry);
+                keys[entry] = null;
+                referenced[entry] = false;
+            }
+        }
+    }
+
+    // Drops every entry; the counters are kept
+    public void clearCache() {
+        Arrays.fill(keys, null);
+        Arrays.fill(referenced, false);
+        Arrays.fill(index, 0);
+        used = 0;
+        hand = 0;
+    }
+
+    public long cacheHits() {
+        return hits;
+    }
+
+    public long cacheMisses() {
+        return misses;
+    }
+
+    public long evictions() {
+        return evictions;
+    }
+
+    public void resetCounters() {
+        hits = 0;
+        misses = 0;
+        evictions = 0;
+    }
+
+    public int cacheCapacity() {
+        return capacity;
+    }
+
+    // Spreads the hash over the high bits the index uses (Fibonacci hashing)
+    private int hash(T key) {
+        return hasher.applyAsInt(key) * 0x9E3779B9;
+    }
+
+    @SuppressWarnings("unchecked")
+    private int find(T key, int hash) {
+        int mask = index.length - 1;
+        for (int i = hash >>> shift; ; i = (i + 1) & mask) {
+            int entry = index[i] - 1;
+            if (entry < 0) {
+                return -1;
+            }
+            if (hashes[entry] == hash && key.compareTo((T) keys[entry]) == 0) {
+                return entry;
+            }
+        }
+    }
+
+    private void admit(Object key, int hash, boolean isPresent) {
+        int entry;
+        if (used < capacity) {
+            entry = used++;
+        } else {
+            while (referenced[hand]) {
+                referenced[hand] = false;
+                hand = hand + 1 == capacity ? 0 : hand + 1;
+            }
+            entry = hand;
+            hand = hand + 1 == capacity ? 0 : hand + 1;
+            if (keys[entry] != null) {
+                unindex(entry);
+                evictions++;
+            }
+        }
+        keys[entry] = key;
+        hashes[entry] = hash;
+        present[entry] = isPresent;
+        referenced[entry] = false;
+
+        int mask = index.length - 1;
+        int i = hash >>> shift;
+        while (index[i] != 0) {
+            i = (i + 1) & mask;
+        }
+        index[i] = entry + 1;
+    }
+
+    // Removes entry from the index, shifting later entries of its probe run
+    // back so lookups never stop at the gap
+    private void unindex(int entry) {
+        int mask = index.length - 1;
+        int gap = hashes[entry] >>> shift;
+        while (index[gap] != entry + 1) {
+            gap = (gap + 1) & mask;
+        }
+        for (int i = (gap + 1) & mask; index[i] != 0; i = (i + 1) & mask) {
+            int home = hashes[index[i] - 1] >>> shift;
+            // Move i into the gap unless its home lies cyclically in (gap, i]
+            boolean staysPut = gap <= i ? gap < home && home <= i : gap < home || home <= i;
+            if (!staysPut) {
+                index[gap] = index[i];
+                gap = i;
+            }
+        }
+        index[gap] = 0;
+    }
+
+    // Everything else goes straight to the wrapped tree
+
+    @Override
+    public int getSize() {
+        return tree.getSize();
+    }
+
+    @Override
+    public int getHeight() {
+        return tree.getHeight();
+    }
+
+    @Override
+    public int rank(T data) {
+        return tree.rank(data);
+    }
+
+    @Override
+    public T select(int index) {
+        return tree.select(index);
+    }
+
+    @Override
+    public int countRange(T from, T to) {
+        return tree.countRange(from, to);
+    }
+
+    @Override
+    public T first() {
+        return tree.first();
+    }
+
+    @Override
+    public T last() {
+        return tree.last();
+    }
+
+    @Override
+    public T floor(T data) {
+        return tree.floor(data);
+    }
+
+    @Override
+    public T ceiling(T data) {
+        return tree.ceiling(data);
+    }
+
+    @Override
+    public T lower(T data) {
+        return tree.lower(data);
+    }
+
+    @Override
+    public T higher(T data) {
+        return tree.higher(data);
+    }
+
+    @Override
+    public Iterator<T> iterator(T from, T to) {
+        return tree.iterator(from, to);
+    }
+
+    @Override
+    public Iterator<T> descendingIterator(T from, T to) {
+        return tree.descendingIterator(from, to);
+    }
+
+    @Override
+    public Node<T> getRoot() {
+        return tree.getRoot();
+    }
+
+    @Override
+    public void prettyPrint() {
+        tree.prettyPrint();
+    }
+}
@@ -0,0 +1,187 @@
+package org.example.CommandInterface;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Predicate;
+
+// Streaming line ingestion for batch_insert / batch_delete. A parser thread
+// reads the file through a direct buffer in large blocks, splits lines on
+// '\n' by scanning the bytes, trims and decodes them (UTF-8) and hands them
+// over in batches; the calling thread applies the tree operation. Lines end
+// at "\n" or "\r\n" (the '\r' goes with the trimming, like String.trim());
+// other separators Scanner.nextLine() knows, such as a lone '\r', are not
+// line breaks here.
+final class FileIngest {
+    private static final int BLOCK = 1 << 22;
+    private static final int BATCH = 4096;
+    private static final int QUEUED_BATCHES = 16;
+    private static final String[] END = new String[0];
+
+    private FileIngest() {
+    }
+
+    static final class Result {
+        final int applied;
+        final int skipped;
+        final long lines;
+        final long bytes;
+        final long nanos;
+
+        Result(int applied, int skipped, long lines, long bytes, long nanos) {
+            this.applied = applied;
+            this.skipped = skipped;
+            this.lines = lines;
+            this.bytes = bytes;
+            this.nanos = nanos;
+        }
+
+        double linesPerSecond() {
+            return nanos == 0 ? 0 : lines * 1e9 / nanos;
+        }
+
+        double megabytesPerSecond() {
+            return nanos == 0 ? 0 : bytes * 1e9 / nanos / (1 << 20);
+        }
+    }
+
+    // Applies action to every line of file; lines where it returns true
+    // count as applied, the others as skipped
+    static Result run(Path file, Predicate<String> action) throws IOException {
+        long start = System.nanoTime();
+        BlockingQueue<String[]> queue = new ArrayBlockingQueue<>(QUEUED_BATCHES);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        long[] bytes = {0};
+
+        // END follows however split ends, so the consumer never waits on a
+        // parser that died. An interrupt means the consumer has left: then
+        // nothing is queued, since no one would drain the queue.
+        Thread parser = new Thread(() -> {
+            try {
+                bytes[0] = split(file, queue);
+            } catch (InterruptedException e) {
+                return;
+            } catch (Throwable e) {
+                failure.set(e);
+            }
+            try {
+                queue.put(END);
+            } catch (InterruptedException e) {
+                // The consumer gave up
+            }
+        }, "ingest-parser");
+        parser.setDaemon(true);
+        parser.start();
+
+        int applied = 0;
+        int skipped = 0;
+        long lines = 0;
+        try {
+            for (String[] batch = queue.take(); batch != END; batch = queue.take()) {
+                for (String line : batch) {
+                    if (action.test(line)) applied++;
+                    else skipped++;
+                }
+                lines += batch.length;
+            }
+            parser.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Ingestion interrupted");
+        } finally {
+            parser.interrupt();
+        }
+        Throwable error = failure.get();
+        if (error instanceof IOException e) {
+            throw e;
+        } else if (error instanceof RuntimeException e) {
+            throw e;
+        } else if (error instanceof Error e) {
+            throw e;
+        }
+        return new Result(applied, skipped, lines, bytes[0], System.nanoTime() - start);
+    }
+
+    // Returns the number of bytes read
+    private static long split(Path file, BlockingQueue<String[]> queue) throws IOException, InterruptedException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(BLOCK);
+            // chunk[0, carry) holds the unfinished line of the previous block
+            byte[] chunk = new byte[BLOCK];
+            int carry = 0;
+            long total = 0;
+            Batcher batcher = new Batcher(queue);
+            while (true) {
+                buffer.clear().limit(Math.min(BLOCK, chunk.length - carry));
+                int read = channel.read(buffer);
+                if (read < 0) {
+                    break;
+                }
+                total += read;
+                buffer.flip();
+                buffer.get(chunk, carry, read);
+                int end = carry + read;
+                int lineStart = 0;
+                for (int i = carry; i < end; i++) {
+                    if (chunk[i] == '\n') {
+                        batcher.add(line(chunk, lineStart, i));
+                        lineStart = i + 1;
+                    }
+                }
+                carry = end - lineStart;
+                System.arraycopy(chunk, lineStart, chunk, 0, carry);
+                if (carry == chunk.length) {
+                    // A single line longer than the chunk
+                    chunk = Arrays.copyOf(chunk, chunk.length * 2);
+                }
+            }
+            if (carry > 0) {
+                batcher.add(line(chunk, 0, carry));
+            }
+            batcher.flush();
+            return total;
+        }
+    }
+
+    // Decodes bytes[from, to) without the surrounding bytes <= ' ', which is
+    // what String.trim() strips (UTF-8 continuation bytes are all >= 0x80)
+    private static String line(byte[] bytes, int from, int to) {
+        while (from < to && (bytes[from] & 0xff) <= ' ') from++;
+        while (to > from && (bytes[to - 1] & 0xff) <= ' ') to--;
+        return new String(bytes, from, to - from, StandardCharsets.UTF_8);
+    }
+
+    private static final class Batcher {
+        private final BlockingQueue<String[]> queue;
+        private String[] batch = new String[BATCH];
+        private int size;
+
+        Batcher(BlockingQueue<String[]> queue) {
+            this.queue = queue;
+        }
+
+        void add(String line) throws InterruptedException {
+            batch[size++] = line;
+            if (size == BATCH) {
+                queue.put(batch);
+                batch = new String[BATCH];
+                size = 0;
+            }
+        }
+
+        void flush() throws InterruptedException {
+            if (size > 0) {
+                queue.put(Arrays.copyOf(batch, size));
+                size = 0;
+            }
+        }
+    }
+}
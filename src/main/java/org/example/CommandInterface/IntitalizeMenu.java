@@ -1,9 +1,15 @@
 package org.example.CommandInterface;
 
 import org.example.AVL;
+import org.example.BPlusTree;
+import org.example.MappedAVL;
+import org.example.MappedRedBlack;
 import org.example.RedBlack;
 import org.example.Tree;
 
+import java.io.IOException;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
 import java.util.Scanner;
 
 public class IntitalizeMenu implements State{
@@ -43,6 +49,31 @@ public class IntitalizeMenu implements State{
                     nextState = new OperationMenu(scanner, tree);
                     return;
 
+                case "3":
+                case "4":
+                    System.out.print("File path: ");
+                    String path = scanner.nextLine().trim();
+                    try {
+                        tree = input.equals("3") ? new MappedAVL(Path.of(path)) : new MappedRedBlack(Path.of(path));
+                    } catch (IOException | InvalidPathException e) {
+                        errorMsg = "Cannot open " + path + ": " + e.getMessage();
+                        break;
+                    }
+                    nextState = new OperationMenu(scanner, tree);
+                    return;
+
+                case "5":
+                    System.out.print("Fanout (Enter for " + BPlusTree.DEFAULT_FANOUT + "): ");
+                    String fanout = scanner.nextLine().trim();
+                    try {
+                        tree = fanout.isEmpty() ? new BPlusTree<String>() : new BPlusTree<String>(Integer.parseInt(fanout));
+                    } catch (IllegalArgumentException e) {
+                        errorMsg = "Invalid fanout: " + fanout;
+                        break;
+                    }
+                    nextState = new OperationMenu(scanner, tree);
+                    return;
+
                 default:
                     errorMsg = "Invalid Input";
             }
@@ -58,5 +89,8 @@ public class IntitalizeMenu implements State{
     private void printMenu() {
         System.out.println("1- AVL Tree");
         System.out.println("2- RedBlack Tree");
+        System.out.println("3- Persistent AVL Tree (open or create file)");
+        System.out.println("4- Persistent RedBlack Tree (open or create file)");
+        System.out.println("5- B+ Tree");
     }
 }
@@ -1,12 +1,24 @@
 package org.example.CommandInterface;
 
+import org.example.AVL;
+import org.example.KeyCodec;
+import org.example.MappedTree;
+import org.example.RedBlack;
 import org.example.Tree;
 
 import java.io.File;
-import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Scanner;
+import java.util.function.Predicate;
 
 public class OperationMenu implements State{
+    // Returned by a batch whose tree operation failed; the error is printed
+    private static final FileIngest.Result FAILED = new FileIngest.Result(0, 0, 0, 0, 0);
+
     Scanner scanner;
     State nextState;
     Tree<String> tree;
@@ -26,9 +38,11 @@ public class OperationMenu implements State{
 
             switch (checkBackOrExit(input)) {
                 case 1:
+                    closeTree();
                     nextState = new IntitalizeMenu(scanner);
                     return;
                 case 2:
+                    closeTree();
                     System.exit(0);
             }
 
@@ -39,9 +53,8 @@ public class OperationMenu implements State{
             }
 
             boolean flag;
-            int[] rets;
+            FileIngest.Result ingested;
             long startTime;
-            long endTime;
             long duration;
 
             switch (tokens[0].toLowerCase()) {
@@ -89,31 +102,55 @@ public class OperationMenu implements State{
 
                 case "batch_insert":
                 case "bi":
-                    startTime = System.nanoTime();
-                    rets = insertStringsFromFile(tokens[1]);
-                    endTime = System.nanoTime();
-                    duration = (endTime - startTime) / 1_000_000;
-                    if (rets == null) {
+                    ingested = insertStringsFromFile(tokens[1]);
+                    if (ingested == FAILED) {
+                        break;
+                    }
+                    if (ingested == null) {
                         System.out.println(ConsoleColors.RED + "Invalid Path" + ConsoleColors.RESET);
                         break;
                     }
-                    System.out.println(ConsoleColors.CYAN + "Added strings: " + rets[0] + ConsoleColors.RESET);
-                    System.out.println(ConsoleColors.CYAN + "Existing/Duplicates strings: " + rets[1] + ConsoleColors.RESET);
-                    System.out.println(ConsoleColors.CYAN + "Time taken: " + duration + " ms" + ConsoleColors.RESET);
+                    System.out.println(ConsoleColors.CYAN + "Added strings: " + ingested.applied + ConsoleColors.RESET);
+                    System.out.println(ConsoleColors.CYAN + "Existing/Duplicates strings: " + ingested.skipped + ConsoleColors.RESET);
+                    printIngestStats(ingested);
                     break;
 
                 case "batch_delete":
                 case "bd":
-                    startTime = System.nanoTime();
-                    rets = deleteStringsFromFile(tokens[1]);
-                    endTime = System.nanoTime();
-                    duration = (endTime - startTime) / 1_000_000;
-                    if (rets == null) {
+                    ingested = deleteStringsFromFile(tokens[1]);
+                    if (ingested == FAILED) {
+                        break;
+                    }
+                    if (ingested == null) {
                         System.out.println(ConsoleColors.RED + "Invalid Path" + ConsoleColors.RESET);
                         break;
                     }
-                    System.out.println(ConsoleColors.CYAN + "Deleted strings: " + rets[0] + ConsoleColors.RESET);
-                    System.out.println(ConsoleColors.CYAN + "nonExisting/Duplicates strings: " + rets[1] + ConsoleColors.RESET);
+                    System.out.println(ConsoleColors.CYAN + "Deleted strings: " + ingested.applied + ConsoleColors.RESET);
+                    System.out.println(ConsoleColors.CYAN + "nonExisting/Duplicates strings: " + ingested.skipped + ConsoleColors.RESET);
+                    printIngestStats(ingested);
+                    break;
+
+                case "save":
+                    startTime = System.nanoTime();
+                    String saved = saveSnapshot(tokens[1]);
+                    duration = (System.nanoTime() - startTime) / 1_000_000;
+                    if (saved != null) {
+                        System.out.println(ConsoleColors.RED + saved + ConsoleColors.RESET);
+                        break;
+                    }
+                    System.out.println(ConsoleColors.CYAN + "Snapshot saved: " + tree.getSize() + " strings" + ConsoleColors.RESET);
+                    System.out.println(ConsoleColors.CYAN + "Time taken: " + duration + " ms" + ConsoleColors.RESET);
+                    break;
+
+                case "load":
+                    startTime = System.nanoTime();
+                    String loaded = loadSnapshot(tokens[1]);
+                    duration = (System.nanoTime() - startTime) / 1_000_000;
+                    if (loaded != null) {
+                        System.out.println(ConsoleColors.RED + loaded + ConsoleColors.RESET);
+                        break;
+                    }
+                    System.out.println(ConsoleColors.CYAN + "Snapshot loaded: " + tree.getSize() + " strings" + ConsoleColors.RESET);
                     System.out.println(ConsoleColors.CYAN + "Time taken: " + duration + " ms" + ConsoleColors.RESET);
                     break;
 
@@ -123,11 +160,59 @@ public class OperationMenu implements State{
         }
     }
 
+    // Snapshots are binary files written by AVL/RedBlack save; they return an
+    // error message, or null on success
+    private String saveSnapshot(String path) {
+        try {
+            if (tree instanceof AVL<String> avl) avl.save(Path.of(path), KeyCodec.STRING);
+            else if (tree instanceof RedBlack<String> rb) rb.save(Path.of(path), KeyCodec.STRING);
+            else return "Snapshots are not supported for this tree";
+            return null;
+        } catch (IOException | InvalidPathException e) {
+            return "Cannot save snapshot: " + e.getMessage();
+        }
+    }
+
+    // Replaces the current tree with the snapshot's contents
+    private String loadSnapshot(String path) {
+        try {
+            if (tree instanceof AVL) tree = AVL.load(Path.of(path), KeyCodec.STRING);
+            else if (tree instanceof RedBlack) tree = RedBlack.load(Path.of(path), KeyCodec.STRING);
+            else return "Snapshots are not supported for this tree";
+            return null;
+        } catch (IOException | InvalidPathException e) {
+            return "Cannot load snapshot: " + e.getMessage();
+        }
+    }
+
     @Override
     public State nextState() {
         return nextState;
     }
 
+    // Persistent trees commit and release their file
+    private void closeTree() {
+        if (tree instanceof MappedTree mapped) {
+            try {
+                mapped.close();
+            } catch (IOException e) {
+                System.out.println(ConsoleColors.RED + "Failed to close tree file: " + e.getMessage() + ConsoleColors.RESET);
+            }
+        }
+    }
+
+    // A persistent tree commits a whole batch once instead of per string
+    private void beginBatch() {
+        if (tree instanceof MappedTree mapped) mapped.setAutoCommit(false);
+    }
+
+    private void endBatch() {
+        if (tree instanceof MappedTree mapped) {
+            mapped.commit();
+            mapped.setAutoCommit(true);
+        }
+    }
+
     private int checkBackOrExit(String s) {
         if (s.equalsIgnoreCase("back"))
             return 1;
@@ -161,47 +246,75 @@ public class OperationMenu implements State{
 
     }
 
-    private int[] insertStringsFromFile(String filePath) {
+    private void printIngestStats(FileIngest.Result ingested) {
+        System.out.println(ConsoleColors.CYAN + "Time taken: " + ingested.nanos / 1_000_000 + " ms" + ConsoleColors.RESET);
+        System.out.println(ConsoleColors.CYAN + String.format("Throughput: %.0f lines/s, %.1f MB/s",
+                ingested.linesPerSecond(), ingested.megabytesPerSecond()) + ConsoleColors.RESET);
+    }
+
+    private FileIngest.Result insertStringsFromFile(String filePath) {
+        if (tree instanceof AVL || tree instanceof RedBlack) {
+            return bulkInsertStringsFromFile(filePath);
+        }
+        return ingest(filePath, tree::insert);
+    }
+
+    // In-memory trees take the whole file at once: fromSorted sorts and
+    // dedups it in parallel and builds a tree in O(n), which replaces an empty
+    // tree or is merged into the current one with a union. Counts are the
+    // same as inserting line by line.
+    FileIngest.Result bulkInsertStringsFromFile(String filePath) {
         File file = loadFile(filePath);
         if (file == null) return null;
-        try (Scanner fileScan = new Scanner(file)) {
-            int[] result = {0, 0};
-            while (fileScan.hasNextLine()) {
-                String input = fileScan.nextLine().trim();
-                boolean flag = tree.insert(input);
-                if (flag)
-                    result[0]++;
-                else
-                    result[1]++;
-            }
-            fileScan.close();
-            return result;
+        long startTime = System.nanoTime();
+        List<String> lines = new ArrayList<>();
+        FileIngest.Result read;
+        try {
+            read = FileIngest.run(file.toPath(), lines::add);
         }
-        catch (FileNotFoundException e) {
+        catch (IOException e) {
             return null;
         }
+        String[] batch = lines.toArray(new String[0]);
+
+        int before = tree.getSize();
+        if (tree instanceof AVL<String> avl) {
+            AVL<String> built = AVL.fromSorted(batch);
+            tree = before == 0 ? built : AVL.union(avl, built);
+        } else if (tree instanceof RedBlack<String> rb) {
+            RedBlack<String> built = RedBlack.fromSorted(batch);
+            tree = before == 0 ? built : RedBlack.union(rb, built);
+        }
+        int added = tree.getSize() - before;
+        return new FileIngest.Result(added, batch.length - added, read.lines, read.bytes, System.nanoTime() - startTime);
+    }
+
+    private FileIngest.Result deleteStringsFromFile(String filePath) {
+        return ingest(filePath, tree::delete);
     }
 
-    private int[] deleteStringsFromFile(String filePath) {
+    private FileIngest.Result ingest(String filePath, Predicate<String> action) {
         File file = loadFile(filePath);
         if (file == null) return null;
-        try (Scanner fileScan = new Scanner(file)) {
-            int[] result = {0, 0};
-            while (fileScan.hasNextLine()) {
-                String input = fileScan.nextLine().trim();
-                boolean flag = tree.delete(input);
-                if (flag)
-                    result[0]++;
-                else
-                    result[1]++;
-            }
-            return result;
+        beginBatch();
+        try {
+            return FileIngest.run(file.toPath(), action);
         }
-        catch (FileNotFoundException e) {
+        catch (IOException e) {
             return null;
         }
+        catch (RuntimeException e) {
+            // e.g. a key a persistent tree cannot store; the lines before it
+            // stay applied
+            System.out.println(ConsoleColors.RED + "Batch failed: " + e.getMessage() + ConsoleColors.RESET);
+            return FAILED;
+        }
+        finally {
+            endBatch();
+        }
     }
 
+    // Any readable regular file is taken as one string per line
     private File loadFile(String path) {
         if (
             path.equalsIgnoreCase("default") ||
@@ -211,7 +324,7 @@ public class OperationMenu implements State{
             path = "./src/stringFiles/default.txt";
         }
         File file = new File(path);
-        if (!file.exists() || !file.isFile() || !path.endsWith(".txt"))
+        if (!file.isFile() || !file.canRead())
             return null;
         return file;
     }
@@ -0,0 +1,322 @@
+package org.example;
+
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Function;
+
+// Thread-safe AVL tree. Writers are serialized by the write lock of a
+// StampedLock; lookups never take a lock. A read walks the tree under an
+// optimistic stamp and is retried, spinning, if a writer got in between.
+// After every YIELD_ATTEMPTS failed validations the reader yields its CPU to
+// let the writer finish, but it never queues on the lock, so a writer never
+// waits for readers either. Under sustained writes a reader may retry many
+// times; each write holds the lock only for one O(log n) update.
+//
+// Reads that race with a writer may see a half-done rotation. That is safe
+// here: keys are final, every descent is bounded by MAX_DEPTH so a transient
+// cycle cannot trap a reader, and a result is only returned once the stamp
+// validates.
+public class ConcurrentAVL<T extends Comparable<T>> implements Tree<T> {
+    private static final int YIELD_ATTEMPTS = 64;
+    // Far above the height of any AVL tree with at most 2^31 keys (< 46)
+    private static final int MAX_DEPTH = 128;
+
+    private final AVL<T> tree = new AVL<>();
+    private final StampedLock lock = new StampedLock();
+
+    @Override
+    public boolean insert(T data) {
+        long stamp = lock.writeLock();
+        try {
+            return tree.insert(data);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public boolean delete(T data) {
+        long stamp = lock.writeLock();
+        try {
+            return tree.delete(data);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    // A batch is applied atomically under one write lock
+    @Override
+    public int insertAll(T[] keys) {
+        long stamp = lock.writeLock();
+        try {
+            return tree.insertAll(keys);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public int deleteAll(T[] keys) {
+        long stamp = lock.writeLock();
+        try {
+            return tree.deleteAll(keys);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    // Each key is its own optimistic lookup: a finger kept across lookups
+    // could not be validated piecemeal, and a batch-wide stamp would rarely
+    // survive concurrent writes
+    @Override
+    public BitSet searchAll(T[] keys) {
+        BitSet found = new BitSet(keys.length);
+        for (int i = 0; i < keys.length; i++) {
+            if (search(keys[i])) found.set(i);
+        }
+        return found;
+    }
+
+    @Override
+    public boolean search(T data) {
+        return get(data) != null;
+    }
+
+    @Override
+    public T get(T data) {
+        if (data == null) {
+            return null;
+        }
+        return read(root -> {
+            AVLNode<T> node = find(root, data);
+            return node == null ? null : node.data;
+        });
+    }
+
+    @Override
+    public int getSize() {
+        return read(root -> tree.getSize());
+    }
+
+    @Override
+    public int getHeight() {
+        return read(root -> root == null ? 0 : root.height);
+    }
+
+    @Override
+    public int rank(T data) {
+        if (data == null) {
+            return 0;
+        }
+        return read(root -> {
+            int rank = 0;
+            AVLNode<T> current = root;
+            for (int depth = 0; current != null && depth < MAX_DEPTH; depth++) {
+                int cmp = data.compareTo(current.data);
+                if (cmp == 0) {
+                    return rank + sizeOf(current.left);
+                }
+                if (cmp > 0) {
+                    rank += sizeOf(current.left) + 1;
+                    current = current.right;
+                } else {
+                    current = current.left;
+                }
+            }
+            return rank;
+        });
+    }
+
+    @Override
+    public T select(int index) {
+        return read(root -> {
+            if (index < 0 || index >= sizeOf(root)) {
+                return null;
+            }
+            int remaining = index;
+            AVLNode<T> current = root;
+            for (int depth = 0; current != null && depth < MAX_DEPTH; depth++) {
+                int leftSize = sizeOf(current.left);
+                if (remaining == leftSize) {
+                    return current.data;
+                }
+                if (remaining < leftSize) {
+                    current = current.left;
+                } else {
+                    remaining -= leftSize + 1;
+                    current = current.right;
+                }
+            }
+            return null;
+        });
+    }
+
+    @Override
+    public T first() {
+        return read(root -> edge(root, true));
+    }
+
+    @Override
+    public T last() {
+        return read(root -> edge(root, false));
+    }
+
+    @Override
+    public T floor(T data) {
+        return closest(data, true, true);
+    }
+
+    @Override
+    public T ceiling(T data) {
+        return closest(data, false, true);
+    }
+
+    @Override
+    public T lower(T data) {
+        return closest(data, true, false);
+    }
+
+    @Override
+    public T higher(T data) {
+        return closest(data, false, false);
+    }
+
+    // Weakly consistent: every step is its own O(log n) lookup of the next
+    // key, so iteration holds no lock and sees writes made while it runs
+    @Override
+    public Iterator<T> iterator(T from, T to) {
+        T start = from == null ? first() : ceiling(from);
+        return new SteppingIterator(start, to, false);
+    }
+
+    @Override
+    public Iterator<T> descendingIterator(T from, T to) {
+        T start = to == null ? last() : lower(to);
+        return new SteppingIterator(start, from, true);
+    }
+
+    // Not safe to traverse while writers are active; use the tree methods
+    @Override
+    public AVLNode<T> getRoot() {
+        return tree.getRoot();
+    }
+
+    @Override
+    public void prettyPrint() {
+        long stamp = lock.readLock();
+        try {
+            tree.prettyPrint();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    // Runs a bounded, side-effect free read against the root under
+    // optimistic stamps until one validates
+    private <R> R read(Function<AVLNode<T>, R> reader) {
+        for (int attempt = 1; ; attempt++) {
+            long stamp = lock.tryOptimisticRead();
+            if (stamp != 0) {
+                R result = reader.apply(tree.getRoot());
+                if (lock.validate(stamp)) {
+                    return result;
+                }
+            }
+            if (attempt % YIELD_ATTEMPTS == 0) {
+                Thread.yield();
+            } else {
+                Thread.onSpinWait();
+            }
+        }
+    }
+
+    private AVLNode<T> find(AVLNode<T> node, T data) {
+        for (int depth = 0; node != null && depth < MAX_DEPTH; depth++) {
+            int cmp = data.compareTo(node.data);
+            if (cmp == 0) {
+                return node;
+            }
+            node = cmp < 0 ? node.left : node.right;
+        }
+        return null;
+    }
+
+    private T edge(AVLNode<T> node, boolean leftmost) {
+        if (node == null) {
+            return null;
+        }
+        for (int depth = 0; depth < MAX_DEPTH; depth++) {
+            AVLNode<T> next = leftmost ? node.left : node.right;
+            if (next == null) {
+                break;
+            }
+            node = next;
+        }
+        return node.data;
+    }
+
+    private T closest(T data, boolean below, boolean inclusive) {
+        if (data == null) {
+            return null;
+        }
+        return read(root -> {
+            AVLNode<T> current = root;
+            T best = null;
+            for (int depth = 0; current != null && depth < MAX_DEPTH; depth++) {
+                int cmp = data.compareTo(current.data);
+                if (cmp == 0 && inclusive) {
+                    return current.data;
+                }
+                if (below ? cmp > 0 : cmp < 0) {
+                    best = current.data;
+                    current = below ? current.right : current.left;
+                } else {
+                    current = below ? current.left : current.right;
+                }
+            }
+            return best;
+        });
+    }
+
+    private static int sizeOf(AVLNode<?> node) {
+        return node == null ? 0 : node.size;
+    }
+
+    private class SteppingIterator implements Iterator<T> {
+        private T next;
+        private final T bound;
+        private final boolean descending;
+
+        SteppingIterator(T start, T bound, boolean descending) {
+            this.bound = bound;
+            this.descending = descending;
+            this.next = inRange(start) ? start : null;
+        }
+
+        private boolean inRange(T key) {
+            if (key == null || bound == null) {
+                return key != null;
+            }
+            int cmp = key.compareTo(bound);
+            return descending ? cmp >= 0 : cmp < 0;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public T next() {
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+            T current = next;
+            T following = descending ? lower(current) : higher(current);
+            next = inRange(following) ? following : null;
+            return current;
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package org.example;
+
+// Bloom filter with 4-bit counters instead of bits, so keys can be removed
+// again. Used by FilteredTree, which passes each key as a 32-bit hash. A key
+// sets (increments) k counters chosen by double hashing of that hash;
+// mightContain is false only if one of them is zero, so there are no false
+// negatives as long as every removed key was added before. A counter that
+// reaches 15 sticks there and is never decremented, which can only cost
+// false positives.
+final class CountingBloomFilter {
+    private static final int MAX = 15;
+
+    private final long[] counters; // 16 counters per long
+    private final int size;
+    private final int hashes;
+
+    // Sized for expected keys at the given false positive rate:
+    // m = -n ln p / (ln 2)^2 counters and k = (m / n) ln 2 hashes
+    CountingBloomFilter(int expected, double falsePositiveRate) {
+        double m = Math.ceil(-Math.max(expected, 1) * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        this.size = (int) Math.min(m, Integer.MAX_VALUE - 64);
+        this.hashes = Math.max(1, (int) Math.round(size / (double) Math.max(expected, 1) * Math.log(2)));
+        this.counters = new long[(size + 15) >>> 4];
+    }
+
+    void add(int keyHash) {
+        long hash = mix(keyHash);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+        for (int i = 0; i < hashes; i++) {
+            int slot = slot(h1 + i * h2);
+            int count = get(slot);
+            if (count < MAX) set(slot, count + 1);
+        }
+    }
+
+    void remove(int keyHash) {
+        long hash = mix(keyHash);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+        for (int i = 0; i < hashes; i++) {
+            int slot = slot(h1 + i * h2);
+            int count = get(slot);
+            if (count > 0 && count < MAX) set(slot, count - 1);
+        }
+    }
+
+    boolean mightContain(int keyHash) {
+        long hash = mix(keyHash);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+        for (int i = 0; i < hashes; i++) {
+            if (get(slot(h1 + i * h2)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    long bytes() {
+        return (long) counters.length * Long.BYTES;
+    }
+
+    int hashCount() {
+        return hashes;
+    }
+
+    // Maps a 32-bit hash onto [0, size) without a division
+    private int slot(int hash) {
+        return (int) (((hash & 0xFFFFFFFFL) * size) >>> 32);
+    }
+
+    private int get(int slot) {
+        return (int) (counters[slot >>> 4] >>> ((slot & 15) << 2)) & 0xF;
+    }
+
+    private void set(int slot, int count) {
+        int shift = (slot & 15) << 2;
+        counters[slot >>> 4] = counters[slot >>> 4] & ~(0xFL << shift) | (long) count << shift;
+    }
+
+    // Spreads the key hash over 64 bits (the murmur3 finalizer), since the two
+    // halves serve as independent hashes
+    private static long mix(int keyHash) {
+        long h = keyHash;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,23 @@
+package org.example;
+
+// Finger for temporally local lookups, from AVL.cursor() or
+// RedBlack.cursor(). A cursor remembers the node its last lookup ended at and
+// starts the next one from there, going up only until the subtree can hold
+// the key and then down again: O(log d) for a key d positions away instead
+// of O(log n) from the root.
+//
+// Any structural change of the tree (insert, delete, bulk operations)
+// drops the finger, so the first lookup after it starts from the root. A
+// cursor is not thread-safe.
+public interface Cursor<T> {
+    // Returns the stored element equal to key, or null if there is none
+    T get(T key);
+
+    default boolean search(T key) {
+        return get(key) != null;
+    }
+
+    // Key of the node the last lookup ended at (the match, or the last node
+    // compared), or null if there is no lookup since the last change
+    T current();
+}
@@ -0,0 +1,272 @@
+package org.example;
+
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.function.ToIntFunction;
+
+// Tree decorator that keeps a counting Bloom filter of the keys, so search
+// and get answer a key the filter rules out without descending the tree. Only
+// false positives (at about the configured rate) still pay for a descent.
+//
+// The filter is sized for twice the keys present when it is built, and it is
+// rebuilt from the tree, at twice the new size, once the tree outgrows that.
+// Batch updates cannot tell which of their keys the tree changed, so batch
+// inserts add every key and batch deletes remove none. The keys this may have
+// over-counted are tracked as stale and also trigger a rebuild once they
+// reach a quarter of the tree.
+//
+// The tree matches keys with compareTo, so the filter cannot use hashCode,
+// which may differ for keys compareTo treats as equal (BigDecimal 1.0 and
+// 1.00). The caller supplies a hasher that is consistent with compareTo;
+// Object::hashCode is fine for keys whose compareTo agrees with equals, such
+// as String or Integer.
+//
+// Every mutation must go through this decorator. Like the trees, it is not
+// thread-safe.
+public class FilteredTree<T extends Comparable<T>> implements Tree<T> {
+    private static final int MIN_CAPACITY = 1024;
+
+    private final Tree<T> tree;
+    private final ToIntFunction<? super T> hasher;
+    private final double falsePositiveRate;
+    private CountingBloomFilter filter;
+    private int capacity;
+    private int stale;
+
+    private long lookups;
+    private long avoided;
+    private long falsePositives;
+    private long rebuilds;
+
+    public FilteredTree(Tree<T> tree, ToIntFunction<? super T> hasher) {
+        this(tree, hasher, 0.01);
+    }
+
+    // Builds the filter from the keys already in tree. hasher must return
+    // the same value for any two keys whose compareTo is 0.
+    public FilteredTree(Tree<T> tree, ToIntFunction<? super T> hasher, double falsePositiveRate) {
+        if (!(falsePositiveRate > 0 && falsePositiveRate < 1)) {
+            throw new IllegalArgumentException("False positive rate must be in (0, 1): " + falsePositiveRate);
+        }
+        this.tree = tree;
+        this.hasher = hasher;
+        this.falsePositiveRate = falsePositiveRate;
+        build();
+    }
+
+    // Refills the filter from the tree, sized for twice its keys
+    private void build() {
+        capacity = Math.max(MIN_CAPACITY, 2 * tree.getSize());
+        filter = new CountingBloomFilter(capacity, falsePositiveRate);
+        for (T key : tree) {
+            filter.add(hasher.applyAsInt(key));
+        }
+        stale = 0;
+    }
+
+    private void rebuildIfNeeded() {
+        int size = tree.getSize();
+        if (size > capacity || stale > Math.max(MIN_CAPACITY, size) / 4) {
+            build();
+            rebuilds++;
+        }
+    }
+
+    @Override
+    public boolean search(T data) {
+        return get(data) != null;
+    }
+
+    @Override
+    public T get(T data) {
+        if (data == null) {
+            return null;
+        }
+        lookups++;
+        if (!filter.mightContain(hasher.applyAsInt(data))) {
+            avoided++;
+            return null;
+        }
+        T stored = tree.get(data);
+        if (stored == null) {
+            falsePositives++;
+        }
+        return stored;
+    }
+
+    @Override
+    public boolean insert(T data) {
+        if (!tree.insert(data)) {
+            return false;
+        }
+        filter.add(hasher.applyAsInt(data));
+        rebuildIfNeeded();
+        return true;
+    }
+
+    @Override
+    public boolean delete(T data) {
+        if (!tree.delete(data)) {
+            return false;
+        }
+        filter.remove(hasher.applyAsInt(data));
+        return true;
+    }
+
+    // Adding a key that was already present only raises its counters, which
+    // costs false positives but never a false negative
+    @Override
+    public int insertAll(T[] keys) {
+        int inserted = tree.insertAll(keys);
+        if (inserted > 0) {
+            for (T key : keys) {
+                if (key != null) filter.add(hasher.applyAsInt(key));
+            }
+            stale += keys.length - inserted;
+            rebuildIfNeeded();
+        }
+        return inserted;
+    }
+
+    @Override
+    public int deleteAll(T[] keys) {
+        int deleted = tree.deleteAll(keys);
+        stale += deleted;
+        rebuildIfNeeded();
+        return deleted;
+    }
+
+    // Only the keys the filter lets through are looked up in the tree
+    @Override
+    @SuppressWarnings("unchecked")
+    public BitSet searchAll(T[] keys) {
+        int[] positions = new int[keys.length];
+        T[] candidates = (T[]) new Comparable[keys.length];
+        int count = 0;
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] == null) continue;
+            lookups++;
+            if (filter.mightContain(hasher.applyAsInt(keys[i]))) {
+                positions[count] = i;
+                candidates[count++] = keys[i];
+            } else {
+                avoided++;
+            }
+        }
+        T[] probes = (T[]) new Comparable[count];
+        System.arraycopy(candidates, 0, probes, 0, count);
+        BitSet candidateHits = tree.searchAll(probes);
+        BitSet found = new BitSet(keys.length);
+        for (int i = candidateHits.nextSetBit(0); i >= 0; i = candidateHits.nextSetBit(i + 1)) {
+            found.set(positions[i]);
+        }
+        falsePositives += count - candidateHits.cardinality();
+        return found;
+    }
+
+    // Lookups answered by the filter alone, without a descent
+    public long avoidedDescents() {
+        return avoided;
+    }
+
+    // Lookups the filter let through for keys that are not in the tree
+    public long falsePositives() {
+        return falsePositives;
+    }
+
+    public long lookups() {
+        return lookups;
+    }
+
+    public long rebuilds() {
+        return rebuilds;
+    }
+
+    public void resetCounters() {
+        lookups = 0;
+        avoided = 0;
+        falsePositives = 0;
+        rebuilds = 0;
+    }
+
+    public long filterBytes() {
+        return filter.bytes();
+    }
+
+    // Everything else goes straight to the wrapped tree
+
+    @Override
+    public int getSize() {
+        return tree.getSize();
+    }
+
+    @Override
+    public int getHeight() {
+        return tree.getHeight();
+    }
+
+    @Override
+    public int rank(T data) {
+        return tree.rank(data);
+    }
+
+    @Override
+    public T select(int index) {
+        return tree.select(index);
+    }
+
+    @Override
+    public int countRange(T from, T to) {
+        return tree.countRange(from, to);
+    }
+
+    @Override
+    public T first() {
+        return tree.first();
+    }
+
+    @Override
+    public T last() {
+        return tree.last();
+    }
+
+    @Override
+    public T floor(T data) {
+        return tree.floor(data);
+    }
+
+    @Override
+    public T ceiling(T data) {
+        return tree.ceiling(data);
+    }
+
+    @Override
+    public T lower(T data) {
+        return tree.lower(data);
+    }
+
+    @Override
+    public T higher(T data) {
+        return tree.higher(data);
+    }
+
+    @Override
+    public Iterator<T> iterator(T from, T to) {
+        return tree.iterator(from, to);
+    }
+
+    @Override
+    public Iterator<T> descendingIterator(T from, T to) {
+        return tree.descendingIterator(from, to);
+    }
+
+    @Override
+    public Node<T> getRoot() {
+        return tree.getRoot();
+    }
+
+    @Override
+    public void prettyPrint() {
+        tree.prettyPrint();
+    }
+}
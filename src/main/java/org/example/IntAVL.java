@@ -0,0 +1,238 @@
+package org.example;
+
+import java.util.Arrays;
+
+// AVL tree over primitive int keys. Nodes are slots in parallel arrays
+// instead of objects: slot i holds keys[i], its children left[i]/right[i]
+// and height[i]. Slot 0 is the empty tree (NIL, height 0), so children
+// never need a null check. Deleted slots are chained through left[] into a
+// free list and reused before the arrays grow.
+public class IntAVL {
+    private static final int NIL = 0;
+
+    private int[] keys;
+    private int[] left;
+    private int[] right;
+    private byte[] height;
+
+    private int root = NIL;
+    private int size;
+    // First never-used slot and head of the free list
+    private int next = 1;
+    private int free = NIL;
+
+    public IntAVL() {
+        this(16);
+    }
+
+    public IntAVL(int initialCapacity) {
+        if (initialCapacity < 0) {
+            throw new IllegalArgumentException("Negative capacity: " + initialCapacity);
+        }
+        int slots = initialCapacity + 1;
+        keys = new int[slots];
+        left = new int[slots];
+        right = new int[slots];
+        height = new byte[slots];
+    }
+
+    public boolean insert(int key) {
+        // Grow before descending: the recursion assigns into the arrays it
+        // read on the way down, so they must not be replaced underneath it
+        if (free == NIL && next == keys.length) {
+            grow();
+        }
+        // insertRecursive only grows size when the key was absent
+        int oldSize = size;
+        root = insertRecursive(root, key);
+        return size != oldSize;
+    }
+
+    private int insertRecursive(int node, int key) {
+        if (node == NIL) {
+            size++;
+            return allocate(key);
+        }
+        if (key < keys[node]) {
+            left[node] = insertRecursive(left[node], key);
+        } else if (key > keys[node]) {
+            right[node] = insertRecursive(right[node], key);
+        } else {
+            return node;
+        }
+        return rebalance(node);
+    }
+
+    public boolean delete(int key) {
+        // deleteRecursive only shrinks size when the key was present
+        int oldSize = size;
+        root = deleteRecursive(root, key);
+        return size != oldSize;
+    }
+
+    private int deleteRecursive(int node, int key) {
+        if (node == NIL) {
+            return NIL;
+        }
+        if (key < keys[node]) {
+            left[node] = deleteRecursive(left[node], key);
+        } else if (key > keys[node]) {
+            right[node] = deleteRecursive(right[node], key);
+        } else {
+            int replacement;
+            if (left[node] == NIL) {
+                replacement = right[node];
+            } else if (right[node] == NIL) {
+                replacement = left[node];
+            } else {
+                // Relink the successor slot into this position
+                replacement = findMin(right[node]);
+                right[replacement] = deleteMin(right[node]);
+                left[replacement] = left[node];
+                replacement = rebalance(replacement);
+            }
+            release(node);
+            size--;
+            return replacement;
+        }
+        return rebalance(node);
+    }
+
+    // Unlink the minimum of the subtree without comparing keys again
+    private int deleteMin(int node) {
+        if (left[node] == NIL) {
+            return right[node];
+        }
+        left[node] = deleteMin(left[node]);
+        return rebalance(node);
+    }
+
+    private int findMin(int node) {
+        while (left[node] != NIL) {
+            node = left[node];
+        }
+        return node;
+    }
+
+    public boolean search(int key) {
+        int current = root;
+        while (current != NIL) {
+            int k = keys[current];
+            if (key == k) {
+                return true;
+            }
+            current = key < k ? left[current] : right[current];
+        }
+        return false;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public int getHeight() {
+        return height[root];
+    }
+
+    // Keys in ascending order
+    public int[] toArray() {
+        int[] result = new int[size];
+        int[] stack = new int[height[root]];
+        int depth = 0;
+        int count = 0;
+        int current = root;
+        while (current != NIL || depth > 0) {
+            while (current != NIL) {
+                stack[depth++] = current;
+                current = left[current];
+            }
+            current = stack[--depth];
+            result[count++] = keys[current];
+            current = right[current];
+        }
+        return result;
+    }
+
+    // Slots the arrays can hold before they have to grow
+    public int capacity() {
+        return keys.length - 1;
+    }
+
+    private int allocate(int key) {
+        int node;
+        if (free != NIL) {
+            node = free;
+            free = left[node];
+        } else {
+            node = next++;
+        }
+        keys[node] = key;
+        left[node] = NIL;
+        right[node] = NIL;
+        height[node] = 1;
+        return node;
+    }
+
+    private void release(int node) {
+        left[node] = free;
+        free = node;
+    }
+
+    private void grow() {
+        int capacity = Math.max(keys.length + (keys.length >> 1), keys.length + 1);
+        keys = Arrays.copyOf(keys, capacity);
+        left = Arrays.copyOf(left, capacity);
+        right = Arrays.copyOf(right, capacity);
+        height = Arrays.copyOf(height, capacity);
+    }
+
+    // Update the height of node and restore the AVL property at it
+    private int rebalance(int node) {
+        update(node);
+        int balance = getBalance(node);
+
+        // Left Left and Left Right Cases
+        if (balance > 1) {
+            if (getBalance(left[node]) < 0) {
+                left[node] = rotateLeft(left[node]);
+            }
+            return rotateRight(node);
+        }
+
+        // Right Right and Right Left Cases
+        if (balance < -1) {
+            if (getBalance(right[node]) > 0) {
+                right[node] = rotateRight(right[node]);
+            }
+            return rotateLeft(node);
+        }
+
+        return node;
+    }
+
+    private void update(int node) {
+        height[node] = (byte) (1 + Math.max(height[left[node]], height[right[node]]));
+    }
+
+    private int getBalance(int node) {
+        return height[left[node]] - height[right[node]];
+    }
+
+    private int rotateRight(int y) {
+        int x = left[y];
+        left[y] = right[x];
+        right[x] = y;
+        update(y);
+        update(x);
+        return x;
+    }
+
+    private int rotateLeft(int x) {
+        int y = right[x];
+        right[x] = left[y];
+        left[y] = x;
+        update(x);
+        update(y);
+        return y;
+    }
+}
@@ -0,0 +1,77 @@
+package org.example;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+// Binary encoding of tree keys for snapshots. The id is stored in the
+// snapshot header, so a file is only ever read back with the codec that
+// wrote it.
+public interface KeyCodec<T> {
+    byte id();
+
+    void write(DataOutput out, T key) throws IOException;
+
+    T read(DataInput in) throws IOException;
+
+    // Length-prefixed UTF-8
+    KeyCodec<String> STRING = new KeyCodec<>() {
+        @Override
+        public byte id() {
+            return 1;
+        }
+
+        @Override
+        public void write(DataOutput out, String key) throws IOException {
+            byte[] bytes = key.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+
+        @Override
+        public String read(DataInput in) throws IOException {
+            int length = in.readInt();
+            if (length < 0) {
+                throw new IOException("Negative key length: " + length);
+            }
+            byte[] bytes = new byte[length];
+            in.readFully(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    };
+
+    KeyCodec<Integer> INTEGER = new KeyCodec<>() {
+        @Override
+        public byte id() {
+            return 2;
+        }
+
+        @Override
+        public void write(DataOutput out, Integer key) throws IOException {
+            out.writeInt(key);
+        }
+
+        @Override
+        public Integer read(DataInput in) throws IOException {
+            return in.readInt();
+        }
+    };
+
+    KeyCodec<Long> LONG = new KeyCodec<>() {
+        @Override
+        public byte id() {
+            return 3;
+        }
+
+        @Override
+        public void write(DataOutput out, Long key) throws IOException {
+            out.writeLong(key);
+        }
+
+        @Override
+        public Long read(DataInput in) throws IOException {
+            return in.readLong();
+        }
+    };
+}
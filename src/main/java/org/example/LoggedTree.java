@@ -0,0 +1,282 @@
+package org.example;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+
+// Durable Tree decorator: every successful insert/delete is appended to a
+// write-ahead log (see WriteAheadLog) whose fsyncs are grouped by time and
+// size, and checkpoint() folds the log into a binary snapshot. A directory
+// holds both files:
+//   snapshot  the tree as of the last checkpoint (Snapshot format)
+//   wal       the mutations since then
+// Opening loads the snapshot with the given fromSorted builder and replays
+// the log on top. Replay is idempotent (the last logged op on a key decides
+// its membership), so a crash between writing a snapshot and clearing the
+// log is harmless.
+//
+// A crash loses at most the mutations of the last syncInterval or
+// syncBytes; call sync() to make everything so far durable.
+public class LoggedTree<T extends Comparable<T>> implements Tree<T>, Closeable {
+    private static final String SNAPSHOT = "snapshot";
+    private static final String LOG = "wal";
+
+    private final Path directory;
+    private final KeyCodec<T> codec;
+    private final Tree<T> tree;
+    private final WriteAheadLog<T> log;
+    private final ScheduledExecutorService syncer;
+    private final long replayed;
+
+    public LoggedTree(Path directory, KeyCodec<T> codec, BiFunction<Iterator<T>, Integer, ? extends Tree<T>> builder) throws IOException {
+        this(directory, codec, builder, 10, 1 << 20);
+    }
+
+    // builder rebuilds the snapshot, e.g. AVL::fromSorted or
+    // RedBlack::fromSorted. A syncIntervalMillis of 0 syncs every mutation.
+    public LoggedTree(Path directory, KeyCodec<T> codec, BiFunction<Iterator<T>, Integer, ? extends Tree<T>> builder,
+                      long syncIntervalMillis, int syncBytes) throws IOException {
+        if (syncIntervalMillis < 0 || syncBytes <= 0) {
+            throw new IllegalArgumentException("Invalid group commit settings");
+        }
+        this.directory = directory;
+        this.codec = codec;
+        Files.createDirectories(directory);
+
+        Path snapshot = directory.resolve(SNAPSHOT);
+        if (Files.exists(snapshot)) {
+            try (InputStream in = Files.newInputStream(snapshot)) {
+                this.tree = Snapshot.load(in, codec, builder::apply);
+            }
+        } else {
+            this.tree = builder.apply(Collections.emptyIterator(), 0);
+        }
+
+        this.log = new WriteAheadLog<>(directory.resolve(LOG), codec,
+                TimeUnit.MILLISECONDS.toNanos(syncIntervalMillis), syncBytes);
+        this.replayed = log.replay((op, key) -> {
+            if (op == WriteAheadLog.INSERT) tree.insert(key);
+            else tree.delete(key);
+        });
+
+        if (syncIntervalMillis > 0) {
+            // Honours the interval while no mutations arrive
+            syncer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "wal-sync " + directory);
+                thread.setDaemon(true);
+                return thread;
+            });
+            syncer.scheduleWithFixedDelay(this::syncIfDue, syncIntervalMillis, syncIntervalMillis, TimeUnit.MILLISECONDS);
+        } else {
+            syncer = null;
+        }
+    }
+
+    private void syncIfDue() {
+        try {
+            log.syncIfDue();
+        } catch (IOException e) {
+            // The next append or sync() hits the same failure and reports it
+        }
+    }
+
+    // A mutation is logged before it is applied, so the tree never holds one
+    // the log refused: if append throws, the tree is unchanged. (A record
+    // buffered before a failed group sync may still reach the log later, the
+    // usual in-doubt outcome of a failed commit; replay then applies it.)
+    @Override
+    public boolean insert(T data) {
+        if (data == null || tree.search(data)) {
+            return false;
+        }
+        log.append(WriteAheadLog.INSERT, data);
+        tree.insert(data);
+        return true;
+    }
+
+    @Override
+    public boolean delete(T data) {
+        if (data == null || !tree.search(data)) {
+            return false;
+        }
+        log.append(WriteAheadLog.DELETE, data);
+        tree.delete(data);
+        return true;
+    }
+
+    // Batches are logged and then handed to the wrapped tree's own batch
+    // operations. Only the keys that change the tree are logged, each once.
+    @Override
+    public int insertAll(T[] keys) {
+        return applyAll(keys, WriteAheadLog.INSERT);
+    }
+
+    @Override
+    public int deleteAll(T[] keys) {
+        return applyAll(keys, WriteAheadLog.DELETE);
+    }
+
+    private int applyAll(T[] keys, byte op) {
+        // Compacts the changing keys to the front of the sorted copy
+        T[] changes = Batch.sortedCopy(keys);
+        BitSet present = tree.searchAll(changes);
+        int count = 0;
+        for (int i = 0; i < changes.length; i++) {
+            boolean duplicate = count > 0 && changes[i].compareTo(changes[count - 1]) == 0;
+            if (!duplicate && present.get(i) == (op == WriteAheadLog.DELETE)) {
+                changes[count++] = changes[i];
+            }
+        }
+        int logged = 0;
+        try {
+            for (; logged < count; logged++) {
+                log.append(op, changes[logged]);
+            }
+        } finally {
+            // Apply what was logged, also when an append failed part way
+            T[] applied = Arrays.copyOf(changes, logged);
+            if (op == WriteAheadLog.INSERT) tree.insertAll(applied);
+            else tree.deleteAll(applied);
+        }
+        return count;
+    }
+
+    // Makes every mutation so far durable
+    public void sync() throws IOException {
+        log.sync();
+    }
+
+    // Writes the whole tree to the snapshot and empties the log. The log is
+    // only truncated once the snapshot and its rename are on disk, so a crash
+    // at any point leaves either the old snapshot and the full log or the new
+    // snapshot.
+    public void checkpoint() throws IOException {
+        log.sync();
+        Snapshot.save(tree, directory.resolve(SNAPSHOT), codec);
+        log.reset();
+    }
+
+    // Log records applied when the tree was opened
+    public long replayedRecords() {
+        return replayed;
+    }
+
+    // fsyncs issued so far; with group commit far fewer than mutations
+    public long syncCount() {
+        return log.syncCount();
+    }
+
+    public long logBytes() throws IOException {
+        return log.size();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (syncer != null) {
+            syncer.shutdownNow();
+        }
+        log.close();
+    }
+
+    // Reads go straight to the wrapped tree
+
+    @Override
+    public boolean search(T data) {
+        return tree.search(data);
+    }
+
+    @Override
+    public T get(T data) {
+        return tree.get(data);
+    }
+
+    @Override
+    public BitSet searchAll(T[] keys) {
+        return tree.searchAll(keys);
+    }
+
+    @Override
+    public int countRange(T from, T to) {
+        return tree.countRange(from, to);
+    }
+
+    @Override
+    public int getSize() {
+        return tree.getSize();
+    }
+
+    @Override
+    public int getHeight() {
+        return tree.getHeight();
+    }
+
+    @Override
+    public int rank(T data) {
+        return tree.rank(data);
+    }
+
+    @Override
+    public T select(int index) {
+        return tree.select(index);
+    }
+
+    @Override
+    public T first() {
+        return tree.first();
+    }
+
+    @Override
+    public T last() {
+        return tree.last();
+    }
+
+    @Override
+    public T floor(T data) {
+        return tree.floor(data);
+    }
+
+    @Override
+    public T ceiling(T data) {
+        return tree.ceiling(data);
+    }
+
+    @Override
+    public T lower(T data) {
+        return tree.lower(data);
+    }
+
+    @Override
+    public T higher(T data) {
+        return tree.higher(data);
+    }
+
+    @Override
+    public Iterator<T> iterator(T from, T to) {
+        return tree.iterator(from, to);
+    }
+
+    @Override
+    public Iterator<T> descendingIterator(T from, T to) {
+        return tree.descendingIterator(from, to);
+    }
+
+    @Override
+    public Node<T> getRoot() {
+        return tree.getRoot();
+    }
+
+    @Override
+    public void prettyPrint() {
+        tree.prettyPrint();
+    }
+}
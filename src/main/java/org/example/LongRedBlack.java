@@ -0,0 +1,375 @@
+package org.example;
+
+import java.util.Arrays;
+
+// Red-black tree over primitive long keys, stored in parallel arrays like
+// IntAVL: slot i holds keys[i], left[i], right[i], parent[i], red[i] and the
+// cached height[i]. Slot 0 is the black NIL sentinel; as in CLRS its parent
+// link is scratch space for deleteFixup. Deleted slots go to a free list.
+public class LongRedBlack {
+    private static final int NIL = 0;
+
+    private long[] keys;
+    private int[] left;
+    private int[] right;
+    private int[] parent;
+    private boolean[] red;
+    private byte[] height;
+
+    private int root = NIL;
+    private int size;
+    // First never-used slot and head of the free list
+    private int next = 1;
+    private int free = NIL;
+
+    public LongRedBlack() {
+        this(16);
+    }
+
+    public LongRedBlack(int initialCapacity) {
+        if (initialCapacity < 0) {
+            throw new IllegalArgumentException("Negative capacity: " + initialCapacity);
+        }
+        int slots = initialCapacity + 1;
+        keys = new long[slots];
+        left = new int[slots];
+        right = new int[slots];
+        parent = new int[slots];
+        red = new boolean[slots];
+        height = new byte[slots];
+    }
+
+    public boolean insert(long key) {
+        // Find the position to insert; duplicates are detected on the way down
+        int current = root;
+        int p = NIL;
+        boolean goLeft = false;
+        while (current != NIL) {
+            p = current;
+            long k = keys[current];
+            if (key == k) {
+                return false;
+            }
+            goLeft = key < k;
+            current = goLeft ? left[current] : right[current];
+        }
+
+        int z = allocate(key);
+        parent[z] = p;
+        if (p == NIL) {
+            root = z;
+        } else if (goLeft) {
+            left[p] = z;
+        } else {
+            right[p] = z;
+        }
+        updateHeights(p);
+        insertFixup(z);
+        size++;
+        return true;
+    }
+
+    private void insertFixup(int z) {
+        while (red[parent[z]]) {
+            int p = parent[z];
+            int g = parent[p];
+            if (p == left[g]) {
+                int uncle = right[g];
+                if (red[uncle]) {
+                    // Case 1: Uncle is red - recolor
+                    red[p] = false;
+                    red[uncle] = false;
+                    red[g] = true;
+                    z = g;
+                } else {
+                    // Case 2: z is right child - left rotate to make it left child
+                    if (z == right[p]) {
+                        z = p;
+                        leftRotate(z);
+                    }
+                    // Case 3: z is left child - right rotate and recolor
+                    red[parent[z]] = false;
+                    red[parent[parent[z]]] = true;
+                    rightRotate(parent[parent[z]]);
+                }
+            } else {
+                int uncle = left[g];
+                if (red[uncle]) {
+                    red[p] = false;
+                    red[uncle] = false;
+                    red[g] = true;
+                    z = g;
+                } else {
+                    if (z == left[p]) {
+                        z = p;
+                        rightRotate(z);
+                    }
+                    red[parent[z]] = false;
+                    red[parent[parent[z]]] = true;
+                    leftRotate(parent[parent[z]]);
+                }
+            }
+        }
+        red[root] = false; // Root is always black
+    }
+
+    public boolean delete(long key) {
+        int z = getNode(key);
+        if (z == NIL) {
+            return false;
+        }
+
+        int y = z;
+        int x;
+        boolean yOriginalRed = red[y];
+        if (left[z] == NIL) {
+            x = right[z];
+            transplant(z, x);
+        } else if (right[z] == NIL) {
+            x = left[z];
+            transplant(z, x);
+        } else {
+            y = getMin(right[z]);
+            yOriginalRed = red[y];
+            x = right[y];
+            if (parent[y] == z) {
+                parent[x] = y;
+            } else {
+                transplant(y, x);
+                right[y] = right[z];
+                parent[right[y]] = y;
+            }
+            transplant(z, y);
+            left[y] = left[z];
+            parent[left[y]] = y;
+            red[y] = red[z];
+        }
+        // y may have moved up into z's place, so no early exit here
+        updatePath(parent[x]);
+
+        if (!yOriginalRed) {
+            deleteFixup(x);
+        }
+        release(z);
+        size--;
+        return true;
+    }
+
+    private void deleteFixup(int x) {
+        while (x != root && !red[x]) {
+            int p = parent[x];
+            if (x == left[p]) {
+                int w = right[p];
+                // Case 1: w is red
+                if (red[w]) {
+                    red[w] = false;
+                    red[p] = true;
+                    leftRotate(p);
+                    w = right[p];
+                }
+                // Case 2: w is black and both children are black
+                if (!red[left[w]] && !red[right[w]]) {
+                    red[w] = true;
+                    x = p;
+                } else {
+                    // Case 3: w is black, w.right is black, w.left is red
+                    if (!red[right[w]]) {
+                        red[left[w]] = false;
+                        red[w] = true;
+                        rightRotate(w);
+                        w = right[p];
+                    }
+                    // Case 4: w is black, w.right is red
+                    red[w] = red[p];
+                    red[p] = false;
+                    red[right[w]] = false;
+                    leftRotate(p);
+                    x = root;
+                }
+            } else {
+                int w = left[p];
+                if (red[w]) {
+                    red[w] = false;
+                    red[p] = true;
+                    rightRotate(p);
+                    w = left[p];
+                }
+                if (!red[left[w]] && !red[right[w]]) {
+                    red[w] = true;
+                    x = p;
+                } else {
+                    if (!red[left[w]]) {
+                        red[right[w]] = false;
+                        red[w] = true;
+                        leftRotate(w);
+                        w = left[p];
+                    }
+                    red[w] = red[p];
+                    red[p] = false;
+                    red[left[w]] = false;
+                    rightRotate(p);
+                    x = root;
+                }
+            }
+        }
+        red[x] = false;
+    }
+
+    private void transplant(int u, int v) {
+        int p = parent[u];
+        if (p == NIL) {
+            root = v;
+        } else if (u == left[p]) {
+            left[p] = v;
+        } else {
+            right[p] = v;
+        }
+        parent[v] = p;
+    }
+
+    private int getMin(int node) {
+        while (left[node] != NIL) {
+            node = left[node];
+        }
+        return node;
+    }
+
+    public boolean search(long key) {
+        return getNode(key) != NIL;
+    }
+
+    private int getNode(long key) {
+        int current = root;
+        while (current != NIL) {
+            long k = keys[current];
+            if (key == k) {
+                return current;
+            }
+            current = key < k ? left[current] : right[current];
+        }
+        return NIL;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public int getHeight() {
+        return height[root];
+    }
+
+    // Keys in ascending order
+    public long[] toArray() {
+        long[] result = new long[size];
+        int count = 0;
+        int current = root == NIL ? NIL : getMin(root);
+        while (current != NIL) {
+            result[count++] = keys[current];
+            current = successor(current);
+        }
+        return result;
+    }
+
+    // Slots the arrays can hold before they have to grow
+    public int capacity() {
+        return keys.length - 1;
+    }
+
+    private int successor(int node) {
+        if (right[node] != NIL) {
+            return getMin(right[node]);
+        }
+        int p = parent[node];
+        while (p != NIL && node == right[p]) {
+            node = p;
+            p = parent[p];
+        }
+        return p;
+    }
+
+    private int allocate(long key) {
+        int node;
+        if (free != NIL) {
+            node = free;
+            free = left[node];
+        } else {
+            if (next == keys.length) {
+                grow();
+            }
+            node = next++;
+        }
+        keys[node] = key;
+        left[node] = NIL;
+        right[node] = NIL;
+        red[node] = true;
+        height[node] = 1;
+        return node;
+    }
+
+    private void release(int node) {
+        left[node] = free;
+        free = node;
+    }
+
+    private void grow() {
+        int capacity = Math.max(keys.length + (keys.length >> 1), keys.length + 1);
+        keys = Arrays.copyOf(keys, capacity);
+        left = Arrays.copyOf(left, capacity);
+        right = Arrays.copyOf(right, capacity);
+        parent = Arrays.copyOf(parent, capacity);
+        red = Arrays.copyOf(red, capacity);
+        height = Arrays.copyOf(height, capacity);
+    }
+
+    private void leftRotate(int x) {
+        int y = right[x];
+        right[x] = left[y];
+        if (left[y] != NIL) {
+            parent[left[y]] = x;
+        }
+        transplant(x, y);
+        left[y] = x;
+        parent[x] = y;
+        update(x);
+        update(y);
+        updateHeights(parent[y]);
+    }
+
+    private void rightRotate(int y) {
+        int x = left[y];
+        left[y] = right[x];
+        if (right[x] != NIL) {
+            parent[right[x]] = y;
+        }
+        transplant(y, x);
+        right[x] = y;
+        parent[y] = x;
+        update(y);
+        update(x);
+        updateHeights(parent[x]);
+    }
+
+    private void update(int node) {
+        height[node] = (byte) (1 + Math.max(height[left[node]], height[right[node]]));
+    }
+
+    private void updatePath(int node) {
+        while (node != NIL) {
+            update(node);
+            node = parent[node];
+        }
+    }
+
+    // Recompute heights from node up to the root, stopping at the first
+    // node whose height did not change
+    private void updateHeights(int node) {
+        while (node != NIL) {
+            int h = 1 + Math.max(height[left[node]], height[right[node]]);
+            if (h == height[node]) {
+                return;
+            }
+            height[node] = (byte) h;
+            node = parent[node];
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package org.example;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+// File-backed AVL tree of Strings; see MappedTree for the file format and
+// the commit protocol. The algorithm is AVL's, written against node offsets:
+// a node is only changed after own() has copied it out of the published tree.
+public class MappedAVL extends MappedTree {
+    private static final byte KIND = 1;
+
+    // Opens the tree stored at path, or creates an empty one
+    public MappedAVL(Path path) throws IOException {
+        super(path);
+    }
+
+    @Override
+    byte kind() {
+        return KIND;
+    }
+
+    @Override
+    MappedTree create(Path path) throws IOException {
+        return new MappedAVL(path);
+    }
+
+    @Override
+    public boolean insert(String data) {
+        if (data == null) {
+            return false;
+        }
+        beginMutation();
+        // insertRecursive returns the same root when the key was present
+        long newRoot = insertRecursive(root, data);
+        if (newRoot == root) {
+            return false;
+        }
+        size++;
+        finishMutation(newRoot);
+        return true;
+    }
+
+    private long insertRecursive(long node, String data) {
+        if (node == NIL) {
+            return newNode(writeKey(data), false);
+        }
+        int cmp = compare(data, node);
+        if (cmp == 0) {
+            return node;
+        }
+        long child = cmp < 0 ? left(node) : right(node);
+        long newChild = insertRecursive(child, data);
+        if (newChild == child) {
+            return node;
+        }
+        node = own(node);
+        if (cmp < 0) {
+            setLeft(node, newChild);
+        } else {
+            setRight(node, newChild);
+        }
+        return rebalance(node);
+    }
+
+    @Override
+    public boolean delete(String data) {
+        if (data == null || root == NIL) {
+            return false;
+        }
+        beginMutation();
+        // deleteRecursive returns the same root when the key was absent
+        long newRoot = deleteRecursive(root, data);
+        if (newRoot == root) {
+            return false;
+        }
+        size--;
+        finishMutation(newRoot);
+        return true;
+    }
+
+    private long deleteRecursive(long node, String data) {
+        if (node == NIL) {
+            return NIL;
+        }
+        int cmp = compare(data, node);
+        if (cmp != 0) {
+            long child = cmp < 0 ? left(node) : right(node);
+            long newChild = deleteRecursive(child, data);
+            if (newChild == child) {
+                return node;
+            }
+            node = own(node);
+            if (cmp < 0) {
+                setLeft(node, newChild);
+            } else {
+                setRight(node, newChild);
+            }
+            return rebalance(node);
+        }
+
+        // Node with only one child or no child
+        if (left(node) == NIL) {
+            return right(node);
+        }
+        if (right(node) == NIL) {
+            return left(node);
+        }
+
+        // Move (a copy of) the successor into this position
+        long successor = own(findMin(right(node)));
+        setRight(successor, deleteMin(right(node)));
+        setLeft(successor, left(node));
+        return rebalance(successor);
+    }
+
+    // Unlink the minimum of the subtree without comparing keys again
+    private long deleteMin(long node) {
+        if (left(node) == NIL) {
+            return right(node);
+        }
+        long newLeft = deleteMin(left(node));
+        node = own(node);
+        setLeft(node, newLeft);
+        return rebalance(node);
+    }
+
+    // Update the height and size of an owned node and restore the AVL
+    // property at it
+    private long rebalance(long node) {
+        update(node);
+        int balance = getBalance(node);
+
+        // Left Left and Left Right Cases
+        if (balance > 1) {
+            if (getBalance(left(node)) < 0) {
+                setLeft(node, rotateLeft(own(left(node))));
+            }
+            return rotateRight(node);
+        }
+
+        // Right Right and Right Left Cases
+        if (balance < -1) {
+            if (getBalance(right(node)) > 0) {
+                setRight(node, rotateRight(own(right(node))));
+            }
+            return rotateLeft(node);
+        }
+
+        return node;
+    }
+
+    private int getBalance(long node) {
+        return heightOf(left(node)) - heightOf(right(node));
+    }
+
+    // Rotations take an owned node and own the child that moves up
+    private long rotateRight(long y) {
+        long x = own(left(y));
+        setLeft(y, right(x));
+        setRight(x, y);
+        update(y);
+        update(x);
+        return x;
+    }
+
+    private long rotateLeft(long x) {
+        long y = own(right(x));
+        setRight(x, left(y));
+        setLeft(y, x);
+        update(x);
+        update(y);
+        return y;
+    }
+}
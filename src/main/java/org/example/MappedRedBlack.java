@@ -0,0 +1,208 @@
+package org.example;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+// File-backed red-black tree of Strings; see MappedTree for the file format
+// and the commit protocol. Copy-on-write nodes cannot keep parent links, so
+// this is the recursive left-leaning variant (Sedgewick), whose fixups run
+// on the way back up the search path. Like RedBlack it guarantees a height
+// of at most 2 log2(n + 1).
+public class MappedRedBlack extends MappedTree {
+    private static final byte KIND = 2;
+
+    // Opens the tree stored at path, or creates an empty one
+    public MappedRedBlack(Path path) throws IOException {
+        super(path);
+    }
+
+    @Override
+    byte kind() {
+        return KIND;
+    }
+
+    @Override
+    MappedTree create(Path path) throws IOException {
+        return new MappedRedBlack(path);
+    }
+
+    @Override
+    public boolean insert(String data) {
+        if (data == null) {
+            return false;
+        }
+        beginMutation();
+        // insertRecursive returns the same root when the key was present
+        long newRoot = insertRecursive(root, data);
+        if (newRoot == root) {
+            return false;
+        }
+        if (isRed(newRoot)) {
+            newRoot = own(newRoot);
+            setRed(newRoot, false); // Root is always black
+        }
+        size++;
+        finishMutation(newRoot);
+        return true;
+    }
+
+    private long insertRecursive(long node, String data) {
+        if (node == NIL) {
+            return newNode(writeKey(data), true);
+        }
+        int cmp = compare(data, node);
+        if (cmp == 0) {
+            return node;
+        }
+        long child = cmp < 0 ? left(node) : right(node);
+        long newChild = insertRecursive(child, data);
+        if (newChild == child) {
+            return node;
+        }
+        node = own(node);
+        if (cmp < 0) {
+            setLeft(node, newChild);
+        } else {
+            setRight(node, newChild);
+        }
+        return balance(node);
+    }
+
+    @Override
+    public boolean delete(String data) {
+        // The top-down fixups below reshape the path before knowing whether
+        // the key is there, so absent keys are filtered out first
+        if (!search(data)) {
+            return false;
+        }
+        beginMutation();
+        long node = root;
+        if (!isRed(left(node)) && !isRed(right(node))) {
+            node = own(node);
+            setRed(node, true);
+        }
+        long newRoot = deleteRecursive(node, data);
+        if (isRed(newRoot)) {
+            newRoot = own(newRoot);
+            setRed(newRoot, false);
+        }
+        size--;
+        finishMutation(newRoot);
+        return true;
+    }
+
+    // Deletes data, which is in the subtree, keeping a red link on the way
+    // down so the removed node is never a black leaf
+    private long deleteRecursive(long node, String data) {
+        node = own(node);
+        if (compare(data, node) < 0) {
+            if (!isRed(left(node)) && !isRed(left(left(node)))) {
+                node = moveRedLeft(node);
+            }
+            setLeft(node, deleteRecursive(left(node), data));
+        } else {
+            if (isRed(left(node))) {
+                node = rotateRight(node);
+            }
+            if (compare(data, node) == 0 && right(node) == NIL) {
+                return NIL;
+            }
+            if (!isRed(right(node)) && !isRed(left(right(node)))) {
+                node = moveRedRight(node);
+            }
+            if (compare(data, node) == 0) {
+                // Move (a copy of) the successor into this position
+                long successor = own(findMin(right(node)));
+                setRight(successor, deleteMin(right(node)));
+                setLeft(successor, left(node));
+                setRed(successor, isRed(node));
+                node = successor;
+            } else {
+                setRight(node, deleteRecursive(right(node), data));
+            }
+        }
+        return balance(node);
+    }
+
+    private long deleteMin(long node) {
+        if (left(node) == NIL) {
+            return NIL;
+        }
+        node = own(node);
+        if (!isRed(left(node)) && !isRed(left(left(node)))) {
+            node = moveRedLeft(node);
+        }
+        setLeft(node, deleteMin(left(node)));
+        return balance(node);
+    }
+
+    // Restore the left-leaning invariants at an owned node on the way up
+    private long balance(long node) {
+        if (isRed(right(node)) && !isRed(left(node))) {
+            node = rotateLeft(node);
+        }
+        if (isRed(left(node)) && isRed(left(left(node)))) {
+            node = rotateRight(node);
+        }
+        if (isRed(left(node)) && isRed(right(node))) {
+            flipColors(node);
+        }
+        update(node);
+        return node;
+    }
+
+    // Make the left child or one of its children red, borrowing from the
+    // right sibling
+    private long moveRedLeft(long node) {
+        flipColors(node);
+        if (isRed(left(right(node)))) {
+            setRight(node, rotateRight(own(right(node))));
+            node = rotateLeft(node);
+            flipColors(node);
+        }
+        return node;
+    }
+
+    private long moveRedRight(long node) {
+        flipColors(node);
+        if (isRed(left(left(node)))) {
+            node = rotateRight(node);
+            flipColors(node);
+        }
+        return node;
+    }
+
+    private void flipColors(long node) {
+        long left = own(left(node));
+        long right = own(right(node));
+        setLeft(node, left);
+        setRight(node, right);
+        setRed(node, !isRed(node));
+        setRed(left, !isRed(left));
+        setRed(right, !isRed(right));
+    }
+
+    // Rotations take an owned node and own the child that moves up; the
+    // link between them keeps its colour
+    private long rotateRight(long y) {
+        long x = own(left(y));
+        setLeft(y, right(x));
+        setRight(x, y);
+        setRed(x, isRed(y));
+        setRed(y, true);
+        update(y);
+        update(x);
+        return x;
+    }
+
+    private long rotateLeft(long x) {
+        long y = own(right(x));
+        setRight(x, left(y));
+        setLeft(y, x);
+        setRed(y, isRed(x));
+        setRed(x, true);
+        update(x);
+        update(y);
+        return y;
+    }
+}
@@ -0,0 +1,549 @@
+package org.example;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+
+// Base of the file-backed String trees (MappedAVL, MappedRedBlack). The node
+// pool is a memory-mapped file, so reopening a tree only maps the file and
+// reads its header; nothing is rebuilt.
+//
+// The file is append-only and copy-on-write: a mutation never modifies a
+// node that is reachable from the committed root. It copies the nodes on
+// its search path (rotations included) to the end of the file, and the new
+// root only becomes current when commit() forces the appended data to disk
+// and then writes a new header. There are two header slots, written
+// alternately and protected by a CRC, so a crash leaves either the old or
+// the new header intact and the tree it names is always complete. On
+// reopen the newest valid header wins and anything appended after it is
+// overwritten.
+//
+// File layout:
+//   header slots at 0 and 64:
+//     magic | generation | root | end | size | kind | crc
+//   records from 128 on, in chunks of CHUNK bytes (never straddled):
+//     node: left, right, key (long offsets) | size | height | colour | pad
+//     key:  length (int) | UTF-16 chars, so keys compare like String
+//
+// Old versions of nodes stay in the file until compact() rewrites it.
+public abstract class MappedTree implements Tree<String>, Closeable {
+    static final long NIL = 0;
+
+    private static final long MAGIC = 0x5452454546494c45L; // "TREEFILE"
+    private static final int SLOT = 64;
+    private static final int DATA_START = 2 * SLOT;
+    private static final int CHUNK_SHIFT = 24;
+    private static final long CHUNK = 1L << CHUNK_SHIFT;
+    private static final long CHUNK_MASK = CHUNK - 1;
+
+    // Header fields
+    private static final int H_MAGIC = 0;
+    private static final int H_GENERATION = 8;
+    private static final int H_ROOT = 16;
+    private static final int H_END = 24;
+    private static final int H_SIZE = 32;
+    private static final int H_KIND = 36;
+    private static final int H_CRC = 40;
+
+    // Node fields
+    private static final int NODE = 32;
+    private static final int LEFT = 0;
+    private static final int RIGHT = 8;
+    private static final int KEY = 16;
+    private static final int SIZE = 24;
+    private static final int HEIGHT = 28;
+    private static final int COLOUR = 29;
+
+    private final Path path;
+    private FileChannel channel;
+    private MappedByteBuffer[] chunks = new MappedByteBuffer[0];
+
+    long root = NIL;
+    int size;
+    private long end = DATA_START;
+    private long generation;
+
+    // State named by the newest header
+    private long committedRoot = NIL;
+    private long committedEnd = DATA_START;
+    // Nodes at or after this offset were created by the running mutation
+    // and are not reachable from any published root yet, so they may be
+    // changed in place
+    private long mutationStart = DATA_START;
+    private boolean autoCommit = true;
+
+    MappedTree(Path path) throws IOException {
+        this.path = path;
+        open();
+    }
+
+    // Identifies the balancing scheme in the header, so a file is never
+    // reopened by the other tree
+    abstract byte kind();
+
+    abstract MappedTree create(Path path) throws IOException;
+
+    // When enabled (the default) every successful insert or delete commits.
+    // Disable it to group many mutations into one commit().
+    public void setAutoCommit(boolean autoCommit) {
+        this.autoCommit = autoCommit;
+    }
+
+    // Makes the current tree durable: appended records are forced first,
+    // then the other header slot is overwritten and forced
+    public void commit() {
+        if (root == committedRoot && end == committedEnd) {
+            return;
+        }
+        force(committedEnd, end);
+        generation++;
+        writeHeader((int) (generation & 1));
+        committedRoot = root;
+        committedEnd = end;
+    }
+
+    // Commits and closes the file; the tree cannot be used afterwards
+    @Override
+    public void close() throws IOException {
+        if (channel == null) {
+            return;
+        }
+        commit();
+        channel.close();
+        channel = null;
+        chunks = new MappedByteBuffer[0];
+    }
+
+    // Rewrites the file with only the nodes of the current tree, in the same
+    // shape, and atomically replaces the old file with it
+    public void compact() throws IOException {
+        commit();
+        Path compacted = path.resolveSibling(path.getFileName() + ".compact");
+        Files.deleteIfExists(compacted);
+        try (MappedTree target = create(compacted)) {
+            target.root = target.copy(this, root);
+            target.size = size;
+        }
+        channel.close();
+        Files.move(compacted, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        open();
+    }
+
+    // Bytes used by the file, live and dead records included
+    public long fileBytes() {
+        return end;
+    }
+
+    private void open() throws IOException {
+        if (!Files.exists(path) || Files.size(path) == 0) {
+            create();
+        }
+        channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        chunks = new MappedByteBuffer[0];
+        try {
+            // Validate before mapping, which would grow a foreign file
+            readHeader();
+            for (int chunk = 0; chunk <= (end - 1) >>> CHUNK_SHIFT; chunk++) {
+                mapChunk(chunk);
+            }
+        } catch (IOException e) {
+            channel.close();
+            channel = null;
+            throw e;
+        }
+        committedRoot = root;
+        committedEnd = end;
+        mutationStart = end;
+    }
+
+    // Writes the header of an empty tree to a temporary sibling, forces it
+    // and renames it to path, so path never exists without a valid header.
+    // An existing empty file counts as a new tree and is replaced.
+    private void create() throws IOException {
+        Path temporary = path.resolveSibling(path.getFileName() + ".new");
+        root = NIL;
+        size = 0;
+        end = DATA_START;
+        generation = 0;
+        ByteBuffer header = ByteBuffer.allocate(DATA_START);
+        fillHeader(header, 0);
+        try (FileChannel file = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            while (header.hasRemaining()) {
+                file.write(header);
+            }
+            file.force(true);
+        }
+        Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        Snapshot.forceDirectory(path.toAbsolutePath().getParent());
+    }
+
+    private void readHeader() throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(DATA_START);
+        int read;
+        do {
+            read = channel.read(header, header.position());
+        } while (read > 0 && header.hasRemaining());
+        int best = -1;
+        long bestGeneration = -1;
+        for (int slot = 0; slot < 2 && !header.hasRemaining(); slot++) {
+            int base = slot * SLOT;
+            if (header.getLong(base + H_MAGIC) != MAGIC || header.getLong(base + H_CRC) != checksum(header, base)) {
+                continue;
+            }
+            long slotGeneration = header.getLong(base + H_GENERATION);
+            if (slotGeneration > bestGeneration) {
+                best = slot;
+                bestGeneration = slotGeneration;
+            }
+        }
+        if (best < 0) {
+            throw new IOException(path + " is not a tree file or both headers are damaged");
+        }
+        int base = best * SLOT;
+        if (header.get(base + H_KIND) != kind()) {
+            throw new IOException(path + " holds a different kind of tree");
+        }
+        generation = bestGeneration;
+        root = header.getLong(base + H_ROOT);
+        end = header.getLong(base + H_END);
+        size = header.getInt(base + H_SIZE);
+    }
+
+    private void writeHeader(int slot) {
+        fillHeader(chunks[0], slot);
+        chunks[0].force(slot * SLOT, SLOT);
+    }
+
+    private void fillHeader(ByteBuffer buffer, int slot) {
+        int base = slot * SLOT;
+        buffer.putLong(base + H_MAGIC, MAGIC);
+        buffer.putLong(base + H_GENERATION, generation);
+        buffer.putLong(base + H_ROOT, root);
+        buffer.putLong(base + H_END, end);
+        buffer.putInt(base + H_SIZE, size);
+        buffer.put(base + H_KIND, kind());
+        buffer.putLong(base + H_CRC, checksum(buffer, base));
+    }
+
+    private static long checksum(ByteBuffer buffer, int base) {
+        CRC32 crc = new CRC32();
+        ByteBuffer fields = buffer.duplicate();
+        fields.position(base).limit(base + H_CRC);
+        crc.update(fields);
+        return crc.getValue();
+    }
+
+    private void force(long from, long to) {
+        for (long chunk = from >>> CHUNK_SHIFT; chunk <= (to - 1) >>> CHUNK_SHIFT && from < to; chunk++) {
+            long start = Math.max(from, chunk << CHUNK_SHIFT);
+            long stop = Math.min(to, (chunk + 1) << CHUNK_SHIFT);
+            chunks[(int) chunk].force((int) (start & CHUNK_MASK), (int) (stop - start));
+        }
+    }
+
+    private void mapChunk(int chunk) throws IOException {
+        if (chunk >= chunks.length) {
+            chunks = Arrays.copyOf(chunks, chunk + 1);
+        }
+        chunks[chunk] = channel.map(FileChannel.MapMode.READ_WRITE, (long) chunk << CHUNK_SHIFT, CHUNK);
+    }
+
+    // Reserves bytes at the end of the file; a record that would cross a
+    // chunk boundary starts at the next chunk instead
+    private long allocate(int bytes) {
+        long offset = end;
+        if ((offset & CHUNK_MASK) + bytes > CHUNK) {
+            offset = (offset | CHUNK_MASK) + 1;
+        }
+        int chunk = (int) ((offset + bytes - 1) >>> CHUNK_SHIFT);
+        if (chunk >= chunks.length) {
+            try {
+                mapChunk(chunk);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        end = offset + bytes;
+        return offset;
+    }
+
+    // Mutation bracket used by the subclasses: begin before touching nodes,
+    // finish with the new root once the tree is consistent again
+    void beginMutation() {
+        if (channel == null) {
+            throw new IllegalStateException("Tree is closed");
+        }
+        mutationStart = end;
+    }
+
+    void finishMutation(long newRoot) {
+        root = newRoot;
+        mutationStart = end;
+        if (autoCommit) {
+            commit();
+        }
+    }
+
+    // Node access
+
+    private MappedByteBuffer chunk(long offset) {
+        return chunks[(int) (offset >>> CHUNK_SHIFT)];
+    }
+
+    private static int position(long offset) {
+        return (int) (offset & CHUNK_MASK);
+    }
+
+    long left(long node) {
+        return node == NIL ? NIL : chunk(node).getLong(position(node) + LEFT);
+    }
+
+    long right(long node) {
+        return node == NIL ? NIL : chunk(node).getLong(position(node) + RIGHT);
+    }
+
+    long keyOf(long node) {
+        return chunk(node).getLong(position(node) + KEY);
+    }
+
+    int sizeOf(long node) {
+        return node == NIL ? 0 : chunk(node).getInt(position(node) + SIZE);
+    }
+
+    int heightOf(long node) {
+        return node == NIL ? 0 : chunk(node).get(position(node) + HEIGHT);
+    }
+
+    boolean isRed(long node) {
+        return node != NIL && chunk(node).get(position(node) + COLOUR) != 0;
+    }
+
+    // Setters may only be used on nodes returned by own() or newNode()
+
+    void setLeft(long node, long child) {
+        chunk(node).putLong(position(node) + LEFT, child);
+    }
+
+    void setRight(long node, long child) {
+        chunk(node).putLong(position(node) + RIGHT, child);
+    }
+
+    void setRed(long node, boolean red) {
+        chunk(node).put(position(node) + COLOUR, (byte) (red ? 1 : 0));
+    }
+
+    // Recompute height and subtree size from the children
+    void update(long node) {
+        MappedByteBuffer buffer = chunk(node);
+        int position = position(node);
+        buffer.putInt(position + SIZE, 1 + sizeOf(left(node)) + sizeOf(right(node)));
+        buffer.put(position + HEIGHT, (byte) (1 + Math.max(heightOf(left(node)), heightOf(right(node)))));
+    }
+
+    // A node the running mutation may change: node itself if it was created
+    // by this mutation, otherwise a fresh copy of it
+    long own(long node) {
+        if (node >= mutationStart) {
+            return node;
+        }
+        long copy = allocate(NODE);
+        MappedByteBuffer from = chunk(node);
+        MappedByteBuffer to = chunk(copy);
+        int source = position(node);
+        int target = position(copy);
+        for (int i = 0; i < NODE; i += Long.BYTES) {
+            to.putLong(target + i, from.getLong(source + i));
+        }
+        return copy;
+    }
+
+    long newNode(long key, boolean red) {
+        long node = allocate(NODE);
+        MappedByteBuffer buffer = chunk(node);
+        int position = position(node);
+        buffer.putLong(position + LEFT, NIL);
+        buffer.putLong(position + RIGHT, NIL);
+        buffer.putLong(position + KEY, key);
+        buffer.putInt(position + SIZE, 1);
+        buffer.put(position + HEIGHT, (byte) 1);
+        buffer.put(position + COLOUR, (byte) (red ? 1 : 0));
+        return node;
+    }
+
+    long writeKey(String key) {
+        long bytes = Integer.BYTES + 2L * key.length();
+        if (bytes > CHUNK) {
+            throw new IllegalArgumentException("Key too long: " + key.length() + " chars");
+        }
+        long offset = allocate((int) bytes);
+        MappedByteBuffer buffer = chunk(offset);
+        int position = position(offset);
+        buffer.putInt(position, key.length());
+        for (int i = 0; i < key.length(); i++) {
+            buffer.putChar(position + Integer.BYTES + 2 * i, key.charAt(i));
+        }
+        return offset;
+    }
+
+    String readKey(long key) {
+        MappedByteBuffer buffer = chunk(key);
+        int position = position(key);
+        char[] chars = new char[buffer.getInt(position)];
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = buffer.getChar(position + Integer.BYTES + 2 * i);
+        }
+        return new String(chars);
+    }
+
+    // data.compareTo(key of node), without decoding the stored key
+    int compare(String data, long node) {
+        long key = keyOf(node);
+        MappedByteBuffer buffer = chunk(key);
+        int position = position(key);
+        int length = buffer.getInt(position);
+        int common = Math.min(data.length(), length);
+        for (int i = 0; i < common; i++) {
+            int diff = data.charAt(i) - buffer.getChar(position + Integer.BYTES + 2 * i);
+            if (diff != 0) {
+                return diff;
+            }
+        }
+        return data.length() - length;
+    }
+
+    long findMin(long node) {
+        while (left(node) != NIL) {
+            node = left(node);
+        }
+        return node;
+    }
+
+    // Copies the subtree of source rooted at node into this file, post-order
+    private long copy(MappedTree source, long node) {
+        if (node == NIL) {
+            return NIL;
+        }
+        long left = copy(source, source.left(node));
+        long right = copy(source, source.right(node));
+        long copy = newNode(writeKey(source.readKey(source.keyOf(node))), source.isRed(node));
+        setLeft(copy, left);
+        setRight(copy, right);
+        update(copy);
+        return copy;
+    }
+
+    private long getNode(String data) {
+        if (data == null || channel == null) {
+            return NIL;
+        }
+        long current = root;
+        while (current != NIL) {
+            int cmp = compare(data, current);
+            if (cmp == 0) {
+                return current;
+            }
+            current = cmp < 0 ? left(current) : right(current);
+        }
+        return NIL;
+    }
+
+    @Override
+    public boolean search(String data) {
+        return getNode(data) != NIL;
+    }
+
+    @Override
+    public String get(String data) {
+        long node = getNode(data);
+        return node == NIL ? null : readKey(keyOf(node));
+    }
+
+    @Override
+    public int getSize() {
+        return size;
+    }
+
+    @Override
+    public int getHeight() {
+        return heightOf(root);
+    }
+
+    @Override
+    public int rank(String data) {
+        if (data == null) {
+            return 0;
+        }
+        int rank = 0;
+        long current = root;
+        while (current != NIL) {
+            int cmp = compare(data, current);
+            if (cmp < 0) {
+                current = left(current);
+            } else if (cmp > 0) {
+                rank += sizeOf(left(current)) + 1;
+                current = right(current);
+            } else {
+                return rank + sizeOf(left(current));
+            }
+        }
+        return rank;
+    }
+
+    @Override
+    public String select(int index) {
+        if (index < 0 || index >= size) {
+            return null;
+        }
+        long current = root;
+        while (true) {
+            int leftSize = sizeOf(left(current));
+            if (index < leftSize) {
+                current = left(current);
+            } else if (index > leftSize) {
+                index -= leftSize + 1;
+                current = right(current);
+            } else {
+                return readKey(keyOf(current));
+            }
+        }
+    }
+
+    // Node views for the shared Tree code (navigation, iterators,
+    // prettyPrint). A view reads a published node, which is never modified,
+    // so it stays valid until the tree is closed or compacted.
+    @Override
+    public Node<String> getRoot() {
+        return root == NIL ? null : new MappedNode(root);
+    }
+
+    private final class MappedNode extends Node<String> {
+        private final long node;
+
+        MappedNode(long node) {
+            super(readKey(keyOf(node)));
+            this.node = node;
+        }
+
+        @Override
+        public Node<String> getLeft() {
+            long left = left(node);
+            return left == NIL ? null : new MappedNode(left);
+        }
+
+        @Override
+        public Node<String> getRight() {
+            long right = right(node);
+            return right == NIL ? null : new MappedNode(right);
+        }
+    }
+}
@@ -1,32 +1,28 @@
 package org.example;
 
-public class Node<T> {
-    T data;
-    Node<T> left;
-    Node<T> right;
-    int height;
-    boolean color; // true for red, false for black
-    Node<T> parent;
+// Common base of the tree nodes. Each tree keeps only the links and balance
+// information it needs in its own subclass (AVLNode, RBNode), so nodes stay
+// small; the shared interface code only needs the key and the two children.
+// The key is final: trees relink nodes instead of moving keys between them,
+// which also lets lock-free readers see a fully constructed key.
+public abstract class Node<T> {
+    final T data;
 
-    public Node(T data) {
+    Node(T data) {
         this.data = data;
-        this.height = 1;
-        this.left = null;
-        this.right = null;
-        this.color = true; // new nodes are red by default
     }
-    public Node(T data, boolean color) {
-        this.data = data;
-        this.height = 1;
-        this.left = null;
-        this.right = null;
-        this.color = color; 
+
+    public T getData() {
+        return data;
     }
-    
+
+    public abstract Node<T> getLeft();
+
+    public abstract Node<T> getRight();
 
     // Optional: toString method for easier debugging
     @Override
     public String toString() {
         return data.toString();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,85 @@
+package org.example;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+// In-order iterator over the keys in [from, to), ascending or descending, for
+// trees without parent links. The pending ancestors are kept in an array stack
+// sized from the tree height, so iteration never recurses and a step
+// allocates nothing.
+class NodeIterator<T extends Comparable<T>> implements Iterator<T> {
+    private Node<T>[] stack;
+    private int depth;
+    private final T from;
+    private final T to;
+    private final boolean descending;
+
+    @SuppressWarnings("unchecked")
+    NodeIterator(Node<T> root, int height, T from, T to, boolean descending) {
+        this.stack = (Node<T>[]) new Node[Math.max(height, 1)];
+        this.from = from;
+        this.to = to;
+        this.descending = descending;
+
+        // Descend to the first key in range, stacking every node still to visit
+        Node<T> current = root;
+        while (current != null) {
+            if (descending) {
+                if (to != null && current.data.compareTo(to) >= 0) {
+                    current = current.getLeft();
+                } else {
+                    push(current);
+                    current = current.getRight();
+                }
+            } else {
+                if (from != null && current.data.compareTo(from) < 0) {
+                    current = current.getRight();
+                } else {
+                    push(current);
+                    current = current.getLeft();
+                }
+            }
+        }
+        skipOutOfRange();
+    }
+
+    @Override
+    public boolean hasNext() {
+        return depth > 0;
+    }
+
+    @Override
+    public T next() {
+        if (depth == 0) {
+            throw new NoSuchElementException();
+        }
+        Node<T> node = stack[--depth];
+        // Everything in the next subtree lies between node and the stacked
+        // ancestors, so only the far bound needs checking
+        Node<T> current = descending ? node.getLeft() : node.getRight();
+        while (current != null) {
+            push(current);
+            current = descending ? current.getRight() : current.getLeft();
+        }
+        skipOutOfRange();
+        return node.data;
+    }
+
+    // Stop once the next key passes the far end of the range
+    private void skipOutOfRange() {
+        if (depth == 0) return;
+        T next = stack[depth - 1].data;
+        if (descending ? from != null && next.compareTo(from) < 0
+                       : to != null && next.compareTo(to) >= 0) {
+            depth = 0;
+        }
+    }
+
+    private void push(Node<T> node) {
+        if (depth == stack.length) {
+            stack = Arrays.copyOf(stack, depth * 2);
+        }
+        stack[depth++] = node;
+    }
+}
@@ -0,0 +1,476 @@
+package org.example;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.util.Arrays;
+import java.util.function.LongConsumer;
+
+// Red-black tree over long keys whose nodes live off-heap, in memory
+// segments allocated from a shared Arena, so the GC never scans or copies
+// them however large the tree gets. The algorithm is LongRedBlack's (CLRS
+// with a NIL sentinel in slot 0, cached heights, free list of deleted
+// slots); only the storage differs.
+//
+// Each node is a fixed 24 byte record addressed by its slot index:
+//   key (long) | left, right, parent (int slots) | height | colour
+// Slots are spread over chunks of CHUNK_NODES records. Growing adds a chunk
+// and never moves existing records. The memory is freed by close(); every
+// method but close() throws IllegalStateException after that.
+//
+// java.lang.foreign is a preview API in Java 21: this class is compiled and
+// run with --enable-preview (see pom.xml).
+public class OffHeapRedBlack implements AutoCloseable {
+    private static final int NIL = 0;
+
+    private static final long RECORD = 24;
+    private static final long KEY = 0;
+    private static final long LEFT = 8;
+    private static final long RIGHT = 12;
+    private static final long PARENT = 16;
+    private static final long HEIGHT = 20;
+    private static final long COLOUR = 21;
+
+    // 2^16 records (1.5 MB) per chunk
+    private static final int CHUNK_SHIFT = 16;
+    private static final int CHUNK_NODES = 1 << CHUNK_SHIFT;
+    private static final int CHUNK_MASK = CHUNK_NODES - 1;
+
+    private final Arena arena = Arena.ofShared();
+    private MemorySegment[] chunks = new MemorySegment[4];
+    private int chunkCount;
+
+    private int root = NIL;
+    private int size;
+    // First never-used slot and head of the free list
+    private int next = 1;
+    private int free = NIL;
+    private boolean closed;
+
+    public OffHeapRedBlack() {
+        // Arena memory starts zeroed, which makes slot 0 a valid sentinel:
+        // black, height 0, children NIL
+        addChunk();
+    }
+
+    public boolean insert(long key) {
+        ensureOpen();
+        // Find the position to insert; duplicates are detected on the way down
+        int current = root;
+        int p = NIL;
+        boolean goLeft = false;
+        while (current != NIL) {
+            p = current;
+            long k = key(current);
+            if (key == k) {
+                return false;
+            }
+            goLeft = key < k;
+            current = goLeft ? left(current) : right(current);
+        }
+
+        int z = allocate(key);
+        setParent(z, p);
+        if (p == NIL) {
+            root = z;
+        } else if (goLeft) {
+            setLeft(p, z);
+        } else {
+            setRight(p, z);
+        }
+        updateHeights(p);
+        insertFixup(z);
+        size++;
+        return true;
+    }
+
+    private void insertFixup(int z) {
+        while (isRed(parent(z))) {
+            int p = parent(z);
+            int g = parent(p);
+            if (p == left(g)) {
+                int uncle = right(g);
+                if (isRed(uncle)) {
+                    // Case 1: Uncle is red - recolor
+                    setRed(p, false);
+                    setRed(uncle, false);
+                    setRed(g, true);
+                    z = g;
+                } else {
+                    // Case 2: z is right child - left rotate to make it left child
+                    if (z == right(p)) {
+                        z = p;
+                        leftRotate(z);
+                    }
+                    // Case 3: z is left child - right rotate and recolor
+                    setRed(parent(z), false);
+                    setRed(parent(parent(z)), true);
+                    rightRotate(parent(parent(z)));
+                }
+            } else {
+                int uncle = left(g);
+                if (isRed(uncle)) {
+                    setRed(p, false);
+                    setRed(uncle, false);
+                    setRed(g, true);
+                    z = g;
+                } else {
+                    if (z == left(p)) {
+                        z = p;
+                        rightRotate(z);
+                    }
+                    setRed(parent(z), false);
+                    setRed(parent(parent(z)), true);
+                    leftRotate(parent(parent(z)));
+                }
+            }
+        }
+        setRed(root, false); // Root is always black
+    }
+
+    public boolean delete(long key) {
+        ensureOpen();
+        int z = getNode(key);
+        if (z == NIL) {
+            return false;
+        }
+
+        int y = z;
+        int x;
+        boolean yOriginalRed = isRed(y);
+        if (left(z) == NIL) {
+            x = right(z);
+            transplant(z, x);
+        } else if (right(z) == NIL) {
+            x = left(z);
+            transplant(z, x);
+        } else {
+            y = getMin(right(z));
+            yOriginalRed = isRed(y);
+            x = right(y);
+            if (parent(y) == z) {
+                setParent(x, y);
+            } else {
+                transplant(y, x);
+                setRight(y, right(z));
+                setParent(right(y), y);
+            }
+            transplant(z, y);
+            setLeft(y, left(z));
+            setParent(left(y), y);
+            setRed(y, isRed(z));
+        }
+        // y may have moved up into z's place, so no early exit here
+        updatePath(parent(x));
+
+        if (!yOriginalRed) {
+            deleteFixup(x);
+        }
+        release(z);
+        size--;
+        return true;
+    }
+
+    private void deleteFixup(int x) {
+        while (x != root && !isRed(x)) {
+            int p = parent(x);
+            if (x == left(p)) {
+                int w = right(p);
+                // Case 1: w is red
+                if (isRed(w)) {
+                    setRed(w, false);
+                    setRed(p, true);
+                    leftRotate(p);
+                    w = right(p);
+                }
+                // Case 2: w is black and both children are black
+                if (!isRed(left(w)) && !isRed(right(w))) {
+                    setRed(w, true);
+                    x = p;
+                } else {
+                    // Case 3: w is black, w.right is black, w.left is red
+                    if (!isRed(right(w))) {
+                        setRed(left(w), false);
+                        setRed(w, true);
+                        rightRotate(w);
+                        w = right(p);
+                    }
+                    // Case 4: w is black, w.right is red
+                    setRed(w, isRed(p));
+                    setRed(p, false);
+                    setRed(right(w), false);
+                    leftRotate(p);
+                    x = root;
+                }
+            } else {
+                int w = left(p);
+                if (isRed(w)) {
+                    setRed(w, false);
+                    setRed(p, true);
+                    rightRotate(p);
+                    w = left(p);
+                }
+                if (!isRed(left(w)) && !isRed(right(w))) {
+                    setRed(w, true);
+                    x = p;
+                } else {
+                    if (!isRed(left(w))) {
+                        setRed(right(w), false);
+                        setRed(w, true);
+                        leftRotate(w);
+                        w = left(p);
+                    }
+                    setRed(w, isRed(p));
+                    setRed(p, false);
+                    setRed(left(w), false);
+                    rightRotate(p);
+                    x = root;
+                }
+            }
+        }
+        setRed(x, false);
+    }
+
+    private void transplant(int u, int v) {
+        int p = parent(u);
+        if (p == NIL) {
+            root = v;
+        } else if (u == left(p)) {
+            setLeft(p, v);
+        } else {
+            setRight(p, v);
+        }
+        setParent(v, p);
+    }
+
+    private int getMin(int node) {
+        while (left(node) != NIL) {
+            node = left(node);
+        }
+        return node;
+    }
+
+    public boolean search(long key) {
+        ensureOpen();
+        return getNode(key) != NIL;
+    }
+
+    private int getNode(long key) {
+        int current = root;
+        while (current != NIL) {
+            long k = key(current);
+            if (key == k) {
+                return current;
+            }
+            current = key < k ? left(current) : right(current);
+        }
+        return NIL;
+    }
+
+    public int getSize() {
+        ensureOpen();
+        return size;
+    }
+
+    public int getHeight() {
+        ensureOpen();
+        return height(root);
+    }
+
+    // Visits the keys in ascending order without materializing them
+    public void forEach(LongConsumer action) {
+        ensureOpen();
+        int current = root == NIL ? NIL : getMin(root);
+        while (current != NIL) {
+            action.accept(key(current));
+            current = successor(current);
+        }
+    }
+
+    // Keys in ascending order
+    public long[] toArray() {
+        ensureOpen();
+        long[] result = new long[size];
+        int[] count = {0};
+        forEach(key -> result[count[0]++] = key);
+        return result;
+    }
+
+    // Off-heap bytes reserved for nodes
+    public long reservedBytes() {
+        ensureOpen();
+        return (long) chunkCount * CHUNK_NODES * RECORD;
+    }
+
+    // Frees all off-heap memory; the tree cannot be used afterwards
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        arena.close();
+    }
+
+    private void ensureOpen() {
+        if (closed) {
+            throw new IllegalStateException("Tree is closed");
+        }
+    }
+
+    private int successor(int node) {
+        if (right(node) != NIL) {
+            return getMin(right(node));
+        }
+        int p = parent(node);
+        while (p != NIL && node == right(p)) {
+            node = p;
+            p = parent(p);
+        }
+        return p;
+    }
+
+    private int allocate(long key) {
+        int node;
+        if (free != NIL) {
+            node = free;
+            free = left(node);
+        } else {
+            if (next == Integer.MAX_VALUE) {
+                throw new IllegalStateException("Tree is full");
+            }
+            if (next >>> CHUNK_SHIFT == chunkCount) {
+                addChunk();
+            }
+            node = next++;
+        }
+        setKey(node, key);
+        setLeft(node, NIL);
+        setRight(node, NIL);
+        setRed(node, true);
+        setHeight(node, 1);
+        return node;
+    }
+
+    private void release(int node) {
+        setLeft(node, free);
+        free = node;
+    }
+
+    private void addChunk() {
+        if (chunkCount == chunks.length) {
+            chunks = Arrays.copyOf(chunks, chunks.length * 2);
+        }
+        chunks[chunkCount++] = arena.allocate(CHUNK_NODES * RECORD, Long.BYTES);
+    }
+
+    private void leftRotate(int x) {
+        int y = right(x);
+        setRight(x, left(y));
+        if (left(y) != NIL) {
+            setParent(left(y), x);
+        }
+        transplant(x, y);
+        setLeft(y, x);
+        setParent(x, y);
+        update(x);
+        update(y);
+        updateHeights(parent(y));
+    }
+
+    private void rightRotate(int y) {
+        int x = left(y);
+        setLeft(y, right(x));
+        if (right(x) != NIL) {
+            setParent(right(x), y);
+        }
+        transplant(y, x);
+        setRight(x, y);
+        setParent(y, x);
+        update(y);
+        update(x);
+        updateHeights(parent(x));
+    }
+
+    private void update(int node) {
+        setHeight(node, 1 + Math.max(height(left(node)), height(right(node))));
+    }
+
+    private void updatePath(int node) {
+        while (node != NIL) {
+            update(node);
+            node = parent(node);
+        }
+    }
+
+    // Recompute heights from node up to the root, stopping at the first
+    // node whose height did not change
+    private void updateHeights(int node) {
+        while (node != NIL) {
+            int h = 1 + Math.max(height(left(node)), height(right(node)));
+            if (h == height(node)) {
+                return;
+            }
+            setHeight(node, h);
+            node = parent(node);
+        }
+    }
+
+    // Record accessors: slot -> (chunk, byte offset)
+
+    private MemorySegment chunk(int node) {
+        return chunks[node >>> CHUNK_SHIFT];
+    }
+
+    private static long offset(int node) {
+        return (node & CHUNK_MASK) * RECORD;
+    }
+
+    private long key(int node) {
+        return chunk(node).get(ValueLayout.JAVA_LONG, offset(node) + KEY);
+    }
+
+    private void setKey(int node, long key) {
+        chunk(node).set(ValueLayout.JAVA_LONG, offset(node) + KEY, key);
+    }
+
+    private int left(int node) {
+        return chunk(node).get(ValueLayout.JAVA_INT, offset(node) + LEFT);
+    }
+
+    private void setLeft(int node, int child) {
+        chunk(node).set(ValueLayout.JAVA_INT, offset(node) + LEFT, child);
+    }
+
+    private int right(int node) {
+        return chunk(node).get(ValueLayout.JAVA_INT, offset(node) + RIGHT);
+    }
+
+    private void setRight(int node, int child) {
+        chunk(node).set(ValueLayout.JAVA_INT, offset(node) + RIGHT, child);
+    }
+
+    private int parent(int node) {
+        return chunk(node).get(ValueLayout.JAVA_INT, offset(node) + PARENT);
+    }
+
+    private void setParent(int node, int parent) {
+        chunk(node).set(ValueLayout.JAVA_INT, offset(node) + PARENT, parent);
+    }
+
+    private int height(int node) {
+        return chunk(node).get(ValueLayout.JAVA_BYTE, offset(node) + HEIGHT);
+    }
+
+    private void setHeight(int node, int height) {
+        chunk(node).set(ValueLayout.JAVA_BYTE, offset(node) + HEIGHT, (byte) height);
+    }
+
+    private boolean isRed(int node) {
+        return chunk(node).get(ValueLayout.JAVA_BYTE, offset(node) + COLOUR) != 0;
+    }
+
+    private void setRed(int node, boolean red) {
+        chunk(node).set(ValueLayout.JAVA_BYTE, offset(node) + COLOUR, (byte) (red ? 1 : 0));
+    }
+}
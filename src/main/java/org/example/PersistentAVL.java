@@ -0,0 +1,162 @@
+package org.example;
+
+// Persistent AVL tree; see PersistentTree. The algorithm is AVL's with
+// copy-on-write nodes: a node is only changed after own() has copied it out
+// of the published tree.
+public class PersistentAVL<T extends Comparable<T>> extends PersistentTree<T> {
+
+    public PersistentAVL() {
+        super(null);
+    }
+
+    private PersistentAVL(PersistentNode<T> root) {
+        super(root);
+    }
+
+    // The current version, in O(1)
+    public PersistentAVL<T> snapshot() {
+        return new PersistentAVL<>(root);
+    }
+
+    @Override
+    public synchronized boolean insert(T data) {
+        if (data == null) {
+            return false;
+        }
+        beginMutation();
+        // insertRecursive returns the same root when the key was present
+        PersistentNode<T> oldRoot = root;
+        PersistentNode<T> newRoot = insertRecursive(oldRoot, data);
+        finishMutation(newRoot);
+        return newRoot != oldRoot;
+    }
+
+    private PersistentNode<T> insertRecursive(PersistentNode<T> node, T data) {
+        if (node == null) {
+            return newNode(data, false);
+        }
+        int cmp = data.compareTo(node.data);
+        if (cmp == 0) {
+            return node;
+        }
+        PersistentNode<T> child = cmp < 0 ? node.left : node.right;
+        PersistentNode<T> newChild = insertRecursive(child, data);
+        if (newChild == child) {
+            return node;
+        }
+        node = own(node);
+        if (cmp < 0) {
+            node.left = newChild;
+        } else {
+            node.right = newChild;
+        }
+        return rebalance(node);
+    }
+
+    @Override
+    public synchronized boolean delete(T data) {
+        if (data == null || root == null) {
+            return false;
+        }
+        beginMutation();
+        // deleteRecursive returns the same root when the key was absent
+        PersistentNode<T> oldRoot = root;
+        PersistentNode<T> newRoot = deleteRecursive(oldRoot, data);
+        finishMutation(newRoot);
+        return newRoot != oldRoot;
+    }
+
+    private PersistentNode<T> deleteRecursive(PersistentNode<T> node, T data) {
+        if (node == null) {
+            return null;
+        }
+        int cmp = data.compareTo(node.data);
+        if (cmp != 0) {
+            PersistentNode<T> child = cmp < 0 ? node.left : node.right;
+            PersistentNode<T> newChild = deleteRecursive(child, data);
+            if (newChild == child) {
+                return node;
+            }
+            node = own(node);
+            if (cmp < 0) {
+                node.left = newChild;
+            } else {
+                node.right = newChild;
+            }
+            return rebalance(node);
+        }
+
+        // Node with only one child or no child
+        if (node.left == null) {
+            return node.right;
+        }
+        if (node.right == null) {
+            return node.left;
+        }
+
+        // Move (a copy of) the successor into this position
+        PersistentNode<T> successor = own(findMin(node.right));
+        successor.right = deleteMin(node.right);
+        successor.left = node.left;
+        return rebalance(successor);
+    }
+
+    // Unlink the minimum of the subtree without comparing keys again
+    private PersistentNode<T> deleteMin(PersistentNode<T> node) {
+        if (node.left == null) {
+            return node.right;
+        }
+        PersistentNode<T> newLeft = deleteMin(node.left);
+        node = own(node);
+        node.left = newLeft;
+        return rebalance(node);
+    }
+
+    // Update the height and size of an owned node and restore the AVL
+    // property at it
+    private PersistentNode<T> rebalance(PersistentNode<T> node) {
+        update(node);
+        int balance = getBalance(node);
+
+        // Left Left and Left Right Cases
+        if (balance > 1) {
+            if (getBalance(node.left) < 0) {
+                node.left = rotateLeft(own(node.left));
+            }
+            return rotateRight(node);
+        }
+
+        // Right Right and Right Left Cases
+        if (balance < -1) {
+            if (getBalance(node.right) > 0) {
+                node.right = rotateRight(own(node.right));
+            }
+            return rotateLeft(node);
+        }
+
+        return node;
+    }
+
+    private int getBalance(PersistentNode<T> node) {
+        return heightOf(node.left) - heightOf(node.right);
+    }
+
+    // Rotations take an owned node and own the child that moves up
+    private PersistentNode<T> rotateRight(PersistentNode<T> y) {
+        PersistentNode<T> x = own(y.left);
+        y.left = x.right;
+        x.right = y;
+        update(y);
+        update(x);
+        return x;
+    }
+
+    private PersistentNode<T> rotateLeft(PersistentNode<T> x) {
+        PersistentNode<T> y = own(x.right);
+        x.right = y.left;
+        y.left = x;
+        update(x);
+        update(y);
+        return y;
+    }
+}
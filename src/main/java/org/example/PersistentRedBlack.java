@@ -0,0 +1,197 @@
+package org.example;
+
+// Persistent red-black tree; see PersistentTree. Copy-on-write nodes cannot
+// keep parent links, so like MappedRedBlack this is the recursive
+// left-leaning variant (Sedgewick), whose fixups run on the way back up the
+// search path. Its height is at most 2 log2(n + 1).
+public class PersistentRedBlack<T extends Comparable<T>> extends PersistentTree<T> {
+
+    public PersistentRedBlack() {
+        super(null);
+    }
+
+    private PersistentRedBlack(PersistentNode<T> root) {
+        super(root);
+    }
+
+    // The current version, in O(1)
+    public PersistentRedBlack<T> snapshot() {
+        return new PersistentRedBlack<>(root);
+    }
+
+    @Override
+    public synchronized boolean insert(T data) {
+        if (data == null) {
+            return false;
+        }
+        beginMutation();
+        // insertRecursive returns the same root when the key was present
+        PersistentNode<T> oldRoot = root;
+        PersistentNode<T> newRoot = insertRecursive(oldRoot, data);
+        if (newRoot != oldRoot && newRoot.red) {
+            newRoot = own(newRoot);
+            newRoot.red = false; // Root is always black
+        }
+        finishMutation(newRoot);
+        return newRoot != oldRoot;
+    }
+
+    private PersistentNode<T> insertRecursive(PersistentNode<T> node, T data) {
+        if (node == null) {
+            return newNode(data, true);
+        }
+        int cmp = data.compareTo(node.data);
+        if (cmp == 0) {
+            return node;
+        }
+        PersistentNode<T> child = cmp < 0 ? node.left : node.right;
+        PersistentNode<T> newChild = insertRecursive(child, data);
+        if (newChild == child) {
+            return node;
+        }
+        node = own(node);
+        if (cmp < 0) {
+            node.left = newChild;
+        } else {
+            node.right = newChild;
+        }
+        return balance(node);
+    }
+
+    @Override
+    public synchronized boolean delete(T data) {
+        // The top-down fixups below reshape the path before knowing whether
+        // the key is there, so absent keys are filtered out first
+        if (!search(data)) {
+            return false;
+        }
+        beginMutation();
+        PersistentNode<T> node = root;
+        if (!isRed(node.left) && !isRed(node.right)) {
+            node = own(node);
+            node.red = true;
+        }
+        PersistentNode<T> newRoot = deleteRecursive(node, data);
+        if (isRed(newRoot)) {
+            newRoot = own(newRoot);
+            newRoot.red = false;
+        }
+        finishMutation(newRoot);
+        return true;
+    }
+
+    // Deletes data, which is in the subtree, keeping a red link on the way
+    // down so the removed node is never a black leaf
+    private PersistentNode<T> deleteRecursive(PersistentNode<T> node, T data) {
+        node = own(node);
+        if (data.compareTo(node.data) < 0) {
+            if (!isRed(node.left) && !isRed(node.left.left)) {
+                node = moveRedLeft(node);
+            }
+            node.left = deleteRecursive(node.left, data);
+        } else {
+            if (isRed(node.left)) {
+                node = rotateRight(node);
+            }
+            if (data.compareTo(node.data) == 0 && node.right == null) {
+                return null;
+            }
+            if (!isRed(node.right) && !isRed(node.right.left)) {
+                node = moveRedRight(node);
+            }
+            if (data.compareTo(node.data) == 0) {
+                // Move (a copy of) the successor into this position
+                PersistentNode<T> successor = own(findMin(node.right));
+                successor.right = deleteMin(node.right);
+                successor.left = node.left;
+                successor.red = node.red;
+                node = successor;
+            } else {
+                node.right = deleteRecursive(node.right, data);
+            }
+        }
+        return balance(node);
+    }
+
+    private PersistentNode<T> deleteMin(PersistentNode<T> node) {
+        if (node.left == null) {
+            return null;
+        }
+        node = own(node);
+        if (!isRed(node.left) && !isRed(node.left.left)) {
+            node = moveRedLeft(node);
+        }
+        node.left = deleteMin(node.left);
+        return balance(node);
+    }
+
+    // Restore the left-leaning invariants at an owned node on the way up
+    private PersistentNode<T> balance(PersistentNode<T> node) {
+        if (isRed(node.right) && !isRed(node.left)) {
+            node = rotateLeft(node);
+        }
+        if (isRed(node.left) && isRed(node.left.left)) {
+            node = rotateRight(node);
+        }
+        if (isRed(node.left) && isRed(node.right)) {
+            flipColors(node);
+        }
+        update(node);
+        return node;
+    }
+
+    // Make the left child or one of its children red, borrowing from the
+    // right sibling
+    private PersistentNode<T> moveRedLeft(PersistentNode<T> node) {
+        flipColors(node);
+        if (isRed(node.right.left)) {
+            node.right = rotateRight(own(node.right));
+            node = rotateLeft(node);
+            flipColors(node);
+        }
+        return node;
+    }
+
+    private PersistentNode<T> moveRedRight(PersistentNode<T> node) {
+        flipColors(node);
+        if (isRed(node.left.left)) {
+            node = rotateRight(node);
+            flipColors(node);
+        }
+        return node;
+    }
+
+    private void flipColors(PersistentNode<T> node) {
+        PersistentNode<T> left = own(node.left);
+        PersistentNode<T> right = own(node.right);
+        node.left = left;
+        node.right = right;
+        node.red = !node.red;
+        left.red = !left.red;
+        right.red = !right.red;
+    }
+
+    // Rotations take an owned node and own the child that moves up; the
+    // link between them keeps its colour
+    private PersistentNode<T> rotateRight(PersistentNode<T> y) {
+        PersistentNode<T> x = own(y.left);
+        y.left = x.right;
+        x.right = y;
+        x.red = y.red;
+        y.red = true;
+        update(y);
+        update(x);
+        return x;
+    }
+
+    private PersistentNode<T> rotateLeft(PersistentNode<T> x) {
+        PersistentNode<T> y = own(x.right);
+        x.right = y.left;
+        y.left = x;
+        y.red = x.red;
+        x.red = true;
+        update(x);
+        update(y);
+        return y;
+    }
+}
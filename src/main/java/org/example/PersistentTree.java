@@ -0,0 +1,225 @@
+package org.example;
+
+import java.util.BitSet;
+import java.util.Iterator;
+
+// Base of the persistent in-memory trees (PersistentAVL, PersistentRedBlack).
+// Published nodes are never modified: insert and delete copy the nodes on
+// their search path (rotations included), O(log n) of them, and share every
+// other node with the previous version. The new root is published with a
+// single volatile write.
+//
+// snapshot() therefore costs O(1): it is a new tree on the current root,
+// which can be read from any thread without locking and never sees later
+// changes (and can itself be changed without affecting this tree). Writers
+// to one tree are serialized; reads never block.
+//
+// Every method reads the root once, so each call sees a single version;
+// use a snapshot when several calls must agree.
+public abstract class PersistentTree<T extends Comparable<T>> implements Tree<T> {
+    volatile PersistentNode<T> root;
+
+    // Token of the running mutation: nodes carrying it are not reachable
+    // from any published root yet, so they may be changed in place
+    private Object edit;
+
+    PersistentTree(PersistentNode<T> root) {
+        this.root = root;
+    }
+
+    public static final class PersistentNode<T> extends Node<T> {
+        PersistentNode<T> left;
+        PersistentNode<T> right;
+        int size;
+        byte height;
+        boolean red;
+        private Object edit;
+
+        PersistentNode(T data, boolean red, Object edit) {
+            super(data);
+            this.size = 1;
+            this.height = 1;
+            this.red = red;
+            this.edit = edit;
+        }
+
+        @Override
+        public PersistentNode<T> getLeft() {
+            return left;
+        }
+
+        @Override
+        public PersistentNode<T> getRight() {
+            return right;
+        }
+    }
+
+    // Called by the subclasses' synchronized insert/delete around a mutation
+    void beginMutation() {
+        edit = new Object();
+    }
+
+    void finishMutation(PersistentNode<T> newRoot) {
+        edit = null;
+        root = newRoot;
+    }
+
+    PersistentNode<T> newNode(T data, boolean red) {
+        return new PersistentNode<>(data, red, edit);
+    }
+
+    // A node the running mutation may change: node itself if it was created
+    // by this mutation, otherwise a fresh copy of it
+    PersistentNode<T> own(PersistentNode<T> node) {
+        if (node.edit == edit) {
+            return node;
+        }
+        PersistentNode<T> copy = new PersistentNode<>(node.data, node.red, edit);
+        copy.left = node.left;
+        copy.right = node.right;
+        copy.size = node.size;
+        copy.height = node.height;
+        return copy;
+    }
+
+    static int sizeOf(PersistentNode<?> node) {
+        return node == null ? 0 : node.size;
+    }
+
+    static int heightOf(PersistentNode<?> node) {
+        return node == null ? 0 : node.height;
+    }
+
+    static boolean isRed(PersistentNode<?> node) {
+        return node != null && node.red;
+    }
+
+    static void update(PersistentNode<?> node) {
+        node.size = 1 + sizeOf(node.left) + sizeOf(node.right);
+        node.height = (byte) (1 + Math.max(heightOf(node.left), heightOf(node.right)));
+    }
+
+    static <T> PersistentNode<T> findMin(PersistentNode<T> node) {
+        while (node.left != null) {
+            node = node.left;
+        }
+        return node;
+    }
+
+    private PersistentNode<T> getNode(PersistentNode<T> current, T data) {
+        if (data == null) {
+            return null;
+        }
+        while (current != null) {
+            int cmp = data.compareTo(current.data);
+            if (cmp == 0) {
+                return current;
+            }
+            current = cmp < 0 ? current.left : current.right;
+        }
+        return null;
+    }
+
+    private int rank(PersistentNode<T> current, T data) {
+        if (data == null) {
+            return 0;
+        }
+        int rank = 0;
+        while (current != null) {
+            int cmp = data.compareTo(current.data);
+            if (cmp < 0) {
+                current = current.left;
+            } else if (cmp > 0) {
+                rank += sizeOf(current.left) + 1;
+                current = current.right;
+            } else {
+                return rank + sizeOf(current.left);
+            }
+        }
+        return rank;
+    }
+
+    @Override
+    public boolean search(T data) {
+        return getNode(root, data) != null;
+    }
+
+    @Override
+    public T get(T data) {
+        PersistentNode<T> node = getNode(root, data);
+        return node == null ? null : node.data;
+    }
+
+    @Override
+    public int getSize() {
+        return sizeOf(root);
+    }
+
+    @Override
+    public int getHeight() {
+        return heightOf(root);
+    }
+
+    @Override
+    public int rank(T data) {
+        return rank(root, data);
+    }
+
+    @Override
+    public T select(int index) {
+        PersistentNode<T> current = root;
+        if (index < 0 || index >= sizeOf(current)) {
+            return null;
+        }
+        while (true) {
+            int leftSize = sizeOf(current.left);
+            if (index < leftSize) {
+                current = current.left;
+            } else if (index > leftSize) {
+                index -= leftSize + 1;
+                current = current.right;
+            } else {
+                return current.data;
+            }
+        }
+    }
+
+    // The defaults below would read the root more than once
+
+    @Override
+    public int countRange(T from, T to) {
+        if (from == null || to == null || from.compareTo(to) > 0) {
+            return 0;
+        }
+        PersistentNode<T> current = root;
+        return rank(current, to) - rank(current, from) + (getNode(current, to) != null ? 1 : 0);
+    }
+
+    @Override
+    public BitSet searchAll(T[] keys) {
+        PersistentNode<T> current = root;
+        BitSet found = new BitSet(keys.length);
+        Batch.Finger<T> finger = new Batch.Finger<>(current, heightOf(current));
+        for (int i : Batch.sortedOrder(keys)) {
+            if (finger.search(keys[i])) found.set(i);
+        }
+        return found;
+    }
+
+    @Override
+    public Iterator<T> iterator(T from, T to) {
+        PersistentNode<T> current = root;
+        return new NodeIterator<>(current, heightOf(current), from, to, false);
+    }
+
+    @Override
+    public Iterator<T> descendingIterator(T from, T to) {
+        PersistentNode<T> current = root;
+        return new NodeIterator<>(current, heightOf(current), from, to, true);
+    }
+
+    @Override
+    public PersistentNode<T> getRoot() {
+        return root;
+    }
+}
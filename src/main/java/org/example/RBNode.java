@@ -0,0 +1,35 @@
+package org.example;
+
+// Red-black node: parent link and colour, plus a cached height so the tree
+// height can be read in O(1) and the subtree size for rank/select. A
+// red-black tree of 2^31 keys is at most 62 levels deep, so the height fits
+// in a byte next to the colour.
+public class RBNode<T> extends Node<T> {
+    RBNode<T> left;
+    RBNode<T> right;
+    RBNode<T> parent;
+    boolean color; // true for red, false for black
+    int size;
+    byte height;
+
+    public RBNode(T data) {
+        this(data, true); // new nodes are red by default
+    }
+
+    public RBNode(T data, boolean color) {
+        super(data);
+        this.color = color;
+        this.size = 1;
+        this.height = 1;
+    }
+
+    @Override
+    public RBNode<T> getLeft() {
+        return left;
+    }
+
+    @Override
+    public RBNode<T> getRight() {
+        return right;
+    }
+}
@@ -0,0 +1,44 @@
+package org.example;
+
+import java.util.concurrent.atomic.LongAdder;
+
+// Restructuring work done by a tree's inserts and deletes, to compare how
+// many node writes each balancing scheme costs on top of linking a key in or
+// out:
+//   rotations  single rotations (a double rotation counts as two)
+//   recolours  changes to a node's balance information: colour flips in
+//              RedBlack, height changes in AVL, rank changes in WAVL. Treap
+//              priorities never change, so a Treap only rotates.
+// Writes that leave the value unchanged are not counted. The counts are
+// LongAdders because the parallel set operations of AVL rebalance on
+// several ForkJoinPool workers at once.
+public final class RebalanceCounter {
+    private final LongAdder rotations = new LongAdder();
+    private final LongAdder recolours = new LongAdder();
+
+    void rotated() {
+        rotations.increment();
+    }
+
+    void recoloured() {
+        recolours.increment();
+    }
+
+    public long rotations() {
+        return rotations.sum();
+    }
+
+    public long recolours() {
+        return recolours.sum();
+    }
+
+    public void reset() {
+        rotations.reset();
+        recolours.reset();
+    }
+
+    @Override
+    public String toString() {
+        return "rotations=" + rotations() + ", recolours=" + recolours();
+    }
+}
@@ -1,18 +1,478 @@
 package org.example;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Iterator;
 import java.util.LinkedList;
+import java.util.NoSuchElementException;
 import java.util.Objects;
 import java.util.Queue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
 
 public class RedBlack<T extends Comparable<T>> implements Tree<T> {
-    private Node<T> root;
+    private RBNode<T> root;
     private int size;
+    // Bumped by every structural change; cursors check it before reusing
+    // their finger
+    private int modCount;
+    private final RebalanceCounter rebalances = new RebalanceCounter();
 
     public RedBlack() {
         this.root = null;
         this.size = 0;
     }
 
+    // Rotations and colour flips done by insert and delete
+    public RebalanceCounter rebalanceCounter() {
+        return rebalances;
+    }
+
+    // Builds a perfectly balanced tree in O(n). Input that is not strictly
+    // ascending is sorted and deduplicated first (nulls are dropped).
+    public static <T extends Comparable<T>> RedBlack<T> fromSorted(T[] data) {
+        T[] sorted = BulkLoad.sortedUnique(data);
+        return fromSorted(Arrays.asList(sorted).iterator(), sorted.length);
+    }
+
+    // Builds a perfectly balanced tree in O(n) from the next count elements,
+    // which must be strictly ascending; the input is consumed as a stream.
+    public static <T extends Comparable<T>> RedBlack<T> fromSorted(Iterator<T> sorted, int count) {
+        if (count < 0) {
+            throw new IllegalArgumentException("Negative count: " + count);
+        }
+        RedBlack<T> tree = new RedBlack<>();
+        tree.root = tree.build(new BulkLoad.Source<>(sorted), count, 0, BulkLoad.partialLevel(count));
+        tree.size = count;
+        return tree;
+    }
+
+    // Streams the keys in ascending order into a binary snapshot; see
+    // Snapshot for the format
+    public void save(OutputStream out, KeyCodec<T> codec) throws IOException {
+        Snapshot.save(this, out, codec);
+    }
+
+    // Replaces path atomically once the snapshot is complete
+    public void save(Path path, KeyCodec<T> codec) throws IOException {
+        Snapshot.save(this, path, codec);
+    }
+
+    // Rebuilds a saved tree in O(n) without buffering the keys
+    public static <T extends Comparable<T>> RedBlack<T> load(InputStream in, KeyCodec<T> codec) throws IOException {
+        return Snapshot.load(in, codec, RedBlack::fromSorted);
+    }
+
+    public static <T extends Comparable<T>> RedBlack<T> load(Path path, KeyCodec<T> codec) throws IOException {
+        try (InputStream in = Files.newInputStream(path)) {
+            return load(in, codec);
+        }
+    }
+
+    // Every level above the incomplete bottom one is full, so colouring the
+    // bottom level red and everything else black gives equal black heights
+    private RBNode<T> build(BulkLoad.Source<T> source, int n, int depth, int redDepth) {
+        if (n == 0) {
+            return null;
+        }
+        int leftCount = BulkLoad.leftCount(n);
+        RBNode<T> left = build(source, leftCount, depth + 1, redDepth);
+        RBNode<T> node = new RBNode<>(source.next(), depth == redDepth);
+        node.left = left;
+        node.right = build(source, n - 1 - leftCount, depth + 1, redDepth);
+        if (node.left != null) node.left.parent = node;
+        if (node.right != null) node.right.parent = node;
+        update(node);
+        return node;
+    }
+
+    // Set operations in O(m log(n/m + 1)) work using join and split, with the
+    // recursive halves run on the common ForkJoinPool. Both arguments are
+    // consumed: the result reuses their nodes and they are left empty.
+    public static <T extends Comparable<T>> RedBlack<T> union(RedBlack<T> a, RedBlack<T> b) {
+        return combine(SetOperation.UNION, a, b);
+    }
+
+    public static <T extends Comparable<T>> RedBlack<T> intersection(RedBlack<T> a, RedBlack<T> b) {
+        return combine(SetOperation.INTERSECTION, a, b);
+    }
+
+    public static <T extends Comparable<T>> RedBlack<T> difference(RedBlack<T> a, RedBlack<T> b) {
+        return combine(SetOperation.DIFFERENCE, a, b);
+    }
+
+    private static <T extends Comparable<T>> RedBlack<T> combine(SetOperation operation, RedBlack<T> a, RedBlack<T> b) {
+        RedBlack<T> result = new RedBlack<>();
+        if (a == b) {
+            // A tree combined with itself must not have its nodes reused twice
+            if (operation != SetOperation.DIFFERENCE) {
+                result.root = a.root;
+                result.size = a.size;
+            }
+        } else {
+            Subtree<T> combined = ForkJoinPool.commonPool().invoke(result.new SetTask(operation,
+                    a.root, blackHeight(a.root), b.root, blackHeight(b.root)));
+            result.setRoot(combined.root);
+            b.root = null;
+            b.size = 0;
+            b.modCount++;
+        }
+        a.root = null;
+        a.size = 0;
+        a.modCount++;
+        return result;
+    }
+
+    // Batch updates build a tree from the keys and merge it with union or
+    // difference, which shares work between neighbouring keys: O(m log(n/m + 1))
+    // for m keys instead of m separate descents
+    @Override
+    public int insertAll(T[] keys) {
+        int before = size;
+        take(union(moveOut(), fromSorted(keys)));
+        return size - before;
+    }
+
+    @Override
+    public int deleteAll(T[] keys) {
+        int before = size;
+        take(difference(moveOut(), fromSorted(keys)));
+        return before - size;
+    }
+
+    // Finger search: each key starts where the previous search ended and
+    // climbs through the parent links only until the subtree can hold the key
+    // (the node is a left child of a larger key), then descends from there
+    @Override
+    public BitSet searchAll(T[] keys) {
+        BitSet found = new BitSet(keys.length);
+        RBNode<T> finger = root;
+        if (finger == null) {
+            return found;
+        }
+        for (int i : Batch.sortedOrder(keys)) {
+            T key = keys[i];
+            while (finger.parent != null
+                    && (finger == finger.parent.right || key.compareTo(finger.parent.data) >= 0)) {
+                finger = finger.parent;
+            }
+            while (true) {
+                int cmp = key.compareTo(finger.data);
+                if (cmp == 0) {
+                    found.set(i);
+                    break;
+                }
+                RBNode<T> next = cmp < 0 ? finger.left : finger.right;
+                if (next == null) {
+                    break;
+                }
+                finger = next;
+            }
+        }
+        return found;
+    }
+
+    // Hands this tree's nodes to a new tree, leaving this one empty
+    private RedBlack<T> moveOut() {
+        RedBlack<T> tree = new RedBlack<>();
+        tree.root = root;
+        tree.size = size;
+        root = null;
+        size = 0;
+        modCount++;
+        return tree;
+    }
+
+    private void take(RedBlack<T> tree) {
+        root = tree.root;
+        size = tree.size;
+        modCount++;
+    }
+
+    // Moves every key >= key into the returned tree; this tree keeps the
+    // keys below it. O(log n).
+    public RedBlack<T> split(T key) {
+        RedBlack<T> greater = new RedBlack<>();
+        if (key == null || root == null) {
+            return greater;
+        }
+        Split<T> parts = split(root, blackHeight(root), key);
+        setRoot(parts.left);
+        if (parts.match != null) {
+            greater.setRoot(join(null, 0, parts.match, parts.right, parts.rightBlackHeight).root);
+        } else {
+            greater.setRoot(parts.right);
+        }
+        return greater;
+    }
+
+    // Appends all keys of greater, which must all be larger than the keys of
+    // this tree, and leaves greater empty. O(log n).
+    public void join(RedBlack<T> greater) {
+        if (greater == this || greater.root == null) {
+            return;
+        }
+        if (root != null && last().compareTo(greater.first()) >= 0) {
+            throw new IllegalArgumentException("Keys of the joined tree must all be greater");
+        }
+        setRoot(join2(root, blackHeight(root), greater.root, blackHeight(greater.root)).root);
+        greater.root = null;
+        greater.size = 0;
+        greater.modCount++;
+    }
+
+    // Installs a subtree produced by join/split as the whole tree
+    private void setRoot(RBNode<T> node) {
+        root = node;
+        if (root != null) {
+            root.parent = null;
+            root.color = false;
+        }
+        size = sizeOf(root);
+        modCount++;
+    }
+
+    // A detached subtree with its black height: the number of black nodes on
+    // every path from its root down to a null link. The root may be red.
+    private static final class Subtree<T> {
+        final RBNode<T> root;
+        final int blackHeight;
+
+        Subtree(RBNode<T> root, int blackHeight) {
+            this.root = root;
+            this.blackHeight = blackHeight;
+        }
+    }
+
+    // Result of splitting a subtree around a key
+    private static final class Split<T> {
+        RBNode<T> left;
+        int leftBlackHeight;
+        RBNode<T> match;
+        RBNode<T> right;
+        int rightBlackHeight;
+    }
+
+    private static int blackHeight(RBNode<?> node) {
+        int blackHeight = 0;
+        for (; node != null; node = node.left) {
+            if (!node.color) blackHeight++;
+        }
+        return blackHeight;
+    }
+
+    private static int childBlackHeight(RBNode<?> node, int blackHeight) {
+        return node.color ? blackHeight : blackHeight - 1;
+    }
+
+    private void attach(RBNode<T> node, RBNode<T> left, RBNode<T> right) {
+        node.left = left;
+        node.right = right;
+        if (left != null) left.parent = node;
+        if (right != null) right.parent = node;
+        update(node);
+    }
+
+    // Joins left < mid < right into one red-black tree: mid goes in as a red
+    // node at the black height of the lower side, on the spine of the higher
+    // side, and red-red violations are fixed on the way back up. Costs
+    // O(|blackHeight(left) - blackHeight(right)| + 1).
+    private Subtree<T> join(RBNode<T> left, int leftBlackHeight, RBNode<T> mid, RBNode<T> right, int rightBlackHeight) {
+        // Black roots keep the spine descent simple; blackening a root is
+        // always allowed and just adds one to its black height
+        if (isRed(left)) {
+            left.color = false;
+            leftBlackHeight++;
+        }
+        if (isRed(right)) {
+            right.color = false;
+            rightBlackHeight++;
+        }
+
+        RBNode<T> top;
+        int blackHeight;
+        if (leftBlackHeight > rightBlackHeight) {
+            top = joinRight(left, leftBlackHeight, mid, right, rightBlackHeight);
+            blackHeight = leftBlackHeight;
+        } else if (rightBlackHeight > leftBlackHeight) {
+            top = joinLeft(left, leftBlackHeight, mid, right, rightBlackHeight);
+            blackHeight = rightBlackHeight;
+        } else {
+            mid.color = true;
+            attach(mid, left, right);
+            top = mid;
+            blackHeight = leftBlackHeight;
+        }
+        if (isRed(top) && (isRed(top.left) || isRed(top.right))) {
+            top.color = false;
+            blackHeight++;
+        }
+        top.parent = null;
+        return new Subtree<>(top, blackHeight);
+    }
+
+    private RBNode<T> joinRight(RBNode<T> left, int leftBlackHeight, RBNode<T> mid, RBNode<T> right, int rightBlackHeight) {
+        if (!isRed(left) && leftBlackHeight == rightBlackHeight) {
+            mid.color = true;
+            attach(mid, left, right);
+            return mid;
+        }
+        RBNode<T> newRight = joinRight(left.right, childBlackHeight(left, leftBlackHeight), mid, right, rightBlackHeight);
+        attach(left, left.left, newRight);
+        if (!isRed(left) && isRed(newRight) && isRed(newRight.right)) {
+            newRight.right.color = false;
+            return rotateLeftDetached(left);
+        }
+        return left;
+    }
+
+    private RBNode<T> joinLeft(RBNode<T> left, int leftBlackHeight, RBNode<T> mid, RBNode<T> right, int rightBlackHeight) {
+        if (!isRed(right) && rightBlackHeight == leftBlackHeight) {
+            mid.color = true;
+            attach(mid, left, right);
+            return mid;
+        }
+        RBNode<T> newLeft = joinLeft(left, leftBlackHeight, mid, right.left, childBlackHeight(right, rightBlackHeight));
+        attach(right, newLeft, right.right);
+        if (!isRed(right) && isRed(newLeft) && isRed(newLeft.left)) {
+            newLeft.left.color = false;
+            return rotateRightDetached(right);
+        }
+        return right;
+    }
+
+    // Rotations on a detached subtree; the caller links the returned root
+    private RBNode<T> rotateLeftDetached(RBNode<T> x) {
+        RBNode<T> y = x.right;
+        attach(x, x.left, y.left);
+        attach(y, x, y.right);
+        return y;
+    }
+
+    private RBNode<T> rotateRightDetached(RBNode<T> y) {
+        RBNode<T> x = y.left;
+        attach(y, x.right, y.right);
+        attach(x, x.left, y);
+        return x;
+    }
+
+    // Joins left < right without a middle key
+    private Subtree<T> join2(RBNode<T> left, int leftBlackHeight, RBNode<T> right, int rightBlackHeight) {
+        if (left == null) {
+            return new Subtree<>(right, rightBlackHeight);
+        }
+        if (right == null) {
+            return new Subtree<>(left, leftBlackHeight);
+        }
+        Split<T> parts = splitLast(left, leftBlackHeight);
+        return join(parts.left, parts.leftBlackHeight, parts.match, right, rightBlackHeight);
+    }
+
+    // Splits node into the keys below key, the node holding key (if any) and
+    // the keys above it
+    private Split<T> split(RBNode<T> node, int blackHeight, T key) {
+        if (node == null) {
+            return new Split<>();
+        }
+        int childBlackHeight = childBlackHeight(node, blackHeight);
+        RBNode<T> left = node.left;
+        RBNode<T> right = node.right;
+        int cmp = key.compareTo(node.data);
+        Split<T> parts;
+        if (cmp < 0) {
+            parts = split(left, childBlackHeight, key);
+            Subtree<T> joined = join(parts.right, parts.rightBlackHeight, node, right, childBlackHeight);
+            parts.right = joined.root;
+            parts.rightBlackHeight = joined.blackHeight;
+        } else if (cmp > 0) {
+            parts = split(right, childBlackHeight, key);
+            Subtree<T> joined = join(left, childBlackHeight, node, parts.left, parts.leftBlackHeight);
+            parts.left = joined.root;
+            parts.leftBlackHeight = joined.blackHeight;
+        } else {
+            parts = new Split<>();
+            parts.left = left;
+            parts.leftBlackHeight = childBlackHeight;
+            parts.match = node;
+            parts.right = right;
+            parts.rightBlackHeight = childBlackHeight;
+        }
+        return parts;
+    }
+
+    // Detaches the maximum node (into match) from the rest (into left)
+    private Split<T> splitLast(RBNode<T> node, int blackHeight) {
+        int childBlackHeight = childBlackHeight(node, blackHeight);
+        if (node.right == null) {
+            Split<T> parts = new Split<>();
+            parts.left = node.left;
+            parts.leftBlackHeight = childBlackHeight;
+            parts.match = node;
+            return parts;
+        }
+        Split<T> parts = splitLast(node.right, childBlackHeight);
+        Subtree<T> joined = join(node.left, childBlackHeight, node, parts.left, parts.leftBlackHeight);
+        parts.left = joined.root;
+        parts.leftBlackHeight = joined.blackHeight;
+        return parts;
+    }
+
+    private Subtree<T> combineSubtrees(SetOperation operation, RBNode<T> a, int aBlackHeight, RBNode<T> b, int bBlackHeight) {
+        if (a == null) {
+            return operation.keepsSecondWhenFirstEmpty() ? new Subtree<>(b, bBlackHeight) : new Subtree<>(null, 0);
+        }
+        if (b == null) {
+            return operation.keepsFirstWhenSecondEmpty() ? new Subtree<>(a, aBlackHeight) : new Subtree<>(null, 0);
+        }
+        boolean parallel = sizeOf(a) + sizeOf(b) >= SetOperation.PARALLEL_THRESHOLD;
+        int childBlackHeight = childBlackHeight(a, aBlackHeight);
+        RBNode<T> aLeft = a.left;
+        RBNode<T> aRight = a.right;
+        Split<T> parts = split(b, bBlackHeight, a.data);
+
+        Subtree<T> left;
+        Subtree<T> right;
+        if (parallel) {
+            SetTask leftTask = new SetTask(operation, aLeft, childBlackHeight, parts.left, parts.leftBlackHeight);
+            leftTask.fork();
+            right = combineSubtrees(operation, aRight, childBlackHeight, parts.right, parts.rightBlackHeight);
+            left = leftTask.join();
+        } else {
+            left = combineSubtrees(operation, aLeft, childBlackHeight, parts.left, parts.leftBlackHeight);
+            right = combineSubtrees(operation, aRight, childBlackHeight, parts.right, parts.rightBlackHeight);
+        }
+        if (operation.keepsKey(parts.match != null)) {
+            return join(left.root, left.blackHeight, a, right.root, right.blackHeight);
+        }
+        return join2(left.root, left.blackHeight, right.root, right.blackHeight);
+    }
+
+    private final class SetTask extends RecursiveTask<Subtree<T>> {
+        private final SetOperation operation;
+        private final RBNode<T> a;
+        private final int aBlackHeight;
+        private final RBNode<T> b;
+        private final int bBlackHeight;
+
+        SetTask(SetOperation operation, RBNode<T> a, int aBlackHeight, RBNode<T> b, int bBlackHeight) {
+            this.operation = operation;
+            this.a = a;
+            this.aBlackHeight = aBlackHeight;
+            this.b = b;
+            this.bBlackHeight = bBlackHeight;
+        }
+
+        @Override
+        protected Subtree<T> compute() {
+            return combineSubtrees(operation, a, aBlackHeight, b, bBlackHeight);
+        }
+    }
+
     private static final String ANSI_BLACK = "\u001B[30m";
     private static final String ANSI_RESET = "\u001B[0m";
     private static final String ANSI_RED = "\u001B[31m";
@@ -22,78 +482,78 @@ public class RedBlack<T extends Comparable<T>> implements Tree<T> {
         return size;
     }
 
-    private boolean isRed(Node<T> node) {
+    private boolean isRed(RBNode<T> node) {
         return node != null && node.color;
     }
 
+    // Colour writes of the fixups, counted when they flip the colour
+    private void setColor(RBNode<T> node, boolean red) {
+        if (node.color != red) {
+            node.color = red;
+            rebalances.recoloured();
+        }
+    }
+
     public boolean insert(T data) {
         if (data == null) {
             return false;
         }
 
-        // Check if data already exists
-        if (search(data)) {
-            return false; // Don't insert duplicates
-        }
-
-    
-        Node<T> newNode = new Node<>(data);
-        newNode.color = true;
-        newNode.height = 1;
-
         if (root == null) {
-            root = newNode;
-            root.color = false; 
+            root = new RBNode<>(data, false);
             size++;
+            modCount++;
             return true;
         }
 
-        // Find the position to insert
-        Node<T> current = root;
-        Node<T> parent = null;
+        // Find the position to insert; duplicates are detected on the way down
+        RBNode<T> current = root;
+        RBNode<T> parent = null;
+        int cmp = 0;
 
         while (current != null) {
             parent = current;
-            int cmp = data.compareTo(current.data);
+            cmp = data.compareTo(current.data);
             if (cmp < 0) {
                 current = current.left;
             } else if (cmp > 0) {
                 current = current.right;
             } else {
-              
-                return false;
+                return false; // Don't insert duplicates
             }
         }
 
-        // Insert the new node
+        // Insert the new (red) node
+        RBNode<T> newNode = new RBNode<>(data);
         newNode.parent = parent;
-        int cmp = data.compareTo(parent.data);
         if (cmp < 0) {
             parent.left = newNode;
         } else {
             parent.right = newNode;
         }
 
+        updatePath(parent);
         insertFixup(newNode);
 
 
 
         size++;
+        modCount++;
         return true;
     }
 
-    private void insertFixup(Node<T> z) {
+    private void insertFixup(RBNode<T> z) {
         while (z.parent != null && isRed(z.parent)) {
             if (z.parent == z.parent.parent.left) {
                 // Parent is left child of grandparent
-                Node<T> uncle = z.parent.parent.right;
+                RBNode<T> uncle = z.parent.parent.right;
                 
 
                 if (uncle != null && isRed(uncle)) {
                     // Case 1: Uncle is red - recolor
-                    z.parent.color = false;
-                    uncle.color = false;
-                    z.parent.parent.color = true;
+                    setColor(z.parent, false);
+                    setColor(uncle, false);
+                    setColor(z.parent.parent, true);
                     z = z.parent.parent;
                 } else {
                     // Case 2: z is right child - left rotate to make it left child
@@ -102,19 +562,19 @@ public class RedBlack<T extends Comparable<T>> implements Tree<T> {
                         leftRotate(z);
                     }
                     // Case 3: z is left child - right rotate and recolor
-                    z.parent.color = false;
-                    z.parent.parent.color = true;
+                    setColor(z.parent, false);
+                    setColor(z.parent.parent, true);
                     rightRotate(z.parent.parent);
                 }
             } else {
                 // Parent is right child of grandparent (symmetric cases)
-                Node<T> uncle = z.parent.parent.left;
+                RBNode<T> uncle = z.parent.parent.left;
 
                 if (uncle != null && isRed(uncle)) {
                     // Case 1: Uncle is red - recolor
-                    z.parent.color = false;
-                    uncle.color = false;
-                    z.parent.parent.color = true;
+                    setColor(z.parent, false);
+                    setColor(uncle, false);
+                    setColor(z.parent.parent, true);
                     z = z.parent.parent;
                 } else {
                     // Uncle is black or null
@@ -124,17 +584,18 @@ public class RedBlack<T extends Comparable<T>> implements Tree<T> {
                         rightRotate(z);
                     }
                     // Case 3: z is right child - left rotate and recolor
-                    z.parent.color = false;
-                    z.parent.parent.color = true;
+                    setColor(z.parent, false);
+                    setColor(z.parent.parent, true);
                     leftRotate(z.parent.parent);
                 }
             }
         }
-        root.color = false; // Root is always black
+        setColor(root, false); // Root is always black
     }
 
-    private void leftRotate(Node<T> x) {
-        Node<T> y = x.right;
+    private void leftRotate(RBNode<T> x) {
+        rebalances.rotated();
+        RBNode<T> y = x.right;
 
         // Turn y's left subtree into x's right subtree
         x.right = y.left;
@@ -155,10 +616,16 @@ public class RedBlack<T extends Comparable<T>> implements Tree<T> {
         // Put x on y's left
         y.left = x;
         x.parent = y;
+
+        // Sizes only change for x and y; heights may also change above them
+        update(x);
+        update(y);
+        updateHeights(y.parent);
     }
 
-    private void rightRotate(Node<T> y) {
-        Node<T> x = y.left;
+    private void rightRotate(RBNode<T> y) {
+        rebalances.rotated();
+        RBNode<T> x = y.left;
 
         // Turn x's right subtree into y's left subtree
         y.left = x.right;
@@ -180,18 +647,59 @@ public class RedBlack<T extends Comparable<T>> implements Tree<T> {
         x.right = y;
         y.parent = x;
 
+        // Sizes only change for x and y; heights may also change above them
+        update(y);
+        update(x);
+        updateHeights(x.parent);
+    }
+
+    private static int heightOf(RBNode<?> node) {
+        return node == null ? 0 : node.height;
+    }
+
+    private static int sizeOf(RBNode<?> node) {
+        return node == null ? 0 : node.size;
+    }
+
+    // Recompute height and subtree size from the children
+    private void update(RBNode<T> node) {
+        node.height = (byte) (1 + Math.max(heightOf(node.left), heightOf(node.right)));
+        node.size = 1 + sizeOf(node.left) + sizeOf(node.right);
+    }
+
+    // Recompute height and size from node up to the root, after a node was
+    // linked in or unlinked below it
+    private void updatePath(RBNode<T> node) {
+        while (node != null) {
+            update(node);
+            node = node.parent;
+        }
+    }
+
+    // Recompute heights from node up to the root after a rotation. Everything
+    // outside this path is already correct, so the walk stops at the first
+    // unchanged node.
+    private void updateHeights(RBNode<T> node) {
+        while (node != null) {
+            int height = 1 + Math.max(heightOf(node.left), heightOf(node.right));
+            if (height == node.height) {
+                return;
+            }
+            node.height = (byte) height;
+            node = node.parent;
+        }
     }
 
     public boolean delete(T data) {
-        Node<T> z = getNode(data);
+        RBNode<T> z = getNode(data);
         if (z == null) {
 
             return false;
         }
 
-        Node<T> y = z;
-        Node<T> x;
-        Node<T> xParent = null;
+        RBNode<T> y = z;
+        RBNode<T> x;
+        RBNode<T> xParent = null;
         boolean yOriginalColor = y.color;
 
         if (z.left == null) {
@@ -218,8 +726,9 @@ public class RedBlack<T extends Comparable<T>> implements Tree<T> {
             transplant(z, y);
             y.left = z.left;
             if (y.left != null) y.left.parent = y;
-            y.color = z.color;
+            setColor(y, z.color);
         }
+        updatePath(xParent);
 
         if (!yOriginalColor) {
             deleteFixup(x, xParent);
@@ -228,81 +737,82 @@ public class RedBlack<T extends Comparable<T>> implements Tree<T> {
        
 
         size--;
+        modCount++;
         return true;
     }
 
-    private void deleteFixup(Node<T> x, Node<T> xParent) {
+    private void deleteFixup(RBNode<T> x, RBNode<T> xParent) {
         while (x != root && (x == null || !isRed(x))) {
             if (x == (xParent != null ? xParent.left : null)) {
-                Node<T> w = xParent.right;
+                RBNode<T> w = xParent.right;
 
                 // Case 1: w is red
                 if (w != null && isRed(w)) {
-                    w.color = false;
-                    xParent.color = true;
+                    setColor(w, false);
+                    setColor(xParent, true);
                     leftRotate(xParent);
                     w = xParent.right;
                 }
 
                 // Case 2: w is black and both children are black
                 if (w == null || ((w.left == null || !isRed(w.left)) && (w.right == null || !isRed(w.right)))) {
-                    if (w != null) w.color = true;
+                    if (w != null) setColor(w, true);
                     x = xParent;
                     xParent = x.parent;
                 } else {
                     // Case 3: w is black, w.right is black, w.left is red
                     if (w.right == null || !isRed(w.right)) {
-                        if (w.left != null) w.left.color = false;
-                        w.color = true;
+                        if (w.left != null) setColor(w.left, false);
+                        setColor(w, true);
                         rightRotate(w);
                         w = xParent.right;
                     }
                     // Case 4: w is black, w.right is red
-                    w.color = xParent.color;
-                    xParent.color = false;
-                    if (w.right != null) w.right.color = false;
+                    setColor(w, xParent.color);
+                    setColor(xParent, false);
+                    if (w.right != null) setColor(w.right, false);
                     leftRotate(xParent);
                     x = root;
                     break;
                 }
             } else {
-                Node<T> w = xParent.left;
+                RBNode<T> w = xParent.left;
 
                 // Case 1: w is red
                 if (w != null && isRed(w)) {
-                    w.color = false;
-                    xParent.color = true;
+                    setColor(w, false);
+                    setColor(xParent, true);
                     rightRotate(xParent);
                     w = xParent.left;
                 }
 
                 // Case 2: w is black and both children are black
                 if (w == null || ((w.left == null || !isRed(w.left)) && (w.right == null || !isRed(w.right)))) {
-                    if (w != null) w.color = true;
+                    if (w != null) setColor(w, true);
                     x = xParent;
                     xParent = x.parent;
                 } else {
                     // Case 3: w is black, w.left is black, w.right is red
                     if (w.left == null || !isRed(w.left)) {
-                        if (w.right != null) w.right.color = false;
-                        w.color = true;
+                        if (w.right != null) setColor(w.right, false);
+                        setColor(w, true);
                         leftRotate(w);
                         w = xParent.left;
                     }
                     // Case 4: w is black, w.left is red
-                    w.color = xParent.color;
-                    xParent.color = false;
-                    if (w.left != null) w.left.color = false;
+                    setColor(w, xParent.color);
+                    setColor(xParent, false);
+                    if (w.left != null) setColor(w.left, false);
                     rightRotate(xParent);
                     x = root;
                     break;
                 }
             }
         }
-        if (x != null) x.color = false;
+        if (x != null) setColor(x, false);
     }
 
-    private void transplant(Node<T> u, Node<T> v) {
+    private void transplant(RBNode<T> u, RBNode<T> v) {
         if (u.parent == null) {
             root = v;
         } else if (u == u.parent.left) {
@@ -315,45 +825,260 @@ public class RedBlack<T extends Comparable<T>> implements Tree<T> {
         }
     }
 
-    private Node<T> getMin(Node<T> node) {
+    private RBNode<T> getMin(RBNode<T> node) {
         while (node.left != null) {
             node = node.left;
         }
         return node;
     }
 
-    private int getHeight(Node<T> node) {
-        if (node == null) {
+    private RBNode<T> getMax(RBNode<T> node) {
+        while (node.right != null) {
+            node = node.right;
+        }
+        return node;
+    }
+
+    // In-order neighbours through the parent links
+    private RBNode<T> successor(RBNode<T> node) {
+        if (node.right != null) {
+            return getMin(node.right);
+        }
+        RBNode<T> parent = node.parent;
+        while (parent != null && node == parent.right) {
+            node = parent;
+            parent = parent.parent;
+        }
+        return parent;
+    }
+
+    private RBNode<T> predecessor(RBNode<T> node) {
+        if (node.left != null) {
+            return getMax(node.left);
+        }
+        RBNode<T> parent = node.parent;
+        while (parent != null && node == parent.left) {
+            node = parent;
+            parent = parent.parent;
+        }
+        return parent;
+    }
+
+    // Smallest node >= data
+    private RBNode<T> ceilingNode(T data) {
+        RBNode<T> current = root;
+        RBNode<T> best = null;
+        while (current != null) {
+            int cmp = data.compareTo(current.data);
+            if (cmp == 0) {
+                return current;
+            } else if (cmp < 0) {
+                best = current;
+                current = current.left;
+            } else {
+                current = current.right;
+            }
+        }
+        return best;
+    }
+
+    // Largest node < data
+    private RBNode<T> lowerNode(T data) {
+        RBNode<T> current = root;
+        RBNode<T> best = null;
+        while (current != null) {
+            if (data.compareTo(current.data) > 0) {
+                best = current;
+                current = current.right;
+            } else {
+                current = current.left;
+            }
+        }
+        return best;
+    }
+
+    @Override
+    public int rank(T data) {
+        if (data == null) {
             return 0;
         }
-        return node.height;
+        int rank = 0;
+        RBNode<T> current = root;
+        while (current != null) {
+            int cmp = data.compareTo(current.data);
+            if (cmp < 0) {
+                current = current.left;
+            } else if (cmp > 0) {
+                rank += sizeOf(current.left) + 1;
+                current = current.right;
+            } else {
+                return rank + sizeOf(current.left);
+            }
+        }
+        return rank;
+    }
+
+    @Override
+    public T select(int index) {
+        if (index < 0 || index >= size) {
+            return null;
+        }
+        RBNode<T> current = root;
+        while (true) {
+            int leftSize = sizeOf(current.left);
+            if (index < leftSize) {
+                current = current.left;
+            } else if (index > leftSize) {
+                index -= leftSize + 1;
+                current = current.right;
+            } else {
+                return current.data;
+            }
+        }
+    }
+
+    // The parent links make every step O(1) amortized without a stack
+    @Override
+    public Iterator<T> iterator(T from, T to) {
+        RBNode<T> start;
+        if (root == null) {
+            start = null;
+        } else {
+            start = from == null ? getMin(root) : ceilingNode(from);
+        }
+        return new RBIterator(start, to, false);
+    }
+
+    @Override
+    public Iterator<T> descendingIterator(T from, T to) {
+        RBNode<T> start;
+        if (root == null) {
+            start = null;
+        } else {
+            start = to == null ? getMax(root) : lowerNode(to);
+        }
+        return new RBIterator(start, from, true);
+    }
+
+    // Follows successor (or predecessor) links until the far bound of the
+    // range: to (exclusive) ascending, from (inclusive) descending
+    private class RBIterator implements Iterator<T> {
+        private RBNode<T> next;
+        private final T bound;
+        private final boolean descending;
+
+        RBIterator(RBNode<T> start, T bound, boolean descending) {
+            this.bound = bound;
+            this.descending = descending;
+            this.next = inRange(start) ? start : null;
+        }
+
+        private boolean inRange(RBNode<T> node) {
+            if (node == null || bound == null) {
+                return node != null;
+            }
+            int cmp = node.data.compareTo(bound);
+            return descending ? cmp >= 0 : cmp < 0;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public T next() {
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+            RBNode<T> node = next;
+            RBNode<T> following = descending ? predecessor(node) : successor(node);
+            next = inRange(following) ? following : null;
+            return node.data;
+        }
     }
 
-    public Node<T> getRoot() {
+    public RBNode<T> getRoot() {
         return root;
     }
 
     @Override
     public boolean search(T data) {
-        return searchRecursive(root, data);
+        return getNode(data) != null;
     }
 
-    private boolean searchRecursive(Node<T> node, T data) {
-        if (node == null) {
-            return false;
-        }
-        if (node.data.equals(data)) {
-            return true;
+    @Override
+    public T get(T data) {
+        RBNode<T> node = getNode(data);
+        return node == null ? null : node.data;
+    }
+
+    public Cursor<T> cursor() {
+        return new RBCursor();
+    }
+
+    // The parent links let the finger climb directly. Going towards larger
+    // keys, the climb stops at a left child of a node above the key: that
+    // subtree spans from below the finger to that node, so it holds the key
+    // (and symmetrically for smaller keys).
+    private final class RBCursor implements Cursor<T> {
+        private RBNode<T> finger;
+        private int expectedModCount;
+
+        @Override
+        public T get(T key) {
+            if (key == null) {
+                return null;
+            }
+            if (finger == null || expectedModCount != modCount) {
+                finger = root;
+                expectedModCount = modCount;
+            }
+            if (finger == null) {
+                return null;
+            }
+            RBNode<T> node = finger;
+            int cmp = key.compareTo(node.data);
+            boolean larger = cmp > 0;
+            while (cmp != 0 && node.parent != null) {
+                RBNode<T> parent = node.parent;
+                if (node == (larger ? parent.left : parent.right)) {
+                    int parentCmp = key.compareTo(parent.data);
+                    if (parentCmp == 0) {
+                        finger = parent;
+                        return parent.data;
+                    }
+                    if (larger ? parentCmp < 0 : parentCmp > 0) {
+                        break;
+                    }
+                }
+                node = parent;
+            }
+            while (true) {
+                cmp = key.compareTo(node.data);
+                RBNode<T> next = cmp < 0 ? node.left : node.right;
+                if (cmp == 0 || next == null) {
+                    finger = node;
+                    return cmp == 0 ? node.data : null;
+                }
+                node = next;
+            }
         }
-        if (data.compareTo(node.data) < 0) {
-            return searchRecursive(node.left, data);
-        } else {
-            return searchRecursive(node.right, data);
+
+        @Override
+        public T current() {
+            if (finger == null || expectedModCount != modCount) {
+                return null;
+            }
+            return finger.data;
         }
     }
 
-    private Node<T> getNode(T data) {
-        Node<T> current = root;
+    private RBNode<T> getNode(T data) {
+        if (data == null) {
+            return null;
+        }
+        RBNode<T> current = root;
         while (current != null) {
             int cmp = data.compareTo(current.data);
             if (cmp == 0) {
@@ -367,20 +1092,16 @@ public class RedBlack<T extends Comparable<T>> implements Tree<T> {
         return null; // Node not found
     }
 
-    private int getTreeHeight(Node<T> n) {
-        if(n==null) return 0;
-        return 1+Math.max(getTreeHeight(n.left),getTreeHeight(n.right));
-    }
-
+    // Heights are kept up to date by insert, delete and the rotations
     public int getHeight() {
-        return getTreeHeight(root);
+        return heightOf(root);
     }
 
     public void printHierarchical() {
         printHierarchicalHelper(root, "", true);
     }
 
-    private void printHierarchicalHelper(Node<T> node, String prefix, boolean isLast) {
+    private void printHierarchicalHelper(RBNode<T> node, String prefix, boolean isLast) {
         if (node != null) {
             String color = node.color ? ANSI_RED : ANSI_BLACK;
             System.out.println(prefix + (isLast ? "└── " : "├── ") + color + node.data + ANSI_RESET);
@@ -0,0 +1,37 @@
+package org.example;
+
+// The join-based set operations of AVL and RedBlack. Both trees run the same
+// recursion: split the second tree around the root key of the first, combine
+// the two halves independently (in parallel when large enough), then join
+// the results back together with or without that root key.
+enum SetOperation {
+    UNION,
+    INTERSECTION,
+    DIFFERENCE;
+
+    // Subproblems with fewer nodes than this run sequentially
+    static final int PARALLEL_THRESHOLD = 1 << 13;
+
+    // Result when the first tree is empty: the second tree or nothing
+    boolean keepsSecondWhenFirstEmpty() {
+        return this == UNION;
+    }
+
+    // Result when the second tree is empty: the first tree or nothing
+    boolean keepsFirstWhenSecondEmpty() {
+        return this != INTERSECTION;
+    }
+
+    // Whether a key of the first tree survives, given whether the second
+    // tree contains it too
+    boolean keepsKey(boolean inSecond) {
+        switch (this) {
+            case UNION:
+                return true;
+            case INTERSECTION:
+                return inSecond;
+            default:
+                return !inSecond;
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package org.example;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+// Snapshot format shared by AVL and RedBlack save/load:
+//   magic (int) | version (byte) | codec id (byte) | count (int) | keys
+// Keys follow in ascending order, each encoded by the KeyCodec. Saving
+// streams an in-order traversal and loading streams the keys into the
+// linear-time fromSorted builder, so neither side buffers the key list.
+final class Snapshot {
+    private static final int MAGIC = 0x54534e50; // "TSNP"
+    private static final byte VERSION = 1;
+    private static final int BUFFER = 1 << 16;
+
+    private Snapshot() {
+    }
+
+    static <T extends Comparable<T>> void save(Tree<T> tree, OutputStream out, KeyCodec<T> codec) throws IOException {
+        DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out, BUFFER));
+        data.writeInt(MAGIC);
+        data.writeByte(VERSION);
+        data.writeByte(codec.id());
+        data.writeInt(tree.getSize());
+        for (T key : tree) {
+            codec.write(data, key);
+        }
+        data.flush();
+    }
+
+    // Writes to a temporary sibling first, forces it to disk and renames it
+    // over path, then forces the directory so the rename itself survives a
+    // crash. path always holds a complete snapshot, and once this returns it
+    // is the new one. A failed save deletes the temporary file.
+    static <T extends Comparable<T>> void save(Tree<T> tree, Path path, KeyCodec<T> codec) throws IOException {
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                save(tree, Channels.newOutputStream(channel), codec);
+                channel.force(true);
+            }
+            Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException | RuntimeException e) {
+            try {
+                Files.deleteIfExists(temporary);
+            } catch (IOException suppressed) {
+                e.addSuppressed(suppressed);
+            }
+            throw e;
+        }
+        forceDirectory(path.toAbsolutePath().getParent());
+    }
+
+    // Some platforms (Windows) cannot open a directory for reading; there the
+    // rename is as durable as the file system makes it
+    static void forceDirectory(Path directory) throws IOException {
+        FileChannel channel;
+        try {
+            channel = FileChannel.open(directory, StandardOpenOption.READ);
+        } catch (IOException e) {
+            return;
+        }
+        try (channel) {
+            channel.force(true);
+        }
+    }
+
+    // Reads the snapshot header, then hands the keys to a fromSorted
+    // builder. Failures of the key stream or the builder's order check
+    // surface as IOExceptions.
+    static <T, R> R load(InputStream in, KeyCodec<T> codec, Builder<T, R> builder) throws IOException {
+        Reader<T> reader = open(in, codec);
+        try {
+            return builder.build(reader, reader.count);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Corrupt snapshot: " + e.getMessage(), e);
+        }
+    }
+
+    interface Builder<T, R> {
+        R build(Iterator<T> sorted, int count);
+    }
+
+    private static <T> Reader<T> open(InputStream in, KeyCodec<T> codec) throws IOException {
+        DataInputStream data = new DataInputStream(new BufferedInputStream(in, BUFFER));
+        if (data.readInt() != MAGIC) {
+            throw new IOException("Not a tree snapshot");
+        }
+        byte version = data.readByte();
+        if (version != VERSION) {
+            throw new IOException("Unsupported snapshot version " + version);
+        }
+        byte codecId = data.readByte();
+        if (codecId != codec.id()) {
+            throw new IOException("Snapshot was written with key codec " + codecId + ", not " + codec.id());
+        }
+        int count = data.readInt();
+        if (count < 0) {
+            throw new IOException("Negative key count: " + count);
+        }
+        return new Reader<>(data, codec, count);
+    }
+
+    private static final class Reader<T> implements Iterator<T> {
+        private final DataInputStream in;
+        private final KeyCodec<T> codec;
+        private final int count;
+        private int remaining;
+
+        private Reader(DataInputStream in, KeyCodec<T> codec, int count) {
+            this.in = in;
+            this.codec = codec;
+            this.count = count;
+            this.remaining = count;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return remaining > 0;
+        }
+
+        @Override
+        public T next() {
+            if (remaining == 0) {
+                throw new NoSuchElementException();
+            }
+            remaining--;
+            try {
+                return codec.read(in);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package org.example;
+
+// Splay tree node: no balance information, just the height and subtree size.
+// A splay tree can degenerate into a path of all its keys, so the height is
+// an int.
+public class SplayNode<T> extends Node<T> {
+    SplayNode<T> left;
+    SplayNode<T> right;
+    int size;
+    int height;
+
+    public SplayNode(T data) {
+        super(data);
+        this.size = 1;
+        this.height = 1;
+    }
+
+    @Override
+    public SplayNode<T> getLeft() {
+        return left;
+    }
+
+    @Override
+    public SplayNode<T> getRight() {
+        return right;
+    }
+}
@@ -0,0 +1,248 @@
+package org.example;
+
+import java.util.Arrays;
+
+// Self-adjusting tree (Sleator and Tarjan). search, get, insert and delete
+// move the key they reach to the root with splay rotations, so a key looked
+// up again soon is found near the top: a sequence of lookups costs
+// O(log n) amortized each, and much less when a few hot keys take most of
+// them. There is no balance guarantee for a single operation, and since
+// lookups restructure the tree, even concurrent readers need a lock.
+// rank, select, the navigation methods and iteration do not splay.
+public class SplayTree<T extends Comparable<T>> implements Tree<T> {
+    private SplayNode<T> root;
+    private int size;
+    // Root-to-node path of the current operation; the tree has no parent
+    // links, and the path can be as long as the tree is tall
+    @SuppressWarnings("unchecked")
+    private SplayNode<T>[] path = (SplayNode<T>[]) new SplayNode[64];
+    private final RebalanceCounter rebalances = new RebalanceCounter();
+
+    // Rotations done by splaying; there is no balance information to change
+    public RebalanceCounter rebalanceCounter() {
+        return rebalances;
+    }
+
+    @Override
+    public boolean insert(T data) {
+        if (data == null) {
+            return false;
+        }
+        if (root == null) {
+            root = new SplayNode<>(data);
+            size++;
+            return true;
+        }
+
+        int depth = descend(root, data);
+        SplayNode<T> last = path[depth - 1];
+        int cmp = data.compareTo(last.data);
+        if (cmp == 0) {
+            root = splay(depth);
+            return false;
+        }
+        SplayNode<T> node = new SplayNode<>(data);
+        if (cmp < 0) {
+            last.left = node;
+        } else {
+            last.right = node;
+        }
+        push(depth, node);
+        root = splay(depth + 1);
+        size++;
+        return true;
+    }
+
+    @Override
+    public boolean delete(T data) {
+        if (data == null || root == null) {
+            return false;
+        }
+        root = splay(descend(root, data));
+        if (data.compareTo(root.data) != 0) {
+            return false;
+        }
+
+        // Splay the largest key of the left subtree to its top, where it has
+        // no right child, and hang the right subtree there
+        SplayNode<T> left = root.left;
+        SplayNode<T> right = root.right;
+        if (left == null) {
+            root = right;
+        } else {
+            int depth = 0;
+            for (SplayNode<T> current = left; current != null; current = current.right) {
+                push(depth++, current);
+            }
+            root = splay(depth);
+            root.right = right;
+            update(root);
+        }
+        size--;
+        return true;
+    }
+
+    @Override
+    public boolean search(T data) {
+        return get(data) != null;
+    }
+
+    @Override
+    public T get(T data) {
+        if (data == null || root == null) {
+            return null;
+        }
+        // A miss splays the last node on the search path
+        root = splay(descend(root, data));
+        return data.compareTo(root.data) == 0 ? root.data : null;
+    }
+
+    // Records the search path for data from node, ending at the node holding
+    // data or at the last node before a missing child. Returns its length.
+    private int descend(SplayNode<T> node, T data) {
+        int depth = 0;
+        while (true) {
+            push(depth++, node);
+            int cmp = data.compareTo(node.data);
+            SplayNode<T> next = cmp < 0 ? node.left : cmp > 0 ? node.right : null;
+            if (next == null) {
+                return depth;
+            }
+            node = next;
+        }
+    }
+
+    private void push(int depth, SplayNode<T> node) {
+        if (depth == path.length) {
+            path = Arrays.copyOf(path, 2 * depth);
+        }
+        path[depth] = node;
+    }
+
+    // Moves path[depth - 1] to the top of the subtree rooted at path[0] and
+    // returns it. Each step lifts the node two levels, rotating the
+    // grandparent first when node and parent are on the same side (zig-zig)
+    // and the parent first otherwise (zig-zag). Every node on the path is
+    // rotated, which also recomputes its height and size.
+    private SplayNode<T> splay(int depth) {
+        SplayNode<T> node = path[depth - 1];
+        while (depth > 1) {
+            SplayNode<T> parent = path[depth - 2];
+            SplayNode<T> top;
+            if (depth == 2) {
+                rotateUp(node, parent);
+                top = parent;
+                depth = 1;
+            } else {
+                SplayNode<T> grandparent = path[depth - 3];
+                if ((grandparent.left == parent) == (parent.left == node)) {
+                    rotateUp(parent, grandparent);
+                    rotateUp(node, parent);
+                } else {
+                    rotateUp(node, parent);
+                    if (grandparent.left == parent) {
+                        grandparent.left = node;
+                    } else {
+                        grandparent.right = node;
+                    }
+                    rotateUp(node, grandparent);
+                }
+                top = grandparent;
+                depth -= 2;
+            }
+            if (depth > 1) {
+                SplayNode<T> above = path[depth - 2];
+                if (above.left == top) {
+                    above.left = node;
+                } else {
+                    above.right = node;
+                }
+            }
+            path[depth - 1] = node;
+        }
+        return node;
+    }
+
+    // Rotates child above parent; the caller relinks whatever pointed to parent
+    private void rotateUp(SplayNode<T> child, SplayNode<T> parent) {
+        if (parent.left == child) {
+            parent.left = child.right;
+            child.right = parent;
+        } else {
+            parent.right = child.left;
+            child.left = parent;
+        }
+        update(parent);
+        update(child);
+        rebalances.rotated();
+    }
+
+    @Override
+    public int rank(T data) {
+        if (data == null) {
+            return 0;
+        }
+        int rank = 0;
+        SplayNode<T> current = root;
+        while (current != null) {
+            int cmp = data.compareTo(current.data);
+            if (cmp < 0) {
+                current = current.left;
+            } else if (cmp > 0) {
+                rank += sizeOf(current.left) + 1;
+                current = current.right;
+            } else {
+                return rank + sizeOf(current.left);
+            }
+        }
+        return rank;
+    }
+
+    @Override
+    public T select(int index) {
+        if (index < 0 || index >= size) {
+            return null;
+        }
+        SplayNode<T> current = root;
+        while (true) {
+            int leftSize = sizeOf(current.left);
+            if (index < leftSize) {
+                current = current.left;
+            } else if (index > leftSize) {
+                index -= leftSize + 1;
+                current = current.right;
+            } else {
+                return current.data;
+            }
+        }
+    }
+
+    @Override
+    public int getSize() {
+        return size;
+    }
+
+    @Override
+    public int getHeight() {
+        return heightOf(root);
+    }
+
+    private static int heightOf(SplayNode<?> node) {
+        return node == null ? 0 : node.height;
+    }
+
+    private static int sizeOf(SplayNode<?> node) {
+        return node == null ? 0 : node.size;
+    }
+
+    // Recompute height and subtree size from the children
+    private void update(SplayNode<T> node) {
+        node.height = 1 + Math.max(heightOf(node.left), heightOf(node.right));
+        node.size = 1 + sizeOf(node.left) + sizeOf(node.right);
+    }
+
+    @Override
+    public SplayNode<T> getRoot() {
+        return root;
+    }
+}
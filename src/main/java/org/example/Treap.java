@@ -0,0 +1,236 @@
+package org.example;
+
+import java.util.SplittableRandom;
+
+// Treap: a binary search tree on the keys that is also a max-heap on random
+// priorities drawn at insertion, so its shape is that of a random insertion
+// order whatever order the keys arrive in. There is no balance information
+// to maintain: an insert or delete does fewer than two rotations in
+// expectation, and the expected depth of a key is O(log n).
+public class Treap<T extends Comparable<T>> implements Tree<T> {
+    private TreapNode<T> root;
+    private int size;
+    private final SplittableRandom random;
+    private final RebalanceCounter rebalances = new RebalanceCounter();
+
+    public Treap() {
+        this(new SplittableRandom());
+    }
+
+    // A fixed seed makes the shape reproducible
+    public Treap(long seed) {
+        this(new SplittableRandom(seed));
+    }
+
+    private Treap(SplittableRandom random) {
+        this.random = random;
+    }
+
+    public RebalanceCounter rebalanceCounter() {
+        return rebalances;
+    }
+
+    @Override
+    public boolean insert(T data) {
+        if (data == null) {
+            return false;
+        }
+
+        // insertRecursive only grows size when the key was absent
+        int oldSize = size;
+        root = insertRecursive(root, data);
+        return size != oldSize;
+    }
+
+    // Insert as a leaf, then rotate the new node up while its priority is
+    // above its parent's
+    private TreapNode<T> insertRecursive(TreapNode<T> node, T data) {
+        if (node == null) {
+            size++;
+            return new TreapNode<>(data, random.nextInt());
+        }
+        int cmp = data.compareTo(node.data);
+        if (cmp < 0) {
+            node.left = insertRecursive(node.left, data);
+            if (node.left.priority > node.priority) {
+                return rotateRight(node);
+            }
+        } else if (cmp > 0) {
+            node.right = insertRecursive(node.right, data);
+            if (node.right.priority > node.priority) {
+                return rotateLeft(node);
+            }
+        } else {
+            return node;
+        }
+        update(node);
+        return node;
+    }
+
+    @Override
+    public boolean delete(T data) {
+        if (data == null || root == null) {
+            return false;
+        }
+
+        // deleteRecursive only shrinks size when the key was present
+        int oldSize = size;
+        root = deleteRecursive(root, data);
+        return size != oldSize;
+    }
+
+    private TreapNode<T> deleteRecursive(TreapNode<T> node, T data) {
+        if (node == null) {
+            return null;
+        }
+        int cmp = data.compareTo(node.data);
+        if (cmp < 0) {
+            node.left = deleteRecursive(node.left, data);
+        } else if (cmp > 0) {
+            node.right = deleteRecursive(node.right, data);
+        } else {
+            return remove(node);
+        }
+        update(node);
+        return node;
+    }
+
+    // Rotate node down past its higher-priority child until it has at most
+    // one child, then unlink it
+    private TreapNode<T> remove(TreapNode<T> node) {
+        if (node.left == null) {
+            size--;
+            return node.right;
+        }
+        if (node.right == null) {
+            size--;
+            return node.left;
+        }
+        TreapNode<T> top;
+        if (node.left.priority > node.right.priority) {
+            top = rotateRight(node);
+            top.right = remove(node);
+        } else {
+            top = rotateLeft(node);
+            top.left = remove(node);
+        }
+        update(top);
+        return top;
+    }
+
+    @Override
+    public boolean search(T data) {
+        return getNode(data) != null;
+    }
+
+    @Override
+    public T get(T data) {
+        TreapNode<T> node = getNode(data);
+        return node == null ? null : node.data;
+    }
+
+    // Iterative lookup, one comparison per level
+    private TreapNode<T> getNode(T data) {
+        if (data == null) {
+            return null;
+        }
+        TreapNode<T> current = root;
+        while (current != null) {
+            int cmp = data.compareTo(current.data);
+            if (cmp == 0) {
+                return current;
+            }
+            current = cmp < 0 ? current.left : current.right;
+        }
+        return null;
+    }
+
+    @Override
+    public int rank(T data) {
+        if (data == null) {
+            return 0;
+        }
+        int rank = 0;
+        TreapNode<T> current = root;
+        while (current != null) {
+            int cmp = data.compareTo(current.data);
+            if (cmp < 0) {
+                current = current.left;
+            } else if (cmp > 0) {
+                rank += sizeOf(current.left) + 1;
+                current = current.right;
+            } else {
+                return rank + sizeOf(current.left);
+            }
+        }
+        return rank;
+    }
+
+    @Override
+    public T select(int index) {
+        if (index < 0 || index >= size) {
+            return null;
+        }
+        TreapNode<T> current = root;
+        while (true) {
+            int leftSize = sizeOf(current.left);
+            if (index < leftSize) {
+                current = current.left;
+            } else if (index > leftSize) {
+                index -= leftSize + 1;
+                current = current.right;
+            } else {
+                return current.data;
+            }
+        }
+    }
+
+    @Override
+    public int getSize() {
+        return size;
+    }
+
+    @Override
+    public int getHeight() {
+        return heightOf(root);
+    }
+
+    private static int heightOf(TreapNode<?> node) {
+        return node == null ? 0 : node.height;
+    }
+
+    private static int sizeOf(TreapNode<?> node) {
+        return node == null ? 0 : node.size;
+    }
+
+    // Recompute height and subtree size from the children
+    private void update(TreapNode<T> node) {
+        node.height = 1 + Math.max(heightOf(node.left), heightOf(node.right));
+        node.size = 1 + sizeOf(node.left) + sizeOf(node.right);
+    }
+
+    private TreapNode<T> rotateRight(TreapNode<T> y) {
+        TreapNode<T> x = y.left;
+        y.left = x.right;
+        x.right = y;
+        update(y);
+        update(x);
+        rebalances.rotated();
+        return x;
+    }
+
+    private TreapNode<T> rotateLeft(TreapNode<T> x) {
+        TreapNode<T> y = x.right;
+        x.right = y.left;
+        y.left = x;
+        update(x);
+        update(y);
+        rebalances.rotated();
+        return y;
+    }
+
+    @Override
+    public TreapNode<T> getRoot() {
+        return root;
+    }
+}
@@ -0,0 +1,29 @@
+package org.example;
+
+// Treap node: a random priority fixed at creation, plus the height and
+// subtree size. A treap's height is only logarithmic in expectation, so it is
+// kept in an int rather than a byte.
+public class TreapNode<T> extends Node<T> {
+    TreapNode<T> left;
+    TreapNode<T> right;
+    final int priority;
+    int size;
+    int height;
+
+    public TreapNode(T data, int priority) {
+        super(data);
+        this.priority = priority;
+        this.size = 1;
+        this.height = 1;
+    }
+
+    @Override
+    public TreapNode<T> getLeft() {
+        return left;
+    }
+
+    @Override
+    public TreapNode<T> getRight() {
+        return right;
+    }
+}
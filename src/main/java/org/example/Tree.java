@@ -2,13 +2,129 @@ package org.example;
 
 import java.util.*;
 
-public interface Tree<T extends Comparable<T>> {
+public interface Tree<T extends Comparable<T>> extends Iterable<T> {
     boolean insert(T data);
     boolean delete(T data);
     boolean search(T data);
+    // Returns the stored element equal to data, or null if there is none
+    T get(T data);
     int getSize();
     int getHeight();
 
+    // Number of keys strictly less than data
+    int rank(T data);
+    // The index-th smallest key (0-based), or null if index is out of range
+    T select(int index);
+
+    // Number of keys in [from, to]
+    default int countRange(T from, T to) {
+        if (from == null || to == null || from.compareTo(to) > 0) {
+            return 0;
+        }
+        return rank(to) - rank(from) + (search(to) ? 1 : 0);
+    }
+
+    // Batch operations. The keys are processed in sorted order so that
+    // neighbouring keys share the work of their descents; nulls are skipped.
+    // insertAll and deleteAll return how many keys were added or removed, and
+    // bit i of searchAll is set when keys[i] is in the tree.
+    default int insertAll(T[] keys) {
+        int inserted = 0;
+        for (T key : Batch.sortedCopy(keys)) {
+            if (insert(key)) inserted++;
+        }
+        return inserted;
+    }
+
+    default BitSet searchAll(T[] keys) {
+        BitSet found = new BitSet(keys.length);
+        Batch.Finger<T> finger = new Batch.Finger<>(getRoot(), getHeight());
+        for (int i : Batch.sortedOrder(keys)) {
+            if (finger.search(keys[i])) found.set(i);
+        }
+        return found;
+    }
+
+    default int deleteAll(T[] keys) {
+        int deleted = 0;
+        for (T key : Batch.sortedCopy(keys)) {
+            if (delete(key)) deleted++;
+        }
+        return deleted;
+    }
+
+    // Navigation: smallest/largest key, and the closest key at or below
+    // (floor), at or above (ceiling), strictly below (lower) or strictly
+    // above (higher) data. All return null when there is no such key.
+    default T first() {
+        Node<T> current = getRoot();
+        if (current == null) return null;
+        while (current.getLeft() != null) current = current.getLeft();
+        return current.data;
+    }
+
+    default T last() {
+        Node<T> current = getRoot();
+        if (current == null) return null;
+        while (current.getRight() != null) current = current.getRight();
+        return current.data;
+    }
+
+    default T floor(T data) {
+        return closest(data, true, true);
+    }
+
+    default T ceiling(T data) {
+        return closest(data, false, true);
+    }
+
+    default T lower(T data) {
+        return closest(data, true, false);
+    }
+
+    default T higher(T data) {
+        return closest(data, false, false);
+    }
+
+    // Single descent remembering the best candidate seen on the way down
+    private T closest(T data, boolean below, boolean inclusive) {
+        if (data == null) return null;
+        Node<T> current = getRoot();
+        T best = null;
+        while (current != null) {
+            int cmp = data.compareTo(current.data);
+            if (cmp == 0 && inclusive) {
+                return current.data;
+            }
+            if (below ? cmp > 0 : cmp < 0) {
+                best = current.data;
+                current = below ? current.getRight() : current.getLeft();
+            } else {
+                current = below ? current.getLeft() : current.getRight();
+            }
+        }
+        return best;
+    }
+
+    // In-order iteration. The range variants cover [from, to); a null bound
+    // means unbounded on that side.
+    @Override
+    default Iterator<T> iterator() {
+        return iterator(null, null);
+    }
+
+    default Iterator<T> descendingIterator() {
+        return descendingIterator(null, null);
+    }
+
+    default Iterator<T> iterator(T from, T to) {
+        return new NodeIterator<>(getRoot(), getHeight(), from, to, false);
+    }
+
+    default Iterator<T> descendingIterator(T from, T to) {
+        return new NodeIterator<>(getRoot(), getHeight(), from, to, true);
+    }
+
     Node<T> getRoot();  // Needed to access the root from the interface
 
     // Print tree level by level, each level on a new line
@@ -35,8 +151,8 @@ public interface Tree<T extends Comparable<T>> {
                     continue;
                 }
                 System.out.print(node.data + " ");
-                queue.add(node.left);
-                queue.add(node.right);
+                queue.add(node.getLeft());
+                queue.add(node.getRight());
             }
             System.out.println();
             // Optimization: break if all remaining are nulls
@@ -0,0 +1,315 @@
+package org.example;
+
+// Weak AVL tree (Haeupler, Sen and Tarjan). Every node has a rank, null
+// children have rank -1, and the rank difference between a node and each
+// child is 1 or 2; leaves have rank 0. Without deletions this is exactly an
+// AVL tree, and the height stays below 2 log2(n) even with them, but an
+// update does at most two rotations and O(1) amortized rank changes, where an
+// AVL deletion can rotate at every level on the way up.
+public class WAVL<T extends Comparable<T>> implements Tree<T> {
+    private WAVLNode<T> root;
+    private int size;
+    private final RebalanceCounter rebalances = new RebalanceCounter();
+
+    public RebalanceCounter rebalanceCounter() {
+        return rebalances;
+    }
+
+    @Override
+    public boolean insert(T data) {
+        if (data == null) {
+            return false;
+        }
+
+        // insertRecursive only grows size when the key was absent
+        int oldSize = size;
+        root = insertRecursive(root, data);
+        return size != oldSize;
+    }
+
+    private WAVLNode<T> insertRecursive(WAVLNode<T> node, T data) {
+        if (node == null) {
+            size++;
+            return new WAVLNode<>(data);
+        }
+        int cmp = data.compareTo(node.data);
+        if (cmp < 0) {
+            node.left = insertRecursive(node.left, data);
+        } else if (cmp > 0) {
+            node.right = insertRecursive(node.right, data);
+        } else {
+            return node;
+        }
+
+        update(node);
+        return rebalanceInsert(node);
+    }
+
+    // An insertion below node can leave one child with rank difference 0
+    private WAVLNode<T> rebalanceInsert(WAVLNode<T> node) {
+        boolean leftHeavy = rankOf(node.left) == node.rank;
+        if (!leftHeavy && rankOf(node.right) != node.rank) {
+            return node;
+        }
+        WAVLNode<T> sibling = leftHeavy ? node.right : node.left;
+        if (node.rank - rankOf(sibling) == 1) {
+            // Promote and let the parent deal with node
+            setRank(node, node.rank + 1);
+            return node;
+        }
+
+        // The sibling is a 2-child: one or two rotations end the rebalancing
+        WAVLNode<T> child = leftHeavy ? node.left : node.right;
+        WAVLNode<T> inner = leftHeavy ? child.right : child.left;
+        if (child.rank - rankOf(inner) == 2) {
+            setRank(node, node.rank - 1);
+            return leftHeavy ? rotateRight(node) : rotateLeft(node);
+        }
+        setRank(inner, inner.rank + 1);
+        setRank(child, child.rank - 1);
+        setRank(node, node.rank - 1);
+        if (leftHeavy) {
+            node.left = rotateLeft(child);
+            return rotateRight(node);
+        }
+        node.right = rotateRight(child);
+        return rotateLeft(node);
+    }
+
+    @Override
+    public boolean delete(T data) {
+        if (data == null || root == null) {
+            return false;
+        }
+
+        // deleteRecursive only shrinks size when the key was present
+        int oldSize = size;
+        root = deleteRecursive(root, data);
+        return size != oldSize;
+    }
+
+    private WAVLNode<T> deleteRecursive(WAVLNode<T> node, T data) {
+        if (node == null) {
+            return null;
+        }
+
+        int cmp = data.compareTo(node.data);
+        if (cmp < 0) {
+            node.left = deleteRecursive(node.left, data);
+        } else if (cmp > 0) {
+            node.right = deleteRecursive(node.right, data);
+        } else {
+            // Node with only one child or no child
+            if (node.left == null) {
+                size--;
+                return node.right;
+            } else if (node.right == null) {
+                size--;
+                return node.left;
+            }
+
+            // Move the successor node into this position, taking over its rank
+            WAVLNode<T> successor = findMinNode(node.right);
+            successor.right = deleteMin(node.right);
+            successor.left = node.left;
+            successor.rank = node.rank;
+            node = successor;
+        }
+
+        update(node);
+        return rebalanceDelete(node);
+    }
+
+    // Unlink the minimum of the subtree without comparing keys again
+    private WAVLNode<T> deleteMin(WAVLNode<T> node) {
+        if (node.left == null) {
+            size--;
+            return node.right;
+        }
+        node.left = deleteMin(node.left);
+        update(node);
+        return rebalanceDelete(node);
+    }
+
+    // A deletion below node can leave it a leaf of rank 1 or with one child
+    // of rank difference 3
+    private WAVLNode<T> rebalanceDelete(WAVLNode<T> node) {
+        if (node.left == null && node.right == null) {
+            setRank(node, 0);
+            return node;
+        }
+        boolean leftShort = node.rank - rankOf(node.left) == 3;
+        if (!leftShort && node.rank - rankOf(node.right) != 3) {
+            return node;
+        }
+        WAVLNode<T> sibling = leftShort ? node.right : node.left;
+        if (node.rank - sibling.rank == 2) {
+            setRank(node, node.rank - 1);
+            return node;
+        }
+        WAVLNode<T> outer = leftShort ? sibling.right : sibling.left;
+        WAVLNode<T> inner = leftShort ? sibling.left : sibling.right;
+        if (sibling.rank - rankOf(outer) == 2 && sibling.rank - rankOf(inner) == 2) {
+            setRank(sibling, sibling.rank - 1);
+            setRank(node, node.rank - 1);
+            return node;
+        }
+
+        // The sibling has a 1-child: one or two rotations end the rebalancing
+        if (sibling.rank - rankOf(outer) == 1) {
+            setRank(sibling, sibling.rank + 1);
+            setRank(node, node.rank - 1);
+            if (inner == null && (leftShort ? node.left : node.right) == null) {
+                // node ends up a leaf, which must have rank 0
+                setRank(node, node.rank - 1);
+            }
+            return leftShort ? rotateLeft(node) : rotateRight(node);
+        }
+        setRank(inner, inner.rank + 2);
+        setRank(sibling, sibling.rank - 1);
+        setRank(node, node.rank - 2);
+        if (leftShort) {
+            node.right = rotateRight(sibling);
+            return rotateLeft(node);
+        }
+        node.left = rotateLeft(sibling);
+        return rotateRight(node);
+    }
+
+    // Find the node with the minimum value
+    private WAVLNode<T> findMinNode(WAVLNode<T> node) {
+        WAVLNode<T> current = node;
+        while (current.left != null) {
+            current = current.left;
+        }
+        return current;
+    }
+
+    @Override
+    public boolean search(T data) {
+        return getNode(data) != null;
+    }
+
+    @Override
+    public T get(T data) {
+        WAVLNode<T> node = getNode(data);
+        return node == null ? null : node.data;
+    }
+
+    // Iterative lookup, one comparison per level
+    private WAVLNode<T> getNode(T data) {
+        if (data == null) {
+            return null;
+        }
+        WAVLNode<T> current = root;
+        while (current != null) {
+            int cmp = data.compareTo(current.data);
+            if (cmp == 0) {
+                return current;
+            }
+            current = cmp < 0 ? current.left : current.right;
+        }
+        return null;
+    }
+
+    @Override
+    public int rank(T data) {
+        if (data == null) {
+            return 0;
+        }
+        int rank = 0;
+        WAVLNode<T> current = root;
+        while (current != null) {
+            int cmp = data.compareTo(current.data);
+            if (cmp < 0) {
+                current = current.left;
+            } else if (cmp > 0) {
+                rank += sizeOf(current.left) + 1;
+                current = current.right;
+            } else {
+                return rank + sizeOf(current.left);
+            }
+        }
+        return rank;
+    }
+
+    @Override
+    public T select(int index) {
+        if (index < 0 || index >= size) {
+            return null;
+        }
+        WAVLNode<T> current = root;
+        while (true) {
+            int leftSize = sizeOf(current.left);
+            if (index < leftSize) {
+                current = current.left;
+            } else if (index > leftSize) {
+                index -= leftSize + 1;
+                current = current.right;
+            } else {
+                return current.data;
+            }
+        }
+    }
+
+    @Override
+    public int getSize() {
+        return size;
+    }
+
+    @Override
+    public int getHeight() {
+        return heightOf(root);
+    }
+
+    private static int heightOf(WAVLNode<?> node) {
+        return node == null ? 0 : node.height;
+    }
+
+    private static int sizeOf(WAVLNode<?> node) {
+        return node == null ? 0 : node.size;
+    }
+
+    private static int rankOf(WAVLNode<?> node) {
+        return node == null ? -1 : node.rank;
+    }
+
+    private void setRank(WAVLNode<T> node, int rank) {
+        if (node.rank != rank) {
+            node.rank = (byte) rank;
+            rebalances.recoloured();
+        }
+    }
+
+    // Recompute height and subtree size from the children
+    private void update(WAVLNode<T> node) {
+        node.height = (byte) (1 + Math.max(heightOf(node.left), heightOf(node.right)));
+        node.size = 1 + sizeOf(node.left) + sizeOf(node.right);
+    }
+
+    // Rotations only relink and fix height and size; callers set the ranks
+    private WAVLNode<T> rotateRight(WAVLNode<T> y) {
+        WAVLNode<T> x = y.left;
+        y.left = x.right;
+        x.right = y;
+        update(y);
+        update(x);
+        rebalances.rotated();
+        return x;
+    }
+
+    private WAVLNode<T> rotateLeft(WAVLNode<T> x) {
+        WAVLNode<T> y = x.right;
+        x.right = y.left;
+        y.left = x;
+        update(x);
+        update(y);
+        rebalances.rotated();
+        return y;
+    }
+
+    @Override
+    public WAVLNode<T> getRoot() {
+        return root;
+    }
+}
@@ -0,0 +1,30 @@
+package org.example;
+
+// Weak AVL node. rank drives the balancing and is at most 2 log2(n), so it
+// fits in a byte; height is kept separately (rank + 1 only bounds it) so the
+// tree height can be read in O(1), and size counts the subtree for
+// rank/select.
+public class WAVLNode<T> extends Node<T> {
+    WAVLNode<T> left;
+    WAVLNode<T> right;
+    int size;
+    byte height;
+    byte rank;
+
+    public WAVLNode(T data) {
+        super(data);
+        this.size = 1;
+        this.height = 1;
+        this.rank = 0;
+    }
+
+    @Override
+    public WAVLNode<T> getLeft() {
+        return left;
+    }
+
+    @Override
+    public WAVLNode<T> getRight() {
+        return right;
+    }
+}
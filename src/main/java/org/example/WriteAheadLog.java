@@ -0,0 +1,171 @@
+package org.example;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+// Append-only log of tree mutations, used by LoggedTree. Each record is
+//   payload length (int) | CRC32 of payload (int) | payload
+// where the payload is an op byte followed by the key in KeyCodec form.
+//
+// Records are collected in a buffer and written and fsynced together (group
+// commit) once syncBytes are pending or syncIntervalNanos have passed since
+// the oldest pending record. Between syncs the latest records may be lost
+// in a crash; sync() closes that window on demand.
+final class WriteAheadLog<T> {
+    static final byte INSERT = 1;
+    static final byte DELETE = 2;
+
+    private static final int HEADER = 2 * Integer.BYTES;
+
+    private final FileChannel channel;
+    private final KeyCodec<T> codec;
+    private final long syncIntervalNanos;
+    private final int syncBytes;
+
+    private final ByteArrayOutputStream payload = new ByteArrayOutputStream();
+    private final DataOutputStream payloadOut = new DataOutputStream(payload);
+    private final CRC32 crc = new CRC32();
+    private ByteBuffer pending;
+    private long oldestPending;
+    private long syncs;
+
+    WriteAheadLog(Path path, KeyCodec<T> codec, long syncIntervalNanos, int syncBytes) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.codec = codec;
+        this.syncIntervalNanos = syncIntervalNanos;
+        this.syncBytes = syncBytes;
+        this.pending = ByteBuffer.allocate(Math.max(syncBytes, 1 << 12));
+    }
+
+    interface Replay<T> {
+        void apply(byte op, T key);
+    }
+
+    // Applies every intact record in order and cuts the log after the last
+    // one, dropping a torn or corrupt tail left by a crash. Returns the
+    // number of records applied.
+    long replay(Replay<T> replay) throws IOException {
+        long size = channel.size();
+        channel.position(0);
+        DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel), 1 << 16));
+        byte[] record = new byte[256];
+        long records = 0;
+        long valid = 0;
+        while (size - valid >= HEADER) {
+            int length = in.readInt();
+            int checksum = in.readInt();
+            if (length <= 0 || length > size - valid - HEADER) {
+                break;
+            }
+            if (record.length < length) {
+                record = new byte[length];
+            }
+            in.readFully(record, 0, length);
+            crc.reset();
+            crc.update(record, 0, length);
+            if ((int) crc.getValue() != checksum) {
+                break;
+            }
+            DataInputStream fields = new DataInputStream(new ByteArrayInputStream(record, 0, length));
+            byte op = fields.readByte();
+            if (op != INSERT && op != DELETE) {
+                break;
+            }
+            replay.apply(op, codec.read(fields));
+            records++;
+            valid += HEADER + length;
+        }
+        channel.truncate(valid);
+        channel.position(valid);
+        return records;
+    }
+
+    synchronized void append(byte op, T key) {
+        try {
+            payload.reset();
+            payloadOut.writeByte(op);
+            codec.write(payloadOut, key);
+            byte[] bytes = payload.toByteArray();
+            crc.reset();
+            crc.update(bytes);
+
+            if (pending.remaining() < HEADER + bytes.length) {
+                sync();
+                if (pending.capacity() < HEADER + bytes.length) {
+                    pending = ByteBuffer.allocate(HEADER + bytes.length);
+                }
+            }
+            if (pending.position() == 0) {
+                oldestPending = System.nanoTime();
+            }
+            pending.putInt(bytes.length).putInt((int) crc.getValue()).put(bytes);
+
+            if (pending.position() >= syncBytes || System.nanoTime() - oldestPending >= syncIntervalNanos) {
+                sync();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Called periodically by LoggedTree so an idle log still honours the
+    // sync interval
+    synchronized void syncIfDue() throws IOException {
+        if (pending.position() > 0 && System.nanoTime() - oldestPending >= syncIntervalNanos) {
+            sync();
+        }
+    }
+
+    // Writes and fsyncs everything appended so far
+    synchronized void sync() throws IOException {
+        if (pending.position() == 0) {
+            return;
+        }
+        write();
+        channel.force(false);
+        syncs++;
+    }
+
+    private void write() throws IOException {
+        pending.flip();
+        while (pending.hasRemaining()) {
+            channel.write(pending);
+        }
+        pending.clear();
+    }
+
+    // Empties the log after a checkpoint made its records redundant
+    synchronized void reset() throws IOException {
+        pending.clear();
+        channel.truncate(0);
+        channel.position(0);
+        channel.force(true);
+    }
+
+    synchronized long syncCount() {
+        return syncs;
+    }
+
+    synchronized long size() throws IOException {
+        return channel.size() + pending.position();
+    }
+
+    synchronized void close() throws IOException {
+        try {
+            sync();
+        } finally {
+            channel.close();
+        }
+    }
+}
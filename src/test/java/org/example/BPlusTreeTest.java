@@ -0,0 +1,50 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BPlusTreeTest {
+
+    @Test
+    public void testBehavesLikeASetForEveryFanout() {
+        // Pages are checked through the Tree methods only
+        for (int fanout : new int[]{3, 4, 5, 8, 64}) {
+            TreeChecks.assertBehavesLikeASet(new BPlusTree<>(fanout), fanout, tree -> { });
+        }
+    }
+
+    @Test
+    public void testHeightIsLogarithmicInFanout() {
+        BPlusTree<Integer> tree = new BPlusTree<>();
+        for (int i = 0; i < 1_000_000; i++) tree.insert(i);
+        // Half-full nodes at worst: 32^4 > 1M
+        assertTrue(tree.getHeight() <= 5, "height " + tree.getHeight());
+        for (int i = 0; i < 1_000_000; i += 2) assertTrue(tree.delete(i));
+        assertEquals(500_000, tree.getSize());
+        assertEquals(1, tree.rank(3));
+        assertEquals(Integer.valueOf(999_999), tree.select(499_999));
+        assertTrue(tree.getHeight() <= 5);
+    }
+
+    @Test
+    public void testBatchOperations() {
+        BPlusTree<Integer> tree = new BPlusTree<>(6);
+        Integer[] keys = new Integer[500];
+        for (int i = 0; i < keys.length; i++) keys[i] = (i * 37) % 1000;
+        assertEquals(500, tree.insertAll(keys));
+        Integer[] probes = new Integer[1000];
+        for (int i = 0; i < probes.length; i++) probes[i] = 999 - i;
+        var found = tree.searchAll(probes);
+        for (int i = 0; i < probes.length; i++) assertEquals(tree.search(probes[i]), found.get(i));
+        assertEquals(500, found.cardinality());
+        assertEquals(500, tree.deleteAll(keys));
+        assertEquals(0, tree.getSize());
+    }
+
+    @Test
+    public void testRejectsTinyFanout() {
+        assertThrows(IllegalArgumentException.class, () -> new BPlusTree<Integer>(2));
+        assertFalse(new BPlusTree<Integer>().insert(null));
+    }
+}
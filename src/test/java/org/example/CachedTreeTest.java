@@ -0,0 +1,108 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+public class CachedTreeTest {
+
+    @Test
+    public void testAgreesWithTheTreeUnderEviction() {
+        for (int capacity : new int[]{1, 7, 64, 5000}) {
+            CachedTree<Integer> tree = new CachedTree<>(new AVL<Integer>(), Object::hashCode, capacity);
+            TreeSet<Integer> reference = new TreeSet<>();
+            Random random = new Random(capacity);
+            long lookups = 0;
+            for (int i = 0; i < 50000; i++) {
+                // Skewed keys, so some stay cached across updates
+                int value = random.nextInt(random.nextBoolean() ? 50 : 2000);
+                int operation = random.nextInt(10);
+                if (operation < 6) {
+                    assertEquals(reference.contains(value), tree.search(value), "search " + value);
+                    lookups++;
+                } else if (operation < 8) {
+                    assertEquals(reference.contains(value) ? value : null, tree.get(value));
+                    lookups++;
+                } else if (operation == 8) {
+                    assertEquals(reference.add(value), tree.insert(value));
+                } else {
+                    assertEquals(reference.remove(value), tree.delete(value));
+                }
+            }
+            assertEquals(lookups, tree.cacheHits() + tree.cacheMisses());
+            assertTrue(tree.cacheHits() > 0);
+            assertEquals(capacity < 2000, tree.evictions() > 0, "evictions " + tree.evictions());
+            assertEquals(reference.size(), tree.getSize());
+            assertEquals(List.copyOf(reference), TreeChecks.list(tree.iterator()));
+        }
+    }
+
+    @Test
+    public void testCachesMissesAndUpdatesThemOnInsert() {
+        CachedTree<String> tree = new CachedTree<>(new RedBlack<String>(), Object::hashCode, 16);
+        tree.insert("b");
+        assertFalse(tree.search("a"));
+        assertFalse(tree.search("a"));
+        assertEquals(1, tree.cacheMisses());
+        assertEquals(1, tree.cacheHits());
+
+        assertTrue(tree.insert("a"));
+        assertTrue(tree.search("a"));
+        assertEquals(2, tree.cacheHits());
+        assertTrue(tree.delete("a"));
+        assertFalse(tree.search("a"));
+        assertEquals(3, tree.cacheHits());
+
+        // get returns the stored element, also from the cache
+        String stored = new String("b");
+        CachedTree<String> fresh = new CachedTree<>(new AVL<String>(), Object::hashCode, 4);
+        fresh.insert(stored);
+        assertSame(stored, fresh.get(new String("b")));
+        assertSame(stored, fresh.get(new String("b")));
+        assertEquals(1, fresh.cacheHits());
+
+        tree.resetCounters();
+        assertEquals(0, tree.cacheHits() + tree.cacheMisses() + tree.evictions());
+    }
+
+    @Test
+    public void testBatchUpdatesInvalidate() {
+        CachedTree<Integer> tree = new CachedTree<>(new AVL<Integer>(), Object::hashCode, 32);
+        for (int i = 0; i < 10; i++) assertFalse(tree.search(i));
+        assertEquals(5, tree.insertAll(new Integer[]{0, 2, 4, 6, 8}));
+        for (int i = 0; i < 10; i++) assertEquals(i % 2 == 0, tree.search(i));
+        assertEquals(2, tree.deleteAll(new Integer[]{2, 4, 5}));
+        for (int i = 0; i < 10; i++) assertEquals(i == 0 || i == 6 || i == 8, tree.search(i));
+
+        tree.clearCache();
+        long misses = tree.cacheMisses();
+        assertTrue(tree.search(6));
+        assertEquals(misses + 1, tree.cacheMisses());
+    }
+
+    @Test
+    public void testRejectsEmptyCache() {
+        assertThrows(IllegalArgumentException.class, () -> new CachedTree<>(new AVL<Integer>(), Object::hashCode, 0));
+    }
+
+    @Test
+    public void testKeysEqualByCompareToButNotEquals() {
+        CachedTree<BigDecimal> tree = new CachedTree<>(new AVL<BigDecimal>(), key -> key.stripTrailingZeros().hashCode(), 16);
+        assertTrue(tree.insert(new BigDecimal("1.0")));
+        assertTrue(tree.search(new BigDecimal("1.0")));
+        assertEquals(new BigDecimal("1.0"), tree.get(new BigDecimal("1.00")));
+        assertTrue(tree.delete(new BigDecimal("1.00")));
+        assertEquals(0, tree.getSize());
+        assertFalse(tree.search(new BigDecimal("1.0")));
+        assertFalse(tree.search(new BigDecimal("1")));
+
+        assertTrue(tree.insert(new BigDecimal("1")));
+        assertTrue(tree.search(new BigDecimal("1.000")));
+        assertEquals(new BigDecimal("1"), tree.get(new BigDecimal("1.0")));
+    }
+}
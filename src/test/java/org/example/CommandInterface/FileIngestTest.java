@@ -0,0 +1,148 @@
+package org.example.CommandInterface;
+
+import org.example.AVL;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Scanner;
+
+public class FileIngestTest {
+
+    private static List<String> scannerLines(Path file) throws IOException {
+        List<String> lines = new ArrayList<>();
+        try (Scanner scanner = new Scanner(file, StandardCharsets.UTF_8)) {
+            while (scanner.hasNextLine()) {
+                lines.add(scanner.nextLine().trim());
+            }
+        }
+        return lines;
+    }
+
+    private static List<String> ingestedLines(Path file) throws IOException {
+        List<String> lines = new ArrayList<>();
+        FileIngest.Result result = FileIngest.run(file, lines::add);
+        assertEquals(lines.size(), result.lines);
+        assertEquals(Files.size(file), result.bytes);
+        return lines;
+    }
+
+    @Test
+    public void testSameLinesAsScanner() throws IOException {
+        Path file = Files.createTempFile("ingest", ".dat");
+        try {
+            String[] contents = {
+                    "",
+                    "single",
+                    "a\nb\n",
+                    "a\r\nb\r\n\r\nc",
+                    "\n\n  padded \t\n",
+                    "käse\n🌳 tree\nx",
+            };
+            for (String content : contents) {
+                Files.writeString(file, content);
+                assertEquals(scannerLines(file), ingestedLines(file));
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void testLinesAcrossBlocks() throws IOException {
+        Path file = Files.createTempFile("ingest", ".csv");
+        try {
+            // Lines straddle the 4 MB read blocks, one is longer than a block
+            StringBuilder content = new StringBuilder();
+            for (int i = 0; i < 400_000; i++) {
+                content.append("line-").append(i).append('\n');
+            }
+            content.append("x".repeat(5 << 20)).append('\n');
+            for (int i = 0; i < 10_000; i++) {
+                content.append("tail-").append(i).append("\r\n");
+            }
+            Files.writeString(file, content);
+            assertEquals(scannerLines(file), ingestedLines(file));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void testCountsAppliedAndSkipped() throws IOException {
+        Path file = Files.createTempFile("ingest", ".txt");
+        try {
+            Files.writeString(file, "b\na\nb\nc\na\n");
+            AVL<String> tree = new AVL<>();
+            FileIngest.Result result = FileIngest.run(file, tree::insert);
+            assertEquals(3, result.applied);
+            assertEquals(2, result.skipped);
+            assertEquals(3, tree.getSize());
+
+            result = FileIngest.run(file, tree::delete);
+            assertEquals(3, result.applied);
+            assertEquals(2, result.skipped);
+            assertEquals(0, tree.getSize());
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void testParserFailureReachesCaller() throws IOException {
+        Path dir = Files.createTempDirectory("ingest");
+        try {
+            List<String> lines = new ArrayList<>();
+            assertThrows(NoSuchFileException.class, () -> FileIngest.run(dir.resolve("missing.txt"), lines::add));
+            // Reading a directory fails after the file was opened
+            assertThrows(IOException.class, () -> FileIngest.run(dir, lines::add));
+            assertTrue(lines.isEmpty());
+        } finally {
+            Files.delete(dir);
+        }
+    }
+
+    @Test
+    public void testParserStopsWhenActionFails() throws Exception {
+        Path file = Files.createTempFile("ingest", ".txt");
+        try {
+            // Far more batches than the queue holds, so the parser is blocked
+            // on a full queue when the action fails
+            StringBuilder content = new StringBuilder();
+            for (int i = 0; i < 200_000; i++) content.append("line-").append(i).append('\n');
+            Files.writeString(file, content);
+            int[] seen = {0};
+            assertThrows(IllegalStateException.class, () -> FileIngest.run(file, line -> {
+                if (++seen[0] == 1000) {
+                    // Let the parser fill the queue first
+                    try {
+                        Thread.sleep(500);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    throw new IllegalStateException("action failed");
+                }
+                return true;
+            }));
+            long deadline = System.nanoTime() + 10_000_000_000L;
+            while (parserAlive() && System.nanoTime() < deadline) Thread.sleep(10);
+            assertFalse(parserAlive(), "ingest-parser thread still running");
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    private static boolean parserAlive() {
+        for (Thread thread : Thread.getAllStackTraces().keySet()) {
+            if (thread.getName().equals("ingest-parser") && thread.isAlive()) return true;
+        }
+        return false;
+    }
+}
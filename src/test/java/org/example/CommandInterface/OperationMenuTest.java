@@ -0,0 +1,108 @@
+package org.example.CommandInterface;
+
+import org.example.AVL;
+import org.example.RedBlack;
+import org.example.Tree;
+import org.example.WAVL;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Scanner;
+import java.util.function.Supplier;
+
+public class OperationMenuTest {
+
+    private static List<String> list(Tree<String> tree) {
+        List<String> keys = new ArrayList<>();
+        tree.forEach(keys::add);
+        return keys;
+    }
+
+    // Duplicates within the file and with the tree, blank and padded lines,
+    // and CRLF endings
+    private static String contents() {
+        Random random = new Random(17);
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 5000; i++) {
+            switch (random.nextInt(6)) {
+                case 0 -> content.append('\n');
+                case 1 -> content.append("  key").append(random.nextInt(3000)).append(" \r\n");
+                default -> content.append("key").append(random.nextInt(3000)).append('\n');
+            }
+        }
+        return content.append("last").toString();
+    }
+
+    // Bulk insert must count and store exactly what inserting the lines one
+    // by one would
+    private static void assertSameAsLineByLine(Supplier<Tree<String>> trees, Path file, int preloaded) throws IOException {
+        Tree<String> reference = trees.get();
+        Tree<String> bulk = trees.get();
+        for (int i = 0; i < preloaded; i++) {
+            reference.insert("key" + 2 * i);
+            bulk.insert("key" + 2 * i);
+        }
+        FileIngest.Result expected = FileIngest.run(file, reference::insert);
+
+        OperationMenu menu = new OperationMenu(new Scanner(""), bulk);
+        FileIngest.Result result = menu.bulkInsertStringsFromFile(file.toString());
+        assertEquals(expected.applied, result.applied);
+        assertEquals(expected.skipped, result.skipped);
+        assertEquals(expected.lines, result.lines);
+        assertEquals(expected.bytes, result.bytes);
+        assertSame(bulk.getClass(), menu.tree.getClass());
+        assertEquals(reference.getSize(), menu.tree.getSize());
+        assertEquals(list(reference), list(menu.tree));
+    }
+
+    @Test
+    public void testBulkInsertMatchesLineByLine() throws IOException {
+        Path file = Files.createTempFile("bulk", ".txt");
+        try {
+            Files.writeString(file, contents());
+            for (int preloaded : new int[]{0, 1000}) {
+                assertSameAsLineByLine(AVL::new, file, preloaded);
+                assertSameAsLineByLine(RedBlack::new, file, preloaded);
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void testFailingBatchKeepsMenuRunning() throws IOException {
+        Path file = Files.createTempFile("batch", ".txt");
+        PrintStream out = System.out;
+        ByteArrayOutputStream printed = new ByteArrayOutputStream();
+        try {
+            Files.writeString(file, "a\nb\ntoo long\nc\n");
+            Tree<String> tree = new WAVL<>() {
+                @Override
+                public boolean insert(String data) {
+                    if (data.length() > 4) throw new IllegalArgumentException("Key too long");
+                    return super.insert(data);
+                }
+            };
+            OperationMenu menu = new OperationMenu(new Scanner("bi " + file + "\ni d\nback\n"), tree);
+            System.setOut(new PrintStream(printed, true));
+            menu.excute();
+            System.setOut(out);
+            assertTrue(printed.toString().contains("Batch failed: Key too long"), printed.toString());
+            assertFalse(printed.toString().contains("Invalid Path"));
+            assertTrue(menu.nextState() instanceof IntitalizeMenu);
+            assertEquals(List.of("a", "b", "d"), list(tree));
+        } finally {
+            System.setOut(out);
+            Files.delete(file);
+        }
+    }
+}
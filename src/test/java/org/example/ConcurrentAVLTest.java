@@ -0,0 +1,145 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.StampedLock;
+import java.util.stream.Collectors;
+
+public class ConcurrentAVLTest {
+    private static final int WRITERS = 4;
+    private static final int READERS = 4;
+    private static final int STABLE = 10_000;
+
+    @Test
+    public void testSingleThreadedBehavesLikeAVL() {
+        ConcurrentAVL<Integer> tree = new ConcurrentAVL<>();
+        AVL<Integer> reference = new AVL<>();
+        Random random = new Random(1);
+        for (int i = 0; i < 5000; i++) {
+            int value = random.nextInt(2000);
+            if (random.nextBoolean()) assertEquals(reference.insert(value), tree.insert(value));
+            else assertEquals(reference.delete(value), tree.delete(value));
+        }
+        assertEquals(reference.getSize(), tree.getSize());
+        assertEquals(reference.getHeight(), tree.getHeight());
+        for (int value = -1; value <= 2001; value++) {
+            assertEquals(reference.search(value), tree.search(value));
+            assertEquals(reference.rank(value), tree.rank(value));
+            assertEquals(reference.floor(value), tree.floor(value));
+            assertEquals(reference.higher(value), tree.higher(value));
+        }
+        assertEquals(TreeChecks.list(reference.iterator()), TreeChecks.list(tree.iterator()));
+        assertEquals(TreeChecks.list(reference.descendingIterator(100, 900)), TreeChecks.list(tree.descendingIterator(100, 900)));
+        assertEquals(reference.select(10), tree.select(10));
+    }
+
+    // Writers churn disjoint odd ranges while readers check that the even
+    // keys, which are never touched, are always found and that keys outside
+    // every range are never found
+    @Test
+    public void testLookupsDoNotQueueOnTheLock() throws Exception {
+        ConcurrentAVL<Integer> tree = new ConcurrentAVL<>();
+        for (int i = 0; i < 1000; i++) tree.insert(i);
+        Field field = ConcurrentAVL.class.getDeclaredField("lock");
+        field.setAccessible(true);
+        StampedLock lock = (StampedLock) field.get(tree);
+
+        // While a writer holds the lock, lookups keep retrying instead of
+        // parking on it, and finish as soon as it is released
+        long stamp = lock.writeLock();
+        BitSet[] found = new BitSet[1];
+        Thread reader = new Thread(() -> found[0] = tree.searchAll(new Integer[]{1, 5000, 999}));
+        reader.start();
+        Thread.sleep(200);
+        assertTrue(reader.isAlive());
+        assertNotEquals(Thread.State.WAITING, reader.getState());
+        assertEquals(0, lock.getReadLockCount());
+        lock.unlockWrite(stamp);
+        reader.join(10_000);
+        assertFalse(reader.isAlive());
+        assertEquals(Set.of(0, 2), found[0].stream().boxed().collect(Collectors.toSet()));
+    }
+
+    @Test
+    public void testReadersNeverMissStableKeys() throws InterruptedException {
+        ConcurrentAVL<Integer> tree = new ConcurrentAVL<>();
+        for (int i = 0; i < STABLE; i++) tree.insert(2 * i);
+
+        AtomicBoolean done = new AtomicBoolean();
+        CountDownLatch start = new CountDownLatch(1);
+        ConcurrentLinkedQueue<String> failures = new ConcurrentLinkedQueue<>();
+        List<Thread> threads = new ArrayList<>();
+
+        int span = 2 * STABLE / WRITERS;
+        for (int w = 0; w < WRITERS; w++) {
+            int low = w * span;
+            threads.add(new Thread(() -> {
+                Random random = new Random(low);
+                await(start);
+                for (int i = 0; i < 20_000; i++) {
+                    int odd = (low + random.nextInt(span)) | 1;
+                    if (random.nextBoolean()) tree.insert(odd);
+                    else tree.delete(odd);
+                }
+                // Leave every odd key of this range inserted
+                for (int odd = low | 1; odd < low + span; odd += 2) tree.insert(odd);
+            }));
+        }
+        for (int r = 0; r < READERS; r++) {
+            int seed = r;
+            threads.add(new Thread(() -> {
+                Random random = new Random(seed);
+                await(start);
+                while (!done.get()) {
+                    int even = 2 * random.nextInt(STABLE);
+                    if (!tree.search(even)) failures.add("missed " + even);
+                    if (!Integer.valueOf(even).equals(tree.ceiling(even))) failures.add("ceiling " + even);
+                    if (tree.search(-1 - even)) failures.add("found " + (-1 - even));
+                    if (tree.rank(even) < even / 2) failures.add("rank " + even);
+                }
+            }));
+        }
+
+        threads.forEach(Thread::start);
+        start.countDown();
+        for (Thread thread : threads.subList(0, WRITERS)) thread.join();
+        done.set(true);
+        for (Thread thread : threads) thread.join();
+
+        assertTrue(failures.isEmpty(), String.valueOf(failures.peek()));
+        assertEquals(2 * STABLE, tree.getSize());
+        Iterator<Integer> iterator = tree.iterator();
+        for (int i = 0; i < 2 * STABLE; i++) assertEquals(i, iterator.next());
+        assertFalse(iterator.hasNext());
+        assertBalanced(tree.getRoot());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static int assertBalanced(AVLNode<Integer> node) {
+        if (node == null) return 0;
+        int left = assertBalanced(node.left);
+        int right = assertBalanced(node.right);
+        assertTrue(Math.abs(left - right) <= 1);
+        assertEquals(Math.max(left, right) + 1, node.height);
+        return node.height;
+    }
+}
@@ -0,0 +1,108 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+public class FilteredTreeTest {
+
+    @Test
+    public void testNoFalseNegativesThroughGrowthAndDeletes() {
+        FilteredTree<Integer> tree = new FilteredTree<>(new RedBlack<Integer>(), Object::hashCode, 0.01);
+        TreeSet<Integer> reference = new TreeSet<>();
+        Random random = new Random(5);
+        long hits = 0;
+        for (int round = 0; round < 4; round++) {
+            for (int i = 0; i < 20000; i++) {
+                int value = random.nextInt(40000);
+                if (round % 2 == 0 ? random.nextInt(4) > 0 : random.nextInt(4) == 0) {
+                    assertEquals(reference.add(value), tree.insert(value));
+                } else {
+                    assertEquals(reference.remove(value), tree.delete(value));
+                }
+            }
+            for (int value = -10; value < 40010; value++) {
+                boolean found = tree.search(value);
+                assertEquals(reference.contains(value), found, "search " + value);
+                if (found) hits++;
+            }
+        }
+        assertTrue(tree.rebuilds() > 0);
+        assertEquals(reference.size(), tree.getSize());
+        // Every lookup is a hit, an avoided descent or a false positive
+        assertEquals(tree.lookups(), hits + tree.avoidedDescents() + tree.falsePositives());
+    }
+
+    @Test
+    public void testFalsePositiveRateIsNearTheTarget() {
+        for (double rate : new double[]{0.1, 0.01, 0.001}) {
+            FilteredTree<Integer> tree = new FilteredTree<>(new AVL<Integer>(), Object::hashCode, rate);
+            for (int i = 0; i < 100000; i++) tree.insert(2 * i);
+            tree.resetCounters();
+            for (int i = 0; i < 100000; i++) assertFalse(tree.search(2 * i + 1));
+            double measured = (double) tree.falsePositives() / tree.lookups();
+            // The filter is sized for up to twice its keys, so it does better
+            assertTrue(measured < 1.5 * rate, "rate " + rate + " measured " + measured);
+            assertEquals(tree.lookups(), tree.avoidedDescents() + tree.falsePositives());
+        }
+    }
+
+    @Test
+    public void testBatchOperations() {
+        FilteredTree<Integer> tree = new FilteredTree<>(new AVL<Integer>(), Object::hashCode);
+        Integer[] keys = new Integer[5000];
+        for (int i = 0; i < keys.length; i++) keys[i] = 3 * i;
+        assertEquals(keys.length, tree.insertAll(keys));
+        assertEquals(0, tree.insertAll(keys));
+
+        Integer[] probes = new Integer[15000];
+        for (int i = 0; i < probes.length; i++) probes[i] = i;
+        BitSet found = tree.searchAll(probes);
+        for (int i = 0; i < probes.length; i++) assertEquals(i % 3 == 0, found.get(i));
+        assertTrue(tree.avoidedDescents() > 9000);
+
+        Integer[] removed = new Integer[2500];
+        for (int i = 0; i < removed.length; i++) removed[i] = 6 * i;
+        assertEquals(removed.length, tree.deleteAll(removed));
+        for (int i = 0; i < 15000; i++) assertEquals(i % 6 == 3, tree.search(i));
+        List<Integer> values = new ArrayList<>();
+        tree.forEach(values::add);
+        assertEquals(2500, values.size());
+    }
+
+    @Test
+    public void testWrapsExistingKeysAndRejectsBadRates() {
+        AVL<String> avl = new AVL<>();
+        avl.insert("x");
+        FilteredTree<String> tree = new FilteredTree<>(avl, Object::hashCode);
+        assertTrue(tree.search("x"));
+        assertFalse(tree.search("y"));
+        assertThrows(IllegalArgumentException.class, () -> new FilteredTree<>(new AVL<String>(), Object::hashCode, 0));
+        assertThrows(IllegalArgumentException.class, () -> new FilteredTree<>(new AVL<String>(), Object::hashCode, 1));
+    }
+
+    @Test
+    public void testKeysEqualByCompareToButNotEquals() {
+        // 1.0 and 1.00 compare equal but have different hashCodes; hashing
+        // the stripped value keeps the filter consistent with compareTo
+        AVL<BigDecimal> avl = new AVL<>();
+        avl.insert(new BigDecimal("1.0"));
+        FilteredTree<BigDecimal> tree = new FilteredTree<>(avl, key -> key.stripTrailingZeros().hashCode());
+        assertTrue(avl.search(new BigDecimal("1.00")));
+        assertTrue(tree.search(new BigDecimal("1.00")));
+        assertEquals(new BigDecimal("1.0"), tree.get(new BigDecimal("1")));
+
+        assertTrue(tree.insert(new BigDecimal("2.50")));
+        assertTrue(tree.search(new BigDecimal("2.5")));
+        assertTrue(tree.delete(new BigDecimal("1")));
+        assertFalse(tree.search(new BigDecimal("1.0")));
+        assertEquals(0, tree.falsePositives());
+    }
+}
@@ -0,0 +1,222 @@
+package org.example;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.BufferedReader;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.function.BiFunction;
+import java.util.stream.Stream;
+
+public class LoggedTreeTest {
+    private Path dir;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("logged-tree");
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(dir)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) Files.delete(file);
+        }
+    }
+
+    @Test
+    public void testReopenReplaysLogOntoSnapshot() throws IOException {
+        TreeSet<Integer> expected = new TreeSet<>();
+        Random random = new Random(41);
+        try (LoggedTree<Integer> tree = new LoggedTree<>(dir, KeyCodec.INTEGER, AVL::fromSorted, 5, 4096)) {
+            for (int i = 0; i < 3000; i++) {
+                int key = random.nextInt(1000);
+                if (random.nextBoolean()) assertEquals(expected.add(key), tree.insert(key));
+                else assertEquals(expected.remove(key), tree.delete(key));
+                if (i == 1500) tree.checkpoint();
+            }
+            // Group commit: far fewer fsyncs than logged mutations
+            assertTrue(tree.syncCount() < 500);
+        }
+        try (LoggedTree<Integer> tree = new LoggedTree<>(dir, KeyCodec.INTEGER, RedBlack::fromSorted)) {
+            assertTrue(tree.replayedRecords() > 0);
+            assertEquals(new ArrayList<>(expected), TreeChecks.list(tree.iterator()));
+            assertEquals(expected.size(), tree.getSize());
+        }
+    }
+
+    @Test
+    public void testCheckpointEmptiesLog() throws IOException {
+        try (LoggedTree<String> tree = new LoggedTree<>(dir, KeyCodec.STRING, AVL::fromSorted)) {
+            for (int i = 0; i < 100; i++) tree.insert("key" + i);
+            assertFalse(tree.insert("key5"));
+            tree.sync();
+            assertTrue(tree.logBytes() > 0);
+            tree.checkpoint();
+            assertEquals(0, tree.logBytes());
+            tree.delete("key0");
+        }
+        try (LoggedTree<String> tree = new LoggedTree<>(dir, KeyCodec.STRING, AVL::fromSorted)) {
+            assertEquals(1, tree.replayedRecords());
+            assertEquals(99, tree.getSize());
+            assertFalse(tree.search("key0"));
+        }
+    }
+
+    @Test
+    public void testTornTailIsDiscarded() throws IOException {
+        try (LoggedTree<Long> tree = new LoggedTree<>(dir, KeyCodec.LONG, AVL::fromSorted, 0, 1)) {
+            for (long i = 0; i < 10; i++) tree.insert(i);
+        }
+        // Each record: 8 byte header, op byte, 8 byte key
+        Path wal = dir.resolve("wal");
+        assertEquals(170, Files.size(wal));
+        try (RandomAccessFile file = new RandomAccessFile(wal.toFile(), "rw")) {
+            file.setLength(170 - 5);
+        }
+        try (LoggedTree<Long> tree = new LoggedTree<>(dir, KeyCodec.LONG, AVL::fromSorted)) {
+            assertEquals(9, tree.getSize());
+            assertFalse(tree.search(9L));
+            // The torn record is cut off, so new records follow intact ones
+            tree.insert(100L);
+        }
+        // A flipped bit in the last record fails its checksum
+        try (RandomAccessFile file = new RandomAccessFile(wal.toFile(), "rw")) {
+            file.seek(Files.size(wal) - 1);
+            file.write(0x7f);
+        }
+        try (LoggedTree<Long> tree = new LoggedTree<>(dir, KeyCodec.LONG, AVL::fromSorted)) {
+            assertEquals(9, tree.getSize());
+            assertFalse(tree.search(100L));
+        }
+    }
+
+    @Test
+    public void testFailedAppendLeavesTreeUnchanged() throws IOException {
+        boolean[] failing = {false};
+        KeyCodec<Integer> codec = new KeyCodec<>() {
+            @Override
+            public byte id() {
+                return KeyCodec.INTEGER.id();
+            }
+
+            @Override
+            public void write(DataOutput out, Integer key) throws IOException {
+                if (failing[0]) throw new IOException("disk full");
+                KeyCodec.INTEGER.write(out, key);
+            }
+
+            @Override
+            public Integer read(DataInput in) throws IOException {
+                return KeyCodec.INTEGER.read(in);
+            }
+        };
+        try (LoggedTree<Integer> tree = new LoggedTree<>(dir, codec, AVL::fromSorted, 0, 1)) {
+            for (int i = 0; i < 10; i++) tree.insert(i);
+            failing[0] = true;
+            assertThrows(UncheckedIOException.class, () -> tree.insert(10));
+            assertThrows(UncheckedIOException.class, () -> tree.delete(5));
+            assertEquals(List.of(0, 1, 2, 3, 4, 5, 6, 7, 8, 9), TreeChecks.list(tree.iterator()));
+            // No-op mutations are not logged, so they cannot fail
+            assertFalse(tree.insert(3));
+            assertFalse(tree.delete(42));
+            failing[0] = false;
+        }
+        try (LoggedTree<Integer> tree = new LoggedTree<>(dir, KeyCodec.INTEGER, AVL::fromSorted)) {
+            assertEquals(List.of(0, 1, 2, 3, 4, 5, 6, 7, 8, 9), TreeChecks.list(tree.iterator()));
+        }
+    }
+
+    @Test
+    public void testBatchesOnBPlusTree() throws IOException {
+        // BPlusTree has no binary nodes, so nothing may fall back to the
+        // node-walking Tree defaults
+        BiFunction<Iterator<Integer>, Integer, Tree<Integer>> builder = (keys, count) -> {
+            BPlusTree<Integer> tree = new BPlusTree<>(8);
+            keys.forEachRemaining(tree::insert);
+            return tree;
+        };
+        TreeSet<Integer> expected = new TreeSet<>();
+        Random random = new Random(43);
+        try (LoggedTree<Integer> tree = new LoggedTree<>(dir, KeyCodec.INTEGER, builder)) {
+            for (int round = 0; round < 20; round++) {
+                Integer[] batch = new Integer[200];
+                for (int i = 0; i < batch.length; i++) batch[i] = random.nextInt(1000);
+                int changed = 0;
+                if (round % 3 == 2) {
+                    for (Integer key : batch) if (expected.remove(key)) changed++;
+                    assertEquals(changed, tree.deleteAll(batch));
+                } else {
+                    for (Integer key : batch) if (expected.add(key)) changed++;
+                    assertEquals(changed, tree.insertAll(batch));
+                }
+                BitSet found = tree.searchAll(batch);
+                for (int i = 0; i < batch.length; i++) assertEquals(expected.contains(batch[i]), found.get(i));
+                assertEquals(expected.subSet(100, true, 600, true).size(), tree.countRange(100, 600));
+            }
+            tree.checkpoint();
+            tree.insertAll(new Integer[]{-1, -2, -1});
+            expected.add(-1);
+            expected.add(-2);
+        }
+        try (LoggedTree<Integer> tree = new LoggedTree<>(dir, KeyCodec.INTEGER, builder)) {
+            assertEquals(2, tree.replayedRecords());
+            assertEquals(new ArrayList<>(expected), TreeChecks.list(tree.iterator()));
+        }
+    }
+
+    // Child process for the kill test: inserts ascending keys forever and
+    // reports each key once it has been synced
+    public static void main(String[] args) throws IOException {
+        try (LoggedTree<Integer> tree = new LoggedTree<>(Path.of(args[0]), KeyCodec.INTEGER, AVL::fromSorted, 2, 1 << 16)) {
+            for (int key = 0; ; key++) {
+                tree.insert(key);
+                if (key % 100 == 0) {
+                    tree.sync();
+                    System.out.println(key);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testKilledWriterKeepsSyncedPrefix() throws Exception {
+        String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+        Process child = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+                LoggedTreeTest.class.getName(), dir.toString()).redirectErrorStream(true).start();
+        int synced = -1;
+        try (BufferedReader out = new BufferedReader(new InputStreamReader(child.getInputStream()))) {
+            String line;
+            while (synced < 20000 && (line = out.readLine()) != null) {
+                synced = Integer.parseInt(line.trim());
+            }
+            // SIGKILL in the middle of appending
+            child.destroyForcibly().waitFor();
+        }
+        assertTrue(synced >= 20000);
+
+        try (LoggedTree<Integer> tree = new LoggedTree<>(dir, KeyCodec.INTEGER, AVL::fromSorted)) {
+            int size = tree.getSize();
+            assertTrue(size > synced);
+            // Exactly the keys 0 .. size-1, with nothing after a gap
+            assertEquals(0, tree.first());
+            assertEquals(size - 1, tree.last());
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package org.example;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.stream.Stream;
+
+public class MappedTreeTest {
+    private Path dir;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("mapped-tree");
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(dir)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) Files.delete(file);
+        }
+    }
+
+    private static MappedTree open(boolean avl, Path path) throws IOException {
+        return avl ? new MappedAVL(path) : new MappedRedBlack(path);
+    }
+
+    private static List<String> contents(Tree<String> tree) {
+        List<String> keys = new ArrayList<>();
+        for (String key : tree) keys.add(key);
+        return keys;
+    }
+
+    @Test
+    public void testMatchesTreeSetAcrossReopen() throws IOException {
+        for (boolean avl : new boolean[]{true, false}) {
+            Path path = dir.resolve(avl ? "avl.tree" : "rb.tree");
+            TreeSet<String> expected = new TreeSet<>();
+            Random random = new Random(21);
+            try (MappedTree tree = open(avl, path)) {
+                tree.setAutoCommit(false);
+                for (int i = 0; i < 6000; i++) {
+                    String key = "k" + random.nextInt(1500);
+                    if (random.nextInt(3) > 0) assertEquals(expected.add(key), tree.insert(key));
+                    else assertEquals(expected.remove(key), tree.delete(key));
+                    if (i % 500 == 0) assertValid(tree, tree.root);
+                }
+                assertValid(tree, tree.root);
+            }
+            try (MappedTree tree = open(avl, path)) {
+                assertEquals(expected.size(), tree.getSize());
+                assertEquals(new ArrayList<>(expected), contents(tree));
+                assertEquals(expected.first(), tree.first());
+                assertEquals(expected.ceiling("k7"), tree.ceiling("k7"));
+                assertEquals(expected.headSet("k5").size(), tree.rank("k5"));
+                assertEquals(new ArrayList<>(expected).get(10), tree.select(10));
+                assertEquals(expected.contains("k1") ? "k1" : null, tree.get("k1"));
+                assertFalse(tree.search("missing"));
+            }
+        }
+    }
+
+    @Test
+    public void testUncommittedChangesAreLostOnCrash() throws IOException {
+        for (boolean avl : new boolean[]{true, false}) {
+            Path path = dir.resolve(avl ? "avl.tree" : "rb.tree");
+            Path crashed = dir.resolve(avl ? "avl.crashed" : "rb.crashed");
+            try (MappedTree tree = open(avl, path)) {
+                tree.setAutoCommit(false);
+                for (int i = 0; i < 1000; i++) tree.insert("a" + i);
+                tree.commit();
+                // Rotations and deletions after the commit only reach the
+                // appended region, never the committed nodes
+                for (int i = 0; i < 1000; i++) tree.insert("b" + i);
+                for (int i = 0; i < 500; i++) tree.delete("a" + i);
+                // The on-disk state at a crash: data written, header not
+                Files.copy(path, crashed);
+            }
+            try (MappedTree tree = open(avl, crashed)) {
+                assertEquals(1000, tree.getSize());
+                assertTrue(tree.search("a0"));
+                assertFalse(tree.search("b0"));
+                assertValid(tree, tree.root);
+                // New writes overwrite the torn tail
+                assertTrue(tree.insert("c"));
+            }
+            try (MappedTree tree = open(avl, crashed)) {
+                assertEquals(1001, tree.getSize());
+                assertTrue(tree.search("c"));
+                assertValid(tree, tree.root);
+            }
+        }
+    }
+
+    @Test
+    public void testDamagedHeaderFallsBackToPreviousCommit() throws IOException {
+        Path path = dir.resolve("avl.tree");
+        try (MappedTree tree = new MappedAVL(path)) {
+            tree.insert("x");
+            tree.insert("y");
+        }
+        // Generation 2 (the "y" commit) lives in slot 0; break its checksum
+        try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw")) {
+            file.seek(8);
+            file.writeLong(99);
+        }
+        try (MappedTree tree = new MappedAVL(path)) {
+            assertEquals(List.of("x"), contents(tree));
+        }
+    }
+
+    @Test
+    public void testCrashWhileCreatingLeavesNoUnopenableFile() throws IOException {
+        Path path = dir.resolve("avl.tree");
+        // A crash before the rename leaves only the temporary file behind
+        Path temporary = dir.resolve("avl.tree.new");
+        Files.write(temporary, new byte[1 << 20]);
+        try (MappedTree tree = new MappedAVL(path)) {
+            assertEquals(0, tree.getSize());
+            tree.insert("x");
+        }
+        assertFalse(Files.exists(temporary));
+        try (MappedTree tree = new MappedAVL(path)) {
+            assertEquals(List.of("x"), contents(tree));
+        }
+    }
+
+    @Test
+    public void testRejectsForeignFiles() throws IOException {
+        Path path = dir.resolve("avl.tree");
+        new MappedAVL(path).close();
+        assertThrows(IOException.class, () -> new MappedRedBlack(path));
+
+        Path text = dir.resolve("words.txt");
+        Files.writeString(text, "x".repeat(500));
+        assertThrows(IOException.class, () -> new MappedAVL(text));
+        // A foreign file is left untouched
+        assertEquals(500, Files.size(text));
+    }
+
+    @Test
+    public void testCompactKeepsTreeAndDropsOldVersions() throws IOException {
+        for (boolean avl : new boolean[]{true, false}) {
+            Path path = dir.resolve(avl ? "avl.tree" : "rb.tree");
+            try (MappedTree tree = open(avl, path)) {
+                for (int i = 0; i < 2000; i++) tree.insert("k" + i);
+                for (int i = 0; i < 2000; i += 2) tree.delete("k" + i);
+                List<String> before = contents(tree);
+                int height = tree.getHeight();
+                long bytes = tree.fileBytes();
+                tree.compact();
+                assertTrue(tree.fileBytes() < bytes / 5);
+                assertEquals(before, contents(tree));
+                assertEquals(height, tree.getHeight());
+                assertTrue(tree.insert("k0"));
+            }
+            try (MappedTree tree = open(avl, path)) {
+                assertEquals(1001, tree.getSize());
+                assertValid(tree, tree.root);
+            }
+        }
+    }
+
+    // Checks AVL balance or the left-leaning red-black rules, and the
+    // cached sizes and heights; returns the height
+    private static int assertValid(MappedTree tree, long node) {
+        if (node == MappedTree.NIL) return 0;
+        long left = tree.left(node);
+        long right = tree.right(node);
+        int leftHeight = assertValid(tree, left);
+        int rightHeight = assertValid(tree, right);
+        if (tree instanceof MappedAVL) {
+            assertTrue(Math.abs(leftHeight - rightHeight) <= 1);
+        } else {
+            assertFalse(tree.isRed(right));
+            assertFalse(tree.isRed(node) && tree.isRed(left));
+            assertEquals(blackHeight(tree, left), blackHeight(tree, right));
+        }
+        assertEquals(1 + tree.sizeOf(left) + tree.sizeOf(right), tree.sizeOf(node));
+        assertEquals(1 + Math.max(leftHeight, rightHeight), tree.heightOf(node));
+        return tree.heightOf(node);
+    }
+
+    private static int blackHeight(MappedTree tree, long node) {
+        int height = 0;
+        for (; node != MappedTree.NIL; node = tree.left(node)) {
+            if (!tree.isRed(node)) height++;
+        }
+        return height;
+    }
+}
@@ -0,0 +1,164 @@
+package org.example;
+
+import org.example.PersistentTree.PersistentNode;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class PersistentTreeTest {
+
+    // Checks the AVL balance and the cached heights and sizes; returns the height
+    private static int assertAvl(PersistentNode<Integer> node) {
+        if (node == null) return 0;
+        int left = assertAvl(node.left);
+        int right = assertAvl(node.right);
+        assertTrue(Math.abs(left - right) <= 1);
+        assertEquals(1 + Math.max(left, right), node.height);
+        assertEquals(1 + PersistentTree.sizeOf(node.left) + PersistentTree.sizeOf(node.right), node.size);
+        return node.height;
+    }
+
+    // Checks the left-leaning red-black rules; returns the black height
+    private static int assertLeftLeaning(PersistentNode<Integer> node) {
+        if (node == null) return 0;
+        assertFalse(PersistentTree.isRed(node.right));
+        assertFalse(node.red && PersistentTree.isRed(node.left));
+        int left = assertLeftLeaning(node.left);
+        assertEquals(left, assertLeftLeaning(node.right));
+        assertEquals(1 + PersistentTree.sizeOf(node.left) + PersistentTree.sizeOf(node.right), node.size);
+        return left + (node.red ? 0 : 1);
+    }
+
+    private static PersistentTree<Integer> create(boolean avl) {
+        return avl ? new PersistentAVL<>() : new PersistentRedBlack<>();
+    }
+
+    private static PersistentTree<Integer> snapshot(PersistentTree<Integer> tree) {
+        return tree instanceof PersistentAVL<Integer> avl ? avl.snapshot() : ((PersistentRedBlack<Integer>) tree).snapshot();
+    }
+
+    @Test
+    public void testBehavesLikeASet() {
+        TreeChecks.assertBehavesLikeASet(new PersistentAVL<>(), 20, tree -> assertAvl(tree.getRoot()));
+        TreeChecks.assertBehavesLikeASet(new PersistentRedBlack<>(), 20, tree -> {
+            assertFalse(PersistentTree.isRed(tree.getRoot()));
+            assertLeftLeaning(tree.getRoot());
+        });
+    }
+
+    @Test
+    public void testSnapshotsAreUnaffectedByLaterChanges() {
+        for (boolean avl : new boolean[]{true, false}) {
+            PersistentTree<Integer> tree = create(avl);
+            TreeSet<Integer> reference = new TreeSet<>();
+            List<PersistentTree<Integer>> versions = new ArrayList<>();
+            List<List<Integer>> contents = new ArrayList<>();
+            Random random = new Random(21);
+            for (int i = 0; i < 5000; i++) {
+                int value = random.nextInt(1000);
+                if (random.nextBoolean()) {
+                    tree.insert(value);
+                    reference.add(value);
+                } else {
+                    tree.delete(value);
+                    reference.remove(value);
+                }
+                if (i % 250 == 0) {
+                    versions.add(snapshot(tree));
+                    contents.add(List.copyOf(reference));
+                }
+            }
+            for (int v = 0; v < versions.size(); v++) {
+                assertEquals(contents.get(v), TreeChecks.list(versions.get(v).iterator()));
+                assertEquals(contents.get(v).size(), versions.get(v).getSize());
+            }
+
+            // A snapshot can be changed on its own
+            PersistentTree<Integer> fork = versions.get(3);
+            List<Integer> before = TreeChecks.list(tree.iterator());
+            for (int value = 0; value < 1000; value++) fork.insert(value);
+            assertEquals(1000, fork.getSize());
+            assertEquals(before, TreeChecks.list(tree.iterator()));
+            assertEquals(contents.get(4), TreeChecks.list(versions.get(4).iterator()));
+        }
+    }
+
+    @Test
+    public void testVersionsShareNodes() {
+        for (boolean avl : new boolean[]{true, false}) {
+            PersistentTree<Integer> tree = create(avl);
+            for (int i = 0; i < 10_000; i++) tree.insert(i);
+            Map<Object, Boolean> nodes = new IdentityHashMap<>();
+            collect(tree.getRoot(), nodes);
+            int versions = 100;
+            for (int v = 0; v < versions; v++) {
+                tree.insert(10_000 + v);
+                collect(snapshot(tree).getRoot(), nodes);
+            }
+            // Each version adds one path of new nodes, not a whole copy
+            int height = tree.getHeight();
+            assertTrue(nodes.size() <= 10_000 + versions * (2 * height + 4), "nodes: " + nodes.size());
+        }
+    }
+
+    private static void collect(PersistentNode<Integer> node, Map<Object, Boolean> nodes) {
+        if (node == null || nodes.put(node, Boolean.TRUE) != null) return;
+        collect(node.left, nodes);
+        collect(node.right, nodes);
+    }
+
+    // A writer churns the odd keys while readers take snapshots and check
+    // that each is a consistent version: sizes and iteration agree and every
+    // even key is there
+    @Test
+    public void testLockFreeReadersSeeConsistentVersions() throws InterruptedException {
+        for (boolean avl : new boolean[]{true, false}) {
+            PersistentTree<Integer> tree = create(avl);
+            for (int i = 0; i < 2000; i++) tree.insert(2 * i);
+            AtomicBoolean done = new AtomicBoolean();
+            AtomicReference<String> failure = new AtomicReference<>();
+
+            Thread writer = new Thread(() -> {
+                Random random = new Random(22);
+                while (!done.get()) {
+                    int odd = 2 * random.nextInt(2000) + 1;
+                    if (random.nextBoolean()) tree.insert(odd);
+                    else tree.delete(odd);
+                }
+            });
+            List<Thread> readers = new ArrayList<>();
+            for (int r = 0; r < 3; r++) {
+                readers.add(new Thread(() -> {
+                    for (int round = 0; round < 300 && failure.get() == null; round++) {
+                        PersistentTree<Integer> version = snapshot(tree);
+                        List<Integer> keys = TreeChecks.list(version.iterator());
+                        int evens = 0;
+                        for (int key : keys) if (key % 2 == 0) evens++;
+                        if (keys.size() != version.getSize() || evens != 2000) {
+                            failure.set("size " + version.getSize() + ", iterated " + keys.size() + ", evens " + evens);
+                        }
+                        List<Integer> sorted = new ArrayList<>(keys);
+                        Collections.sort(sorted);
+                        if (!sorted.equals(keys)) failure.set("iteration out of order");
+                    }
+                }));
+            }
+            writer.start();
+            readers.forEach(Thread::start);
+            for (Thread reader : readers) reader.join();
+            done.set(true);
+            writer.join();
+            assertNull(failure.get());
+        }
+    }
+}
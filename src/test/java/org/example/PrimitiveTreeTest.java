@@ -0,0 +1,137 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+import java.util.TreeSet;
+
+public class PrimitiveTreeTest {
+
+    // The primitive trees run the same algorithms as the generic ones, so
+    // besides the contents even the heights must match after every step
+    @Test
+    public void testIntAVLMatchesAVL() {
+        IntAVL tree = new IntAVL(4);
+        AVL<Integer> reference = new AVL<>();
+        Random random = new Random(11);
+        for (int i = 0; i < 20000; i++) {
+            int value = random.nextInt(3000) - 1500;
+            if (random.nextInt(3) > 0) assertEquals(reference.insert(value), tree.insert(value));
+            else assertEquals(reference.delete(value), tree.delete(value));
+            assertEquals(reference.getHeight(), tree.getHeight());
+        }
+        assertEquals(reference.getSize(), tree.getSize());
+        for (int value = -1501; value <= 1501; value++) {
+            assertEquals(reference.search(value), tree.search(value));
+        }
+        int[] expected = new int[reference.getSize()];
+        int i = 0;
+        for (int value : reference) expected[i++] = value;
+        assertArrayEquals(expected, tree.toArray());
+    }
+
+    @Test
+    public void testLongRedBlackMatchesRedBlack() {
+        LongRedBlack tree = new LongRedBlack(4);
+        RedBlack<Long> reference = new RedBlack<>();
+        Random random = new Random(12);
+        for (int i = 0; i < 20000; i++) {
+            long value = (random.nextInt(3000) - 1500) * 1_000_000_007L;
+            if (random.nextInt(3) > 0) assertEquals(reference.insert(value), tree.insert(value));
+            else assertEquals(reference.delete(value), tree.delete(value));
+            assertEquals(reference.getHeight(), tree.getHeight());
+        }
+        assertEquals(reference.getSize(), tree.getSize());
+        long[] expected = new long[reference.getSize()];
+        int i = 0;
+        for (long value : reference) expected[i++] = value;
+        assertArrayEquals(expected, tree.toArray());
+    }
+
+    @Test
+    public void testDeletedSlotsAreReused() {
+        IntAVL avl = new IntAVL(8);
+        LongRedBlack rb = new LongRedBlack(8);
+        TreeSet<Integer> expected = new TreeSet<>();
+        for (int round = 0; round < 100; round++) {
+            for (int i = 0; i < 8; i++) {
+                assertTrue(avl.insert(round * 8 + i));
+                assertTrue(rb.insert(round * 8 + i));
+                expected.add(round * 8 + i);
+            }
+            for (int i = 0; i < 8; i++) {
+                assertTrue(avl.delete(round * 8 + i));
+                assertTrue(rb.delete(round * 8 + i));
+                expected.remove(round * 8 + i);
+            }
+        }
+        assertEquals(8, avl.capacity());
+        assertEquals(8, rb.capacity());
+        assertEquals(0, avl.getSize());
+        assertEquals(0, rb.getHeight());
+        assertTrue(expected.isEmpty());
+    }
+
+    @Test
+    public void testExtremeKeys() {
+        IntAVL avl = new IntAVL();
+        LongRedBlack rb = new LongRedBlack();
+        assertTrue(avl.insert(Integer.MIN_VALUE));
+        assertTrue(avl.insert(Integer.MAX_VALUE));
+        assertTrue(rb.insert(Long.MIN_VALUE));
+        assertTrue(rb.insert(Long.MAX_VALUE));
+        assertFalse(avl.insert(Integer.MAX_VALUE));
+        assertFalse(rb.insert(Long.MIN_VALUE));
+        assertArrayEquals(new int[]{Integer.MIN_VALUE, Integer.MAX_VALUE}, avl.toArray());
+        assertArrayEquals(new long[]{Long.MIN_VALUE, Long.MAX_VALUE}, rb.toArray());
+        assertFalse(avl.search(0));
+        assertFalse(rb.delete(0));
+    }
+
+    @Test
+    public void testOffHeapRedBlackMatchesRedBlack() {
+        RedBlack<Long> reference = new RedBlack<>();
+        Random random = new Random(13);
+        try (OffHeapRedBlack tree = new OffHeapRedBlack()) {
+            for (int i = 0; i < 20000; i++) {
+                long value = (random.nextInt(3000) - 1500) * 1_000_000_007L;
+                if (random.nextInt(3) > 0) assertEquals(reference.insert(value), tree.insert(value));
+                else assertEquals(reference.delete(value), tree.delete(value));
+                assertEquals(reference.getHeight(), tree.getHeight());
+            }
+            assertEquals(reference.getSize(), tree.getSize());
+            long[] expected = new long[reference.getSize()];
+            int i = 0;
+            for (long value : reference) expected[i++] = value;
+            assertArrayEquals(expected, tree.toArray());
+        }
+    }
+
+    @Test
+    public void testOffHeapRedBlackGrowsByChunks() {
+        OffHeapRedBlack tree = new OffHeapRedBlack();
+        long chunk = tree.reservedBytes();
+        for (long key = 0; key < 200_000; key++) assertTrue(tree.insert(key * 3));
+        assertEquals(4 * chunk, tree.reservedBytes());
+        for (long key = 0; key < 200_000; key += 2) assertTrue(tree.delete(key * 3));
+        // Freed slots are reused before new chunks are added
+        for (long key = 0; key < 100_000; key++) assertTrue(tree.insert(key * 3 + 1));
+        assertEquals(4 * chunk, tree.reservedBytes());
+        assertEquals(200_000, tree.getSize());
+        assertTrue(tree.search(3));
+        assertFalse(tree.search(6));
+        assertTrue(tree.getHeight() <= 2 * 18);
+
+        tree.close();
+        tree.close();
+        assertThrows(IllegalStateException.class, () -> tree.insert(1));
+        assertThrows(IllegalStateException.class, () -> tree.delete(3));
+        assertThrows(IllegalStateException.class, () -> tree.search(3));
+        assertThrows(IllegalStateException.class, tree::getSize);
+        assertThrows(IllegalStateException.class, tree::getHeight);
+        assertThrows(IllegalStateException.class, tree::toArray);
+        assertThrows(IllegalStateException.class, tree::reservedBytes);
+    }
+}
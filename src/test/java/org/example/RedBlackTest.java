@@ -4,6 +4,11 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
 public class RedBlackTest {
 
     private RedBlack<Integer> tree;
@@ -18,7 +23,7 @@ public class RedBlackTest {
         assertTrue(tree.insert(10));
         assertEquals(1, tree.getSize());
 
-        Node<Integer> root = tree.getRoot();
+        RBNode<Integer> root = tree.getRoot();
         assertEquals(10, root.data);
         assertFalse(root.color); // Root should be black
     }
@@ -55,7 +60,7 @@ public class RedBlackTest {
         tree.insert(15);
         tree.insert(20);
 
-        Node<Integer> root = tree.getRoot();
+        RBNode<Integer> root = tree.getRoot();
         assertEquals(15, root.data); // 15 should be the new root after rotation
         assertEquals(10, root.left.data);
         assertEquals(20, root.right.data);
@@ -68,7 +73,7 @@ public class RedBlackTest {
         tree.insert(15);
         tree.insert(10);
 
-        Node<Integer> root = tree.getRoot();
+        RBNode<Integer> root = tree.getRoot();
         assertEquals(15, root.data); // 15 should be the new root after rotation
         assertEquals(10, root.left.data);
         assertEquals(20, root.right.data);
@@ -164,4 +169,141 @@ public class RedBlackTest {
         }
     }
 
+    @Test
+    void testHeightTracksStructure() {
+        Random random = new Random(7);
+        for (int i = 0; i < 20000; i++) {
+            int key = random.nextInt(2000);
+            if (random.nextInt(3) == 0) {
+                tree.delete(key);
+            } else {
+                tree.insert(key);
+            }
+            if (i % 100 == 0) {
+                assertEquals(measureHeight(tree.getRoot()), tree.getHeight());
+            }
+        }
+        assertEquals(measureHeight(tree.getRoot()), tree.getHeight());
+    }
+
+    // Recomputes the height and checks every cached node height and subtree
+    // size on the way
+    private int measureHeight(RBNode<Integer> node) {
+        if (node == null) return 0;
+        int height = 1 + Math.max(measureHeight(node.left), measureHeight(node.right));
+        assertEquals(height, node.height);
+        int leftSize = node.left == null ? 0 : node.left.size;
+        int rightSize = node.right == null ? 0 : node.right.size;
+        assertEquals(1 + leftSize + rightSize, node.size);
+        return height;
+    }
+
+    @Test
+    void testFromSortedBuildsValidTree() {
+        for (int n = 0; n <= 300; n++) {
+            Integer[] values = new Integer[n];
+            for (int i = 0; i < n; i++) values[i] = i * 3;
+            tree = RedBlack.fromSorted(values);
+
+            assertEquals(n, tree.getSize());
+            if (n > 0) assertFalse(tree.getRoot().color);
+            assertValidRedBlack(tree.getRoot(), null);
+            measureHeight(tree.getRoot());
+            for (int i = 0; i < n; i++) assertTrue(tree.search(i * 3));
+        }
+
+        // The built tree keeps working as a regular red-black tree
+        for (int i = 0; i < 900; i += 2) tree.insert(i);
+        for (int i = 0; i < 900; i += 5) tree.delete(i);
+        assertValidRedBlack(tree.getRoot(), null);
+        measureHeight(tree.getRoot());
+    }
+
+    @Test
+    void testFromSortedSortsUnsortedInput() {
+        tree = RedBlack.fromSorted(new Integer[]{5, 1, null, 3, 5, 1});
+        assertEquals(3, tree.getSize());
+        assertValidRedBlack(tree.getRoot(), null);
+
+        Iterator<Integer> unsorted = List.of(1, 3, 2).iterator();
+        assertThrows(IllegalArgumentException.class, () -> RedBlack.fromSorted(unsorted, 3));
+    }
+
+    @Test
+    void testSetOperationsKeepInvariants() {
+        Random random = new Random(3);
+        for (int round = 0; round < 30; round++) {
+            int n = round < 25 ? random.nextInt(200) : 20000 + random.nextInt(20000);
+            TreeSet<Integer> first = new TreeSet<>();
+            TreeSet<Integer> second = new TreeSet<>();
+            for (int i = 0; i < n; i++) first.add(random.nextInt(3 * n + 1));
+            for (int i = 0; i < n; i++) second.add(random.nextInt(3 * n + 1));
+
+            for (int op = 0; op < 3; op++) {
+                RedBlack<Integer> a = RedBlack.fromSorted(first.toArray(new Integer[0]));
+                RedBlack<Integer> b = new RedBlack<>();
+                for (int value : second) b.insert(value);
+
+                TreeSet<Integer> expected = new TreeSet<>(first);
+                RedBlack<Integer> result;
+                if (op == 0) {
+                    expected.addAll(second);
+                    result = RedBlack.union(a, b);
+                } else if (op == 1) {
+                    expected.retainAll(second);
+                    result = RedBlack.intersection(a, b);
+                } else {
+                    expected.removeAll(second);
+                    result = RedBlack.difference(a, b);
+                }
+
+                assertEquals(0, a.getSize());
+                assertEquals(0, b.getSize());
+                assertEquals(expected.size(), result.getSize());
+                if (result.getRoot() != null) assertFalse(result.getRoot().color);
+                assertValidRedBlack(result.getRoot(), null);
+                assertEquals(measureHeight(result.getRoot()), result.getHeight());
+                Iterator<Integer> it = result.iterator();
+                for (int value : expected) assertEquals(value, it.next());
+                assertFalse(it.hasNext());
+            }
+        }
+    }
+
+    @Test
+    void testSplitAndJoin() {
+        for (int i = 0; i < 1000; i++) tree.insert(i);
+        for (int key = -1; key <= 1001; key += 77) {
+            RedBlack<Integer> greater = tree.split(key);
+            int expectedLow = Math.max(0, Math.min(key, 1000));
+            assertEquals(expectedLow, tree.getSize());
+            assertEquals(1000 - expectedLow, greater.getSize());
+            assertValidRedBlack(tree.getRoot(), null);
+            assertValidRedBlack(greater.getRoot(), null);
+            measureHeight(tree.getRoot());
+            measureHeight(greater.getRoot());
+
+            tree.join(greater);
+            assertEquals(1000, tree.getSize());
+            assertEquals(0, greater.getSize());
+            assertValidRedBlack(tree.getRoot(), null);
+            measureHeight(tree.getRoot());
+        }
+        RedBlack<Integer> lower = new RedBlack<>();
+        lower.insert(500);
+        assertThrows(IllegalArgumentException.class, () -> lower.join(tree));
+    }
+
+    // Checks parent links, no red node with a red child and equal black
+    // heights; returns the black height
+    private int assertValidRedBlack(RBNode<Integer> node, RBNode<Integer> parent) {
+        if (node == null) return 1;
+        assertSame(parent, node.parent);
+        if (node.color && parent != null) assertFalse(parent.color);
+        int left = assertValidRedBlack(node.left, node);
+        int right = assertValidRedBlack(node.right, node);
+        assertEquals(left, right);
+        return left + (node.color ? 0 : 1);
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,147 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+public class SnapshotTest {
+
+    private static InputStream input(ByteArrayOutputStream out) {
+        return new ByteArrayInputStream(out.toByteArray());
+    }
+
+    @Test
+    public void testRoundTripAllCodecs() throws IOException {
+        Random random = new Random(31);
+        AVL<String> strings = new AVL<>();
+        RedBlack<Integer> ints = new RedBlack<>();
+        AVL<Long> longs = new AVL<>();
+        for (int i = 0; i < 5000; i++) {
+            strings.insert("käse-" + random.nextInt(100000) + "-🌳");
+            ints.insert(random.nextInt());
+            longs.insert(random.nextLong());
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        strings.save(out, KeyCodec.STRING);
+        RedBlack<String> stringCopy = RedBlack.load(input(out), KeyCodec.STRING);
+        assertEquals(TreeChecks.list(strings.iterator()), TreeChecks.list(stringCopy.iterator()));
+
+        out.reset();
+        ints.save(out, KeyCodec.INTEGER);
+        AVL<Integer> intCopy = AVL.load(input(out), KeyCodec.INTEGER);
+        assertEquals(TreeChecks.list(ints.iterator()), TreeChecks.list(intCopy.iterator()));
+        assertEquals(ints.getSize(), intCopy.getSize());
+
+        out.reset();
+        longs.save(out, KeyCodec.LONG);
+        // 10 byte header, 8 bytes per key
+        assertEquals(10 + 8 * longs.getSize(), out.size());
+        assertEquals(TreeChecks.list(longs.iterator()), TreeChecks.list(AVL.load(input(out), KeyCodec.LONG).iterator()));
+    }
+
+    @Test
+    public void testLoadBuildsBalancedTrees() throws IOException {
+        RedBlack<Integer> tree = new RedBlack<>();
+        for (int i = 0; i < 100000; i++) tree.insert(i);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        tree.save(out, KeyCodec.INTEGER);
+
+        AVL<Integer> avl = AVL.load(input(out), KeyCodec.INTEGER);
+        RedBlack<Integer> rb = RedBlack.load(input(out), KeyCodec.INTEGER);
+        // Perfectly balanced: ceil(log2(100001)) levels
+        assertEquals(17, avl.getHeight());
+        assertEquals(17, rb.getHeight());
+        assertEquals(99999, rb.select(99999));
+        assertTrue(avl.search(50000));
+    }
+
+    @Test
+    public void testEmptyTreeAndPathRoundTrip() throws IOException {
+        Path dir = Files.createTempDirectory("snapshot");
+        Path path = dir.resolve("tree.snap");
+        try {
+            new AVL<String>().save(path, KeyCodec.STRING);
+            assertEquals(0, AVL.load(path, KeyCodec.STRING).getSize());
+
+            RedBlack<String> tree = new RedBlack<>();
+            tree.insert("b");
+            tree.insert("a");
+            tree.save(path, KeyCodec.STRING);
+            assertEquals(Arrays.asList("a", "b"), TreeChecks.list(RedBlack.load(path, KeyCodec.STRING).iterator()));
+            assertFalse(Files.exists(dir.resolve("tree.snap.tmp")));
+        } finally {
+            Files.deleteIfExists(path);
+            Files.delete(dir);
+        }
+    }
+
+    @Test
+    public void testFailedSaveKeepsOldSnapshot() throws IOException {
+        Path dir = Files.createTempDirectory("snapshot");
+        Path path = dir.resolve("tree.snap");
+        // Fails on the 50th key, after part of the snapshot is written
+        KeyCodec<Integer> failing = new KeyCodec<>() {
+            @Override
+            public byte id() {
+                return KeyCodec.INTEGER.id();
+            }
+
+            @Override
+            public void write(DataOutput out, Integer key) throws IOException {
+                if (key == 50) throw new IOException("disk full");
+                KeyCodec.INTEGER.write(out, key);
+            }
+
+            @Override
+            public Integer read(DataInput in) throws IOException {
+                return KeyCodec.INTEGER.read(in);
+            }
+        };
+        try {
+            AVL<Integer> tree = new AVL<>();
+            for (int i = 0; i < 10; i++) tree.insert(i);
+            tree.save(path, KeyCodec.INTEGER);
+            for (int i = 10; i < 100; i++) tree.insert(i);
+            assertThrows(IOException.class, () -> tree.save(path, failing));
+            assertFalse(Files.exists(dir.resolve("tree.snap.tmp")));
+            assertEquals(10, AVL.load(path, KeyCodec.INTEGER).getSize());
+        } finally {
+            Files.deleteIfExists(path);
+            Files.delete(dir);
+        }
+    }
+
+    @Test
+    public void testRejectsDamagedSnapshots() throws IOException {
+        AVL<Integer> tree = new AVL<>();
+        for (int i = 0; i < 100; i++) tree.insert(i);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        tree.save(out, KeyCodec.INTEGER);
+        byte[] bytes = out.toByteArray();
+
+        // Wrong codec
+        assertThrows(IOException.class, () -> AVL.load(new ByteArrayInputStream(bytes), KeyCodec.LONG));
+        // Truncated
+        byte[] truncated = Arrays.copyOf(bytes, bytes.length - 3);
+        assertThrows(IOException.class, () -> RedBlack.load(new ByteArrayInputStream(truncated), KeyCodec.INTEGER));
+        // Keys out of order: swap the first two
+        byte[] unsorted = bytes.clone();
+        System.arraycopy(bytes, 14, unsorted, 10, 4);
+        System.arraycopy(bytes, 10, unsorted, 14, 4);
+        assertThrows(IOException.class, () -> AVL.load(new ByteArrayInputStream(unsorted), KeyCodec.INTEGER));
+        // Not a snapshot
+        assertThrows(IOException.class, () -> AVL.load(new ByteArrayInputStream("hello world\n".getBytes()), KeyCodec.STRING));
+    }
+}
@@ -0,0 +1,54 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+
+public class SplayTreeTest {
+
+    // Checks key order, sizes and heights; returns the subtree height
+    private static int check(SplayNode<Integer> node, Integer low, Integer high) {
+        if (node == null) {
+            return 0;
+        }
+        if (low != null) assertTrue(node.data > low, "order at " + node.data);
+        if (high != null) assertTrue(node.data < high, "order at " + node.data);
+        int height = 1 + Math.max(check(node.left, low, node.data), check(node.right, node.data, high));
+        int leftSize = node.left == null ? 0 : node.left.size;
+        int rightSize = node.right == null ? 0 : node.right.size;
+        assertEquals(1 + leftSize + rightSize, node.size);
+        assertEquals(height, node.height);
+        return height;
+    }
+
+    @Test
+    public void testBehavesLikeASet() {
+        TreeChecks.assertBehavesLikeASet(new SplayTree<>(), 13, tree -> check(tree.getRoot(), null, null));
+    }
+
+    @Test
+    public void testAccessedKeyMovesToTheRoot() {
+        SplayTree<Integer> tree = new SplayTree<>();
+        for (int i = 0; i < 1000; i++) tree.insert(i);
+        assertTrue(tree.search(500));
+        assertEquals(500, tree.getRoot().getData());
+        assertFalse(tree.search(-1));
+        assertEquals(0, tree.getRoot().getData());
+    }
+
+    @Test
+    public void testDegenerateShapeDoesNotRecurse() {
+        // Sorted inserts leave a path of all keys; splaying its far end must
+        // not overflow the stack, and it roughly halves the depth
+        SplayTree<Integer> tree = new SplayTree<>();
+        int n = 1_000_000;
+        for (int i = 0; i < n; i++) tree.insert(i);
+        assertEquals(n, tree.getHeight());
+        assertTrue(tree.search(0));
+        assertTrue(tree.getHeight() <= n / 2 + 2, "height " + tree.getHeight());
+        assertEquals(List.of(0, 1, 2), TreeChecks.list(tree.iterator(0, 3)));
+        assertEquals(n, tree.getSize());
+    }
+}
@@ -0,0 +1,43 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TreapTest {
+
+    // Checks the heap order on priorities, sizes and heights
+    private static int checkHeap(TreapNode<Integer> node) {
+        if (node == null) {
+            return 0;
+        }
+        if (node.left != null) assertTrue(node.left.priority <= node.priority, "heap order at " + node.data);
+        if (node.right != null) assertTrue(node.right.priority <= node.priority, "heap order at " + node.data);
+        int height = 1 + Math.max(checkHeap(node.left), checkHeap(node.right));
+        int leftSize = node.left == null ? 0 : node.left.size;
+        int rightSize = node.right == null ? 0 : node.right.size;
+        assertEquals(1 + leftSize + rightSize, node.size);
+        assertEquals(height, node.height);
+        return height;
+    }
+
+    @Test
+    public void testBehavesLikeASet() {
+        TreeChecks.assertBehavesLikeASet(new Treap<>(11), 11, tree -> checkHeap(tree.getRoot()));
+    }
+
+    @Test
+    public void testSortedInputStaysShallow() {
+        // The shape depends on the priorities only, not on the insert order
+        Treap<Integer> tree = new Treap<>(5);
+        int n = 1 << 17;
+        for (int i = 0; i < n; i++) tree.insert(i);
+        checkHeap(tree.getRoot());
+        assertTrue(tree.getHeight() < 4 * 17, "height " + tree.getHeight());
+
+        // Fewer than two rotations per insert in expectation, none recolouring
+        RebalanceCounter counter = tree.rebalanceCounter();
+        assertTrue(counter.rotations() < 2L * n, counter.toString());
+        assertEquals(0, counter.recolours());
+    }
+}
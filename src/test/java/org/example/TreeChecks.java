@@ -0,0 +1,95 @@
+package org.example;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+
+// Checks shared by the engine tests. Each engine test runs the differential
+// check below and only adds the invariants of its own node layout.
+final class TreeChecks {
+    private TreeChecks() {
+    }
+
+    static <T> List<T> list(Iterator<T> iterator) {
+        List<T> values = new ArrayList<>();
+        iterator.forEachRemaining(values::add);
+        return values;
+    }
+
+    // Runs random searches, inserts and deletes on keys in [0, 3000) against
+    // a TreeSet, in six rounds that alternately grow and shrink the set, then
+    // deletes every key in order until the tree is empty. After each round it
+    // compares size, iteration and navigation, probes 200 keys (search, get,
+    // rank, floor, ceiling, lower, higher, countRange, range iterators) and
+    // selects every 37th element. invariants checks the engine's own
+    // structure after each round, after the probes (which restructure a splay
+    // tree) and every 100 deletes of the final teardown.
+    static <X extends Tree<Integer>> void assertBehavesLikeASet(X tree, long seed, Consumer<? super X> invariants) {
+        TreeSet<Integer> reference = new TreeSet<>();
+        Random random = new Random(seed);
+        for (int round = 0; round < 6; round++) {
+            boolean growing = round % 2 == 0;
+            for (int i = 0; i < 5000; i++) {
+                int value = random.nextInt(3000);
+                int operation = random.nextInt(4);
+                if (operation == 0) {
+                    assertEquals(reference.contains(value), tree.search(value));
+                } else if (growing ? operation > 1 : operation == 1) {
+                    assertEquals(reference.add(value), tree.insert(value));
+                } else {
+                    assertEquals(reference.remove(value), tree.delete(value));
+                }
+            }
+            invariants.accept(tree);
+            assertSameAs(reference, tree, random);
+            invariants.accept(tree);
+        }
+
+        int deleted = 0;
+        for (int value : List.copyOf(reference)) {
+            assertTrue(tree.delete(value));
+            if (++deleted % 100 == 0) invariants.accept(tree);
+        }
+        invariants.accept(tree);
+        assertEquals(0, tree.getSize());
+        assertEquals(0, tree.getHeight());
+        assertNull(tree.getRoot());
+        assertNull(tree.first());
+        assertFalse(tree.iterator().hasNext());
+        assertFalse(tree.insert(null));
+        assertFalse(tree.delete(null));
+    }
+
+    private static void assertSameAs(TreeSet<Integer> reference, Tree<Integer> tree, Random random) {
+        assertEquals(reference.size(), tree.getSize());
+        assertEquals(List.copyOf(reference), list(tree.iterator()));
+        assertEquals(List.copyOf(reference.descendingSet()), list(tree.descendingIterator()));
+        assertEquals(reference.isEmpty() ? null : reference.first(), tree.first());
+        assertEquals(reference.isEmpty() ? null : reference.last(), tree.last());
+        for (int probe = 0; probe < 200; probe++) {
+            int value = random.nextInt(3100) - 50;
+            assertEquals(reference.contains(value), tree.search(value));
+            assertEquals(reference.contains(value) ? value : null, tree.get(value));
+            assertEquals(reference.headSet(value).size(), tree.rank(value));
+            assertEquals(reference.floor(value), tree.floor(value));
+            assertEquals(reference.ceiling(value), tree.ceiling(value));
+            assertEquals(reference.lower(value), tree.lower(value));
+            assertEquals(reference.higher(value), tree.higher(value));
+            int to = value + random.nextInt(100);
+            assertEquals(reference.subSet(value, true, to, true).size(), tree.countRange(value, to));
+            assertEquals(List.copyOf(reference.subSet(value, to)), list(tree.iterator(value, to)));
+            assertEquals(List.copyOf(reference.subSet(value, true, to, false).descendingSet()), list(tree.descendingIterator(value, to)));
+        }
+        List<Integer> sorted = List.copyOf(reference);
+        for (int index = 0; index < sorted.size(); index += 37) {
+            assertEquals(sorted.get(index), tree.select(index));
+        }
+        assertNull(tree.select(-1));
+        assertNull(tree.select(sorted.size()));
+    }
+}
@@ -5,8 +5,14 @@ import org.junit.jupiter.api.Test;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
 
 public class TreeComparisonTest {
     private AVL<Integer> avlTree;
@@ -19,29 +25,13 @@ public class TreeComparisonTest {
     }
 
     private void insertToBoth(int... values) {
-        long start = System.nanoTime();
         for (int value : values) avlTree.insert(value);
-        long avlTime = System.nanoTime() - start;
-
-        start = System.nanoTime();
         for (int value : values) rbTree.insert(value);
-        long rbTime = System.nanoTime() - start;
-
-        System.out.println("Insert: AVL time = " + avlTime + " ns, height = " + avlTree.getHeight());
-        System.out.println("Insert: RB time = " + rbTime + " ns, height = " + rbTree.getHeight());
     }
 
     private void deleteFromBoth(int... values) {
-        long start = System.nanoTime();
         for (int value : values) avlTree.delete(value);
-        long avlTime = System.nanoTime() - start;
-
-        start = System.nanoTime();
         for (int value : values) rbTree.delete(value);
-        long rbTime = System.nanoTime() - start;
-
-        System.out.println("Delete: AVL time = " + avlTime + " ns, height = " + avlTree.getHeight());
-        System.out.println("Delete: RB time = " + rbTime + " ns, height = " + rbTree.getHeight());
     }
 
     @Test
@@ -111,23 +101,21 @@ public class TreeComparisonTest {
     }
 
     @Test
-    public void testPerformanceLargeDataset() {
+    public void testLargeDataset() {
         int n = 100000;
         Random rand = new Random(42);
         int[] values = rand.ints(n, 0, n * 10).toArray();
 
-        long start = System.nanoTime();
         for (int value : values) avlTree.insert(value);
-        long avlTime = System.nanoTime() - start;
-
-        start = System.nanoTime();
         for (int value : values) rbTree.insert(value);
-        long rbTime = System.nanoTime() - start;
-
-        System.out.println("Large Dataset Insert: AVL time = " + avlTime + " ns, height = " + avlTree.getHeight());
-        System.out.println("Large Dataset Insert: RB time = " + rbTime + " ns, height = " + rbTree.getHeight());
 
-        assertTrue(Math.abs(avlTime - rbTime) < avlTime);
+        assertEquals(Arrays.stream(values).distinct().count(), avlTree.getSize());
+        assertEquals(avlTree.getSize(), rbTree.getSize());
+        assertTrue(avlTree.getHeight() <= rbTree.getHeight());
+        for (int value : values) {
+            assertTrue(avlTree.search(value));
+            assertTrue(rbTree.search(value));
+        }
     }
 
     @Test
@@ -179,17 +167,8 @@ public class TreeComparisonTest {
         int[] values = rand.ints(insertCount, 0, insertCount * 10).toArray();
 
         // Bulk Insert
-        long start = System.nanoTime();
         for (int value : values) avlTree.insert(value);
-        long avlInsertTime = System.nanoTime() - start;
-
-        start = System.nanoTime();
         for (int value : values) rbTree.insert(value);
-        long rbInsertTime = System.nanoTime() - start;
-
-        System.out.println("Bulk Insert:");
-        System.out.println("AVL Insert Time: " + avlInsertTime + " ns, Height: " + avlTree.getHeight());
-        System.out.println("RB Insert Time: " + rbInsertTime + " ns, Height: " + rbTree.getHeight());
 
         // Shuffle and delete first deleteCount values
         for (int i = values.length - 1; i > 0; i--) {
@@ -202,19 +181,8 @@ public class TreeComparisonTest {
         values = Arrays.stream(values).distinct().toArray();
 
 
-        start = System.nanoTime();
         for (int i = 0; i < deleteCount; i++) avlTree.delete(values[i]);
-        long avlDeleteTime = System.nanoTime() - start;
-
-        start = System.nanoTime();
-        for (int i = 0; i < deleteCount; i++){
-            rbTree.delete(values[i]);
-        }
-        long rbDeleteTime = System.nanoTime() - start;
-
-        System.out.println("Bulk Delete:");
-        System.out.println("AVL Delete Time: " + avlDeleteTime + " ns, Final Height: " + avlTree.getHeight());
-        System.out.println("RB Delete Time: " + rbDeleteTime + " ns, Final Height: " + rbTree.getHeight());
+        for (int i = 0; i < deleteCount; i++) rbTree.delete(values[i]);
 
         // Validate remaining values exist
         for (int i = deleteCount; i < values.length; i++) {
@@ -245,6 +213,350 @@ public class TreeComparisonTest {
         assertEquals(0, rbTree.getHeight());
     }
 
+    @Test
+    public void testSingleDescentPerMutation() {
+        AVL<CountingKey> avl = new AVL<>();
+        RedBlack<CountingKey> rb = new RedBlack<>();
+        for (int i = 0; i < 1000; i += 2) {
+            avl.insert(new CountingKey(i));
+            rb.insert(new CountingKey(i));
+        }
+
+        for (Tree<CountingKey> tree : List.of(avl, rb)) {
+            int height = tree.getHeight();
+            // A fresh key and a duplicate each cost at most one comparison per level
+            CountingKey.comparisons = 0;
+            assertTrue(tree.insert(new CountingKey(501)));
+            assertTrue(CountingKey.comparisons <= height);
+
+            CountingKey.comparisons = 0;
+            assertFalse(tree.insert(new CountingKey(500)));
+            assertTrue(CountingKey.comparisons <= height);
+
+            height = tree.getHeight();
+            CountingKey.comparisons = 0;
+            assertTrue(tree.delete(new CountingKey(500)));
+            assertTrue(CountingKey.comparisons <= height);
+
+            CountingKey.comparisons = 0;
+            assertFalse(tree.delete(new CountingKey(500)));
+            assertTrue(CountingKey.comparisons <= height);
+        }
+    }
+
+
+    private static class CountingKey implements Comparable<CountingKey> {
+        static long comparisons;
+        final int value;
+
+        CountingKey(int value) {
+            this.value = value;
+        }
+
+        @Override
+        public int compareTo(CountingKey o) {
+            comparisons++;
+            return Integer.compare(value, o.value);
+        }
+    }
+
+    @Test
+    public void testGetReturnsStoredElement() {
+        AVL<String> avl = new AVL<>();
+        RedBlack<String> rb = new RedBlack<>();
+        String stored = new String("key");
+        avl.insert(stored);
+        rb.insert(stored);
+
+        assertSame(stored, avl.get(new String("key")));
+        assertSame(stored, rb.get(new String("key")));
+        assertNull(avl.get("other"));
+        assertNull(rb.get("other"));
+        assertNull(avl.get(null));
+        assertFalse(rb.search(null));
+    }
+
+    @Test
+    public void testOrderStatistics() {
+        TreeSet<Integer> expected = new TreeSet<>();
+        Random rand = new Random(11);
+        for (int i = 0; i < 5000; i++) {
+            int value = rand.nextInt(3000);
+            if (rand.nextInt(4) == 0) {
+                expected.remove(value);
+                avlTree.delete(value);
+                rbTree.delete(value);
+            } else {
+                expected.add(value);
+                avlTree.insert(value);
+                rbTree.insert(value);
+            }
+        }
+
+        Integer[] sorted = expected.toArray(new Integer[0]);
+        for (Tree<Integer> tree : List.of(avlTree, rbTree)) {
+            for (int i = 0; i < sorted.length; i++) {
+                assertEquals(sorted[i], tree.select(i));
+                assertEquals(i, tree.rank(sorted[i]));
+            }
+            assertNull(tree.select(-1));
+            assertNull(tree.select(sorted.length));
+            for (int k = -5; k < 3005; k += 7) {
+                assertEquals(expected.headSet(k).size(), tree.rank(k));
+                int to = k + rand.nextInt(200);
+                assertEquals(expected.subSet(k, true, to, true).size(), tree.countRange(k, to));
+            }
+            assertEquals(0, tree.countRange(10, 5));
+        }
+    }
+
+    @Test
+    public void testNavigationAndIterators() {
+        TreeSet<Integer> expected = new TreeSet<>();
+        Random rand = new Random(5);
+        for (int i = 0; i < 2000; i++) {
+            int value = rand.nextInt(1000) * 2;
+            expected.add(value);
+            avlTree.insert(value);
+            rbTree.insert(value);
+        }
+
+        for (Tree<Integer> tree : List.of(avlTree, rbTree)) {
+            assertEquals(expected.first(), tree.first());
+            assertEquals(expected.last(), tree.last());
+            for (int k = -3; k < 2003; k++) {
+                assertEquals(expected.floor(k), tree.floor(k));
+                assertEquals(expected.ceiling(k), tree.ceiling(k));
+                assertEquals(expected.lower(k), tree.lower(k));
+                assertEquals(expected.higher(k), tree.higher(k));
+            }
+
+            assertEquals(TreeChecks.list(expected.iterator()), TreeChecks.list(tree.iterator()));
+            assertEquals(TreeChecks.list(expected.descendingIterator()), TreeChecks.list(tree.descendingIterator()));
+            for (int k = 0; k < 50; k++) {
+                int from = rand.nextInt(2100) - 50;
+                int to = from + rand.nextInt(300);
+                assertEquals(TreeChecks.list(expected.subSet(from, to).iterator()), TreeChecks.list(tree.iterator(from, to)));
+                assertEquals(TreeChecks.list(expected.subSet(from, true, to, false).descendingIterator()),
+                        TreeChecks.list(tree.descendingIterator(from, to)));
+            }
+            assertEquals(TreeChecks.list(expected.headSet(500).iterator()), TreeChecks.list(tree.iterator(null, 500)));
+            assertEquals(TreeChecks.list(expected.tailSet(500, true).descendingIterator()), TreeChecks.list(tree.descendingIterator(500, null)));
+        }
+
+        assertFalse(new AVL<Integer>().iterator().hasNext());
+        assertFalse(new RedBlack<Integer>().descendingIterator().hasNext());
+        assertNull(new AVL<Integer>().first());
+    }
+
+    @Test
+    public void testAvlFromSorted() {
+        for (int n = 0; n <= 300; n++) {
+            Integer[] values = new Integer[n];
+            for (int i = 0; i < n; i++) values[i] = i;
+            AVL<Integer> avl = AVL.fromSorted(values);
+
+            assertEquals(n, avl.getSize());
+            assertEquals(32 - Integer.numberOfLeadingZeros(n), avl.getHeight());
+            for (int i = 0; i < n; i++) assertEquals(i, avl.select(i));
+        }
+
+        AVL<Integer> avl = AVL.fromSorted(new Integer[]{4, 2, 2, 9, null});
+        assertEquals(List.of(2, 4, 9), TreeChecks.list(avl.iterator()));
+        avl.insert(3);
+        avl.delete(4);
+        assertEquals(List.of(2, 3, 9), TreeChecks.list(avl.iterator()));
+
+        Iterator<Integer> duplicates = List.of(1, 1).iterator();
+        assertThrows(IllegalArgumentException.class, () -> AVL.fromSorted(duplicates, 2));
+    }
+
+    @Test
+    public void testAvlSetOperations() {
+        Random rand = new Random(9);
+        for (int round = 0; round < 30; round++) {
+            int n = round < 25 ? rand.nextInt(200) : 20000 + rand.nextInt(20000);
+            TreeSet<Integer> first = new TreeSet<>();
+            TreeSet<Integer> second = new TreeSet<>();
+            for (int i = 0; i < n; i++) first.add(rand.nextInt(3 * n + 1));
+            for (int i = 0; i < n; i++) second.add(rand.nextInt(3 * n + 1));
+
+            for (int op = 0; op < 3; op++) {
+                AVL<Integer> a = AVL.fromSorted(first.toArray(new Integer[0]));
+                AVL<Integer> b = new AVL<>();
+                for (int value : second) b.insert(value);
+
+                TreeSet<Integer> expected = new TreeSet<>(first);
+                AVL<Integer> result;
+                if (op == 0) {
+                    expected.addAll(second);
+                    result = AVL.union(a, b);
+                } else if (op == 1) {
+                    expected.retainAll(second);
+                    result = AVL.intersection(a, b);
+                } else {
+                    expected.removeAll(second);
+                    result = AVL.difference(a, b);
+                }
+
+                assertEquals(0, a.getSize());
+                assertEquals(0, b.getSize());
+                assertEquals(expected.size(), result.getSize());
+                assertBalanced(result.getRoot());
+                assertEquals(List.copyOf(expected), TreeChecks.list(result.iterator()));
+            }
+        }
+
+        AVL<Integer> same = AVL.fromSorted(new Integer[]{1, 2, 3});
+        assertEquals(List.of(1, 2, 3), TreeChecks.list(AVL.union(same, same).iterator()));
+    }
+
+    @Test
+    public void testParallelAvlSetOperationsCountEveryRebalance() {
+        // AVL set operations rebalance on several workers at once, and their
+        // work does not depend on the schedule, so no count may get lost
+        Random rand = new Random(23);
+        Integer[] first = new Integer[200_000];
+        Integer[] second = new Integer[50_000];
+        for (int i = 0; i < first.length; i++) first[i] = rand.nextInt(1 << 20);
+        for (int i = 0; i < second.length; i++) second[i] = rand.nextInt(1 << 20);
+        List<String> counts = new ArrayList<>();
+        for (int run = 0; run < 4; run++) {
+            counts.add(AVL.union(AVL.fromSorted(first), AVL.fromSorted(second)).rebalanceCounter().toString());
+        }
+        assertEquals(1, Set.copyOf(counts).size(), counts.toString());
+        assertNotEquals("rotations=0, recolours=0", counts.get(0));
+    }
+
+    @Test
+    public void testAvlSplitAndJoin() {
+        for (int i = 0; i < 1000; i++) avlTree.insert(i);
+        for (int key = -1; key <= 1001; key += 77) {
+            AVL<Integer> greater = avlTree.split(key);
+            int expectedLow = Math.max(0, Math.min(key, 1000));
+            assertEquals(expectedLow, avlTree.getSize());
+            assertEquals(1000 - expectedLow, greater.getSize());
+            assertBalanced(avlTree.getRoot());
+            assertBalanced(greater.getRoot());
+            assertEquals(expectedLow == 1000 ? null : Math.max(key, 0), greater.first());
+
+            avlTree.join(greater);
+            assertEquals(1000, avlTree.getSize());
+            assertBalanced(avlTree.getRoot());
+        }
+    }
+
+    @Test
+    public void testBatchOperations() {
+        Random rand = new Random(18);
+        List<Tree<Integer>> trees = List.of(avlTree, rbTree, new ConcurrentAVL<>());
+        TreeSet<Integer> expected = new TreeSet<>();
+        for (int round = 0; round < 40; round++) {
+            // Clustered keys with duplicates and a null
+            int n = round < 30 ? rand.nextInt(300) : 5000 + rand.nextInt(5000);
+            Integer[] keys = new Integer[n + 1];
+            int base = rand.nextInt(10000);
+            for (int i = 0; i < n; i++) {
+                if (rand.nextInt(20) == 0) base = rand.nextInt(10000);
+                keys[i] = base + rand.nextInt(50);
+            }
+            keys[rand.nextInt(n + 1)] = null;
+
+            int changed = 0;
+            boolean inserting = rand.nextBoolean();
+            for (Integer key : keys) {
+                if (key != null && (inserting ? expected.add(key) : expected.remove(key))) changed++;
+            }
+            for (Tree<Integer> tree : trees) {
+                assertEquals(changed, inserting ? tree.insertAll(keys) : tree.deleteAll(keys));
+                assertEquals(expected.size(), tree.getSize());
+
+                Integer[] probes = Arrays.copyOf(keys, keys.length + 10);
+                for (int i = keys.length; i < probes.length; i++) probes[i] = rand.nextInt(10100) - 50;
+                BitSet found = tree.searchAll(probes);
+                for (int i = 0; i < probes.length; i++) {
+                    assertEquals(probes[i] != null && expected.contains(probes[i]), found.get(i));
+                }
+            }
+            assertBalanced(avlTree.getRoot());
+            assertEquals(List.copyOf(expected), TreeChecks.list(avlTree.iterator()));
+            assertEquals(List.copyOf(expected), TreeChecks.list(rbTree.iterator()));
+        }
+    }
+
+    // Integer key that counts its comparisons
+    private static final class Counted implements Comparable<Counted> {
+        static long comparisons;
+        final int value;
+
+        Counted(int value) {
+            this.value = value;
+        }
+
+        @Override
+        public int compareTo(Counted other) {
+            comparisons++;
+            return Integer.compare(value, other.value);
+        }
+    }
+
+    @Test
+    public void testCursor() {
+        for (int round = 0; round < 2; round++) {
+            Tree<Counted> tree = round == 0 ? new AVL<>() : new RedBlack<>();
+            for (int i = 0; i < 100_000; i++) tree.insert(new Counted(2 * i));
+            Cursor<Counted> cursor = round == 0 ? ((AVL<Counted>) tree).cursor() : ((RedBlack<Counted>) tree).cursor();
+            assertNull(cursor.current());
+
+            // A walk in small steps in both directions
+            Random rand = new Random(19);
+            int key = 100_000;
+            Counted.comparisons = 0;
+            for (int i = 0; i < 100_000; i++) {
+                key = Math.max(-5, Math.min(200_005, key + rand.nextInt(9) - 4));
+                Counted found = cursor.get(new Counted(key));
+                assertEquals(key % 2 == 0 && key >= 0 && key < 200_000, found != null);
+                if (found != null) assertEquals(key, cursor.current().value);
+            }
+            // Far fewer than the ~17 comparisons of a search from the root
+            assertTrue(Counted.comparisons < 8 * 100_000L, "comparisons: " + Counted.comparisons);
+
+            // Long jumps still work
+            for (int i = 0; i < 1000; i++) {
+                int target = rand.nextInt(200_000);
+                assertEquals(target % 2 == 0, cursor.search(new Counted(target)));
+            }
+
+            // A change drops the finger
+            cursor.get(new Counted(500));
+            assertEquals(500, cursor.current().value);
+            tree.insert(new Counted(501));
+            assertNull(cursor.current());
+            assertTrue(cursor.search(new Counted(501)));
+            tree.delete(new Counted(501));
+            assertFalse(cursor.search(new Counted(501)));
+            tree.insertAll(new Counted[]{new Counted(-1), new Counted(-3)});
+            assertNull(cursor.current());
+            assertTrue(cursor.search(new Counted(-3)));
+            assertTrue(cursor.search(new Counted(199_998)));
+        }
+        assertNull(new AVL<Integer>().cursor().get(1));
+        assertNull(new RedBlack<Integer>().cursor().get(1));
+    }
+
+    // Checks the AVL balance and the cached heights and sizes; returns the height
+    private int assertBalanced(AVLNode<Integer> node) {
+        if (node == null) return 0;
+        int left = assertBalanced(node.left);
+        int right = assertBalanced(node.right);
+        assertTrue(Math.abs(left - right) <= 1);
+        assertEquals(1 + Math.max(left, right), node.height);
+        int leftSize = node.left == null ? 0 : node.left.size;
+        int rightSize = node.right == null ? 0 : node.right.size;
+        assertEquals(1 + leftSize + rightSize, node.size);
+        return node.height;
+    }
+
     @Test
     public void testEmptySearch() {
         assertFalse(avlTree.search(1));
@@ -269,63 +581,11 @@ public class TreeComparisonTest {
     };
 
 
-    @Test
-    public void testPerformanceAcrossSizes() {
-        System.out.printf("%-10s | %-10s | %-12s | %-12s | %-12s | %-12s | %-12s | %-8s%n",
-                "Size", "Tree", "Insert(ns)", "Search(ns)", "Delete(ns)", "Height", "Height", "Status");
-        System.out.printf("%-10s | %-10s | %-12s | %-12s | %-12s | %-12s | %-12s | %-8s%n",
-                "", "", "", "", "", "(AVL)", "(RB)", "");
-
-        for (int size : SIZES) {
-            int[] data = generateRandomArray(size, 42);
-
-            AVL<Integer> avl = new AVL<>();
-            RedBlack<Integer> rb = new RedBlack<>();
-
-            long avlInsert = measureInsertTime(avl, data);
-            long rbInsert = measureInsertTime(rb, data);
-
-            int avlHeight = avl.getHeight();
-            int rbHeight = rb.getHeight();
-
-            long avlSearch = measureSearchTime(avl, data);
-            long rbSearch = measureSearchTime(rb, data);
-
-            long avlDelete = measureDeleteTime(avl, data);
-            long rbDelete = measureDeleteTime(rb, data);  // Fixed: correctly measure RB delete
-
-            System.out.printf("%-10d | %-10s | %-12d | %-12d | %-12d | %-12d | %-12s | %-8s%n",
-                    size, "AVL", avlInsert, avlSearch, avlDelete, avlHeight, "-" , "✓");
-            System.out.printf("%-10s | %-10s | %-12d | %-12d | %-12d | %-12s | %-12d | %-8s%n",
-                    "", "RB", rbInsert, rbSearch, rbDelete, "-", rbHeight, "✓");
-        }
-    }
-
-
     private int[] generateRandomArray(int size, long seed) {
         Random random = new Random(seed);
         return random.ints(size, 0, size * 10).toArray();
     }
 
-    private long measureInsertTime(Tree<Integer> tree, int[] data) {
-        long start = System.nanoTime();
-        for (int x : data) tree.insert(x);
-        return (System.nanoTime() - start); // ns
-    }
-
-    private long measureSearchTime(Tree<Integer> tree, int[] data) {
-        long start = System.nanoTime();
-        for (int x : data) tree.search(x);
-        return (System.nanoTime() - start); // ns
-    }
-
-    private long measureDeleteTime(Tree<Integer> tree, int[] data) {
-        long start = System.nanoTime();
-        for (int x : data) tree.delete(x);
-        return (System.nanoTime() - start); // ns
-    }
-
-
     @Test
     public void testSizeAndHeightAcrossSizes() {
         System.out.printf("%-10s | %-10s | %-12s | %-12s | %-12s%n",
@@ -0,0 +1,73 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+
+public class WAVLTest {
+
+    // Checks the rank rule, sizes and heights; returns the subtree height
+    private static int checkRanks(WAVLNode<Integer> node) {
+        if (node == null) {
+            return 0;
+        }
+        int leftHeight = checkRanks(node.left);
+        int rightHeight = checkRanks(node.right);
+        // Null children count as rank -1
+        int leftDifference = node.rank - (node.left == null ? -1 : node.left.rank);
+        int rightDifference = node.rank - (node.right == null ? -1 : node.right.rank);
+        assertTrue(leftDifference == 1 || leftDifference == 2, "left rank difference at " + node.data);
+        assertTrue(rightDifference == 1 || rightDifference == 2, "right rank difference at " + node.data);
+        if (node.left == null && node.right == null) {
+            assertEquals(0, node.rank, "leaf rank at " + node.data);
+        }
+        int leftSize = node.left == null ? 0 : node.left.size;
+        int rightSize = node.right == null ? 0 : node.right.size;
+        assertEquals(1 + leftSize + rightSize, node.size);
+        assertEquals(1 + Math.max(leftHeight, rightHeight), node.height);
+        return node.height;
+    }
+
+    @Test
+    public void testBehavesLikeASet() {
+        TreeChecks.assertBehavesLikeASet(new WAVL<>(), 7, tree -> checkRanks(tree.getRoot()));
+    }
+
+    @Test
+    public void testInsertOnlyMatchesAVLHeight() {
+        // Without deletions a WAVL tree is an AVL tree
+        WAVL<Integer> wavl = new WAVL<>();
+        AVL<Integer> avl = new AVL<>();
+        Random random = new Random(3);
+        for (int i = 0; i < 100000; i++) {
+            int value = random.nextInt();
+            wavl.insert(value);
+            avl.insert(value);
+        }
+        assertEquals(avl.getHeight(), wavl.getHeight());
+        checkRanks(wavl.getRoot());
+    }
+
+    @Test
+    public void testConstantAmortizedRebalancing() {
+        // At most two rotations per update, and O(1) amortized rank changes
+        // even when deletions follow insertions in sorted order
+        WAVL<Integer> tree = new WAVL<>();
+        int n = 1 << 16;
+        for (int i = 0; i < n; i++) tree.insert(i);
+        for (int i = 0; i < n; i += 2) tree.delete(i);
+        for (int i = 0; i < n; i += 2) tree.insert(i);
+        for (int i = 0; i < n; i++) tree.delete(i);
+        long updates = 3L * n;
+        RebalanceCounter counter = tree.rebalanceCounter();
+        assertTrue(counter.rotations() <= 2 * updates, counter.toString());
+        assertTrue(counter.recolours() <= 4 * updates, counter.toString());
+        assertEquals(0, tree.getSize());
+
+        counter.reset();
+        assertEquals(0, counter.rotations());
+        assertEquals(0, counter.recolours());
+    }
+}